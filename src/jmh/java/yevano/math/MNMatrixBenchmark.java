@@ -0,0 +1,56 @@
+package yevano.math;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import yevano.math.matrix.MNMatrix;
+import yevano.math.matrix.Matrix;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class MNMatrixBenchmark {
+    @Param({ "16", "64", "256", "512" })
+    int size;
+
+    MNMatrix a;
+    MNMatrix b;
+
+    static MNMatrix random(int m, int n) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        double[] cs = new double[m * n];
+        for(int i = 0; i < cs.length; i++) cs[i] = rnd.nextDouble();
+        return MNMatrix.of(m, n, cs);
+    }
+
+    @Setup
+    public void setup() {
+        a = random(size, size);
+        b = random(size, size);
+    }
+
+    @Benchmark
+    public Matrix mul() {
+        return a.mul(b);
+    }
+
+    @Benchmark
+    public Matrix mulParallel() {
+        return a.mulParallel(b);
+    }
+}
@@ -0,0 +1,73 @@
+package yevano.math;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import yevano.math.matrix.Matrix3;
+import yevano.math.matrix.Matrix4;
+import yevano.math.vector.Vector3;
+import yevano.math.vector.Vector4;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixBenchmark {
+    Matrix3 a3;
+    Matrix3 b3;
+    Vector3 v3;
+    Matrix4 a4;
+    Matrix4 b4;
+    Vector4 v4;
+
+    @Setup
+    public void setup() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        a3 = Matrix3.of(
+            rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble(),
+            rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble(),
+            rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble());
+        b3 = Matrix3.rotateX(rnd.nextDouble()).mul(Matrix3.rotateY(rnd.nextDouble()));
+        v3 = Vector3.of(rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble());
+        a4 = Matrix4.of(
+            rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble(),
+            rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble(),
+            rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble(),
+            rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble());
+        b4 = new Matrix4(a4.mul(2.0));
+        v4 = Vector4.of(rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble());
+    }
+
+    @Benchmark
+    public Matrix3 mul3() {
+        return a3.mul(b3);
+    }
+
+    @Benchmark
+    public Vector3 mul3Vector() {
+        return a3.mul(v3);
+    }
+
+    @Benchmark
+    public Matrix4 mul4() {
+        return a4.mul(b4);
+    }
+
+    @Benchmark
+    public Vector4 mul4Vector() {
+        return a4.mul(v4);
+    }
+}
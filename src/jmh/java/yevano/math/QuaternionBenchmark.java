@@ -0,0 +1,83 @@
+package yevano.math;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import yevano.math.matrix.Matrix3;
+import yevano.math.rotation.EulerAngles;
+import yevano.math.rotation.Quaternion;
+import yevano.math.rotation.QuaternionArray;
+import yevano.math.vector.Vector3;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuaternionBenchmark {
+    Quaternion p;
+    Quaternion q;
+    Vector3 v;
+    EulerAngles angles;
+    double[] pitch;
+    double[] yaw;
+    double[] roll;
+    QuaternionArray rotations;
+
+    @Setup
+    public void setup() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        angles = EulerAngles.of(rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble());
+        p = angles.toRotationQuaternion();
+        q = Quaternion.fromAxisAngle(rnd.nextDouble(), Vector3.of(rnd.nextDouble(), rnd.nextDouble(), 1));
+        v = Vector3.of(rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble());
+        pitch = new double[1024];
+        yaw = new double[1024];
+        roll = new double[1024];
+        rotations = new QuaternionArray(1024);
+
+        for(int i = 0; i < 1024; i++) {
+            pitch[i] = rnd.nextDouble();
+            yaw[i] = rnd.nextDouble();
+            roll[i] = rnd.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public Quaternion mul() {
+        return p.mul(q);
+    }
+
+    @Benchmark
+    public Vector3 conjugate() {
+        return p.conjugate(v);
+    }
+
+    @Benchmark
+    public Quaternion eulerToQuaternion() {
+        return angles.toRotationQuaternion();
+    }
+
+    @Benchmark
+    public Matrix3 eulerToRotationMatrix() {
+        return angles.toRotationMatrix();
+    }
+
+    @Benchmark
+    public QuaternionArray eulerToQuaternionBatch() {
+        EulerAngles.toRotationQuaternions(pitch, yaw, roll, rotations, 0, rotations.size());
+        return rotations;
+    }
+}
@@ -0,0 +1,63 @@
+package yevano.math;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import yevano.math.rotation.EulerAngles;
+import yevano.math.transform.LocalTransform;
+import yevano.math.transform.Transform;
+import yevano.math.transform.WorldTransform;
+import yevano.math.vector.Vector3;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformBenchmark {
+    @Param({ "1", "4", "8" })
+    int depth;
+
+    Transform leaf;
+    Vector3 v;
+
+    @Setup
+    public void setup() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        Transform t = WorldTransform.of(
+            EulerAngles.of(rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble()),
+            Vector3.of(rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble()));
+
+        for(int i = 1; i < depth; i++) {
+            t = LocalTransform.of(t,
+                EulerAngles.of(rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble()),
+                Vector3.of(rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble()));
+        }
+
+        leaf = t;
+        v = Vector3.of(rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble());
+    }
+
+    @Benchmark
+    public Vector3 toWorld() {
+        return leaf.toWorld(v);
+    }
+
+    @Benchmark
+    public Vector3 toLocal() {
+        return leaf.toLocal(v);
+    }
+}
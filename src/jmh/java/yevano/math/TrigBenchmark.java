@@ -0,0 +1,86 @@
+package yevano.math;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import yevano.math.matrix.Matrix3;
+import yevano.math.rotation.Quaternion;
+import yevano.math.vector.Vector3;
+
+/**
+ * Compares {@link Trig#EXACT} with {@link Trig#FAST}, on angles quantised to 0.1° steps like
+ * turret headings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrigBenchmark {
+    @Param({ "EXACT", "FAST" })
+    String mode;
+
+    Trig trig;
+    double[] angles;
+    Vector3[] directions;
+    Vector3 axis;
+    int next;
+
+    @Setup
+    public void setup() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        trig = mode.equals("FAST") ? Trig.FAST : Trig.EXACT;
+        angles = new double[1024];
+        directions = new Vector3[1024];
+        axis = Vector3.of(rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble());
+
+        for(int i = 0; i < angles.length; i++) {
+            angles[i] = Math.toRadians(rnd.nextInt(3600) * 0.1);
+            directions[i] = Vector3.of(rnd.nextGaussian(), rnd.nextGaussian(), rnd.nextGaussian());
+        }
+    }
+
+    private int index() {
+        return next = (next + 1) & 1023;
+    }
+
+    @Benchmark
+    public double sinCos() {
+        double t = angles[index()];
+        return trig.sin(t) + trig.cos(t);
+    }
+
+    @Benchmark
+    public double atan2() {
+        Vector3 v = directions[index()];
+        return trig.atan2(v.y(), v.x());
+    }
+
+    @Benchmark
+    public Matrix3 rotateZ() {
+        return Matrix3.rotateZ(angles[index()], trig);
+    }
+
+    @Benchmark
+    public Quaternion fromAxisAngle() {
+        return Quaternion.fromAxisAngle(angles[index()], axis, trig);
+    }
+
+    @Benchmark
+    public Object toAzimuthElevation() {
+        return directions[index()].toAzimuthElevation(trig);
+    }
+}
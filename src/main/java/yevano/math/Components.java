@@ -0,0 +1,22 @@
+package yevano.math;
+
+/**
+ * The value semantics shared by every vector, matrix, quaternion and set of Euler angles: two
+ * components are equal if they are numerically equal, so 0.0 equals −0.0, or if both are NaN.
+ * {@link #hash(double)} is consistent with that, so that equal values hash alike no matter which
+ * class holds them.
+ */
+public class Components {
+    public static boolean equal(double a, double b) {
+        return a == b || (a != a && b != b);
+    }
+
+    /**
+     * Like {@link Double#hashCode(double)}, but with −0.0 hashed as 0.0. NaNs all hash alike,
+     * since {@link Double#doubleToLongBits(double)} collapses them to one bit pattern.
+     */
+    public static int hash(double x) {
+        long bits = x == 0.0 ? 0L : Double.doubleToLongBits(x);
+        return (int) (bits ^ (bits >>> 32));
+    }
+}
@@ -0,0 +1,86 @@
+package yevano.math;
+
+/**
+ * The implementation of {@link Trig#FAST}.
+ * <p>
+ * sin and cos round t to the nearest multiple c of 2π/{@value #N}, look up sin c and cos c, and
+ * add the remainder d = t − c through sin(c + d) = sin c·cos d + cos c·sin d, with cos d and sin d
+ * from their Taylor series to the d⁴ and d⁵ terms. Since |d| ≤ π/{@value #N}, the truncation error
+ * is below 10⁻¹⁸, and the results are within 10⁻¹⁵ of {@link Math} for |t| ≤ 2π. Larger angles
+ * add the error of reducing t, up to about 2·10⁻¹⁶·|t|; beyond ±{@value #LIMIT} and for NaN or
+ * infinite arguments, {@link Math} is used instead.
+ * <p>
+ * atan2 reduces to atan z with z in [0, 1], rounds z to the nearest multiple c of 1/{@value #N},
+ * and adds atan((z − c)/(1 + zc)) from its Taylor series to the fifth power to a lookup of atan c.
+ * The result is within 10⁻¹⁵ of {@link Math#atan2(double, double)}. Zero, infinite and NaN
+ * arguments are passed to it, so the special cases match exactly.
+ * <p>
+ * Both tables together take about 18 KiB.
+ */
+public final class FastTrig implements Trig {
+    static final int N = 1024;
+    static final double LIMIT = 65536;
+
+    private static final int MASK = N - 1;
+    private static final int QUARTER = N / 4;
+    private static final double STEP = 2 * Math.PI / N;
+    private static final double INV_STEP = N / (2 * Math.PI);
+
+    /** sin(i·STEP) for i in [0, N + N/4], so that cos is a quarter period further on. */
+    private static final double[] SIN = new double[N + QUARTER + 1];
+    /** atan(i/N) for i in [0, N]. */
+    private static final double[] ATAN = new double[N + 1];
+
+    static {
+        for(int i = 0; i < SIN.length; i++) SIN[i] = Math.sin(i * STEP);
+        for(int i = 0; i < ATAN.length; i++) ATAN[i] = Math.atan((double) i / N);
+    }
+
+    FastTrig() { }
+
+    @Override
+    public double sin(double t) {
+        if(!(Math.abs(t) <= LIMIT)) return Math.sin(t);
+        long k = Math.round(t * INV_STEP);
+        int i = (int) k & MASK;
+        double d = t - k * STEP;
+        double d2 = d * d;
+        double sd = d * (1 - d2 * (1.0 / 6 - d2 * (1.0 / 120)));
+        double cd = 1 - d2 * (0.5 - d2 * (1.0 / 24));
+        return SIN[i] * cd + SIN[i + QUARTER] * sd;
+    }
+
+    @Override
+    public double cos(double t) {
+        if(!(Math.abs(t) <= LIMIT)) return Math.cos(t);
+        long k = Math.round(t * INV_STEP);
+        int i = (int) k & MASK;
+        double d = t - k * STEP;
+        double d2 = d * d;
+        double sd = d * (1 - d2 * (1.0 / 6 - d2 * (1.0 / 120)));
+        double cd = 1 - d2 * (0.5 - d2 * (1.0 / 24));
+        return SIN[i + QUARTER] * cd - SIN[i] * sd;
+    }
+
+    @Override
+    public double atan2(double y, double x) {
+        double ax = Math.abs(x);
+        double ay = Math.abs(y);
+        if(!(ax > 0 && ay > 0 && ax < Double.POSITIVE_INFINITY && ay < Double.POSITIVE_INFINITY)) return Math.atan2(y, x);
+
+        double a = ay <= ax ? atan(ay / ax) : Math.PI / 2 - atan(ax / ay);
+        if(x < 0) a = Math.PI - a;
+        return y < 0 ? -a : a;
+    }
+
+    /**
+     * atan z for z in [0, 1].
+     */
+    private static double atan(double z) {
+        int i = (int) (z * N + 0.5);
+        double c = (double) i / N;
+        double r = (z - c) / (1 + z * c);
+        double r2 = r * r;
+        return ATAN[i] + r * (1 - r2 * (1.0 / 3 - r2 * (1.0 / 5)));
+    }
+}
@@ -0,0 +1,167 @@
+package yevano.math;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import lombok.NonNull;
+
+/**
+ * Optional operation counters for the hot paths of the library, e.g. to find out how many matrix
+ * products or quaternion rotations a request triggers.
+ * <p>
+ * Counting is off unless the JVM is started with <code>-Dyevano.math.metrics=true</code>. The flag
+ * is read once into {@link #ENABLED}, so with it off every call to {@link #count(Counter)} is a
+ * check of a constant which the JIT removes. With it on, each count is a {@link LongAdder}
+ * increment, which stays cheap under contention.
+ * <p>
+ * {@link #snapshot()} reads all counters at once, and {@link #registerMBean()} exposes them over
+ * JMX as one attribute per counter.
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("yevano.math.metrics");
+
+    /**
+     * The counted operations. The immutable vector types allocate exactly one result per
+     * operation, so their allocation counts double as vector operation counts.
+     */
+    public static enum Counter {
+        /** Products of two {@link yevano.math.matrix.Matrix2}s. */
+        MATRIX_MUL_2,
+        /** Products of two 3×3 matrices of the fixed-size types. */
+        MATRIX_MUL_3,
+        /** Products of two 4×4 matrices of the fixed-size types. */
+        MATRIX_MUL_4,
+        /** General dense products with m·n·p below 2¹⁵. */
+        MATRIX_MUL_SMALL,
+        /** General dense products with m·n·p below 2²¹, where parallel kernels start to pay off. */
+        MATRIX_MUL_MEDIUM,
+        /** General dense products with m·n·p of 2²¹ or more. */
+        MATRIX_MUL_LARGE,
+        /** Products of a sparse matrix with a matrix. */
+        MATRIX_MUL_SPARSE,
+        /** Products of a matrix with a vector, including the array-based <code>mulInto</code>. */
+        MATRIX_VECTOR_MUL,
+        /** Fixed-size vectors constructed, in double or single precision. */
+        VECTOR_ALLOCATION,
+        /** {@link yevano.math.vector.NVector}s constructed. */
+        NVECTOR_ALLOCATION,
+        /** Hamilton products of two quaternions. */
+        QUATERNION_MUL,
+        /** Vectors rotated by a quaternion, or by its inverse. */
+        QUATERNION_CONJUGATE,
+        /** Quaternions interpolated by slerp, nlerp or fast slerp, one per batch element. */
+        QUATERNION_INTERPOLATE,
+        /** World frames composed by a {@link yevano.math.transform.WorldTransform}. */
+        TRANSFORM_RESOLVE,
+        /** Update passes over a {@link yevano.math.transform.TransformHierarchy}. */
+        HIERARCHY_UPDATE,
+        /** Nodes visited by those passes. */
+        HIERARCHY_NODES;
+    }
+
+    private static final Counter[] COUNTERS = Counter.values();
+    private static final LongAdder[] ADDERS = new LongAdder[COUNTERS.length];
+
+    static {
+        for(int i = 0; i < ADDERS.length; i++) ADDERS[i] = new LongAdder();
+    }
+
+    private Metrics() { }
+
+    public static void count(@NonNull Counter counter) {
+        if(ENABLED) ADDERS[counter.ordinal()].increment();
+    }
+
+    public static void add(@NonNull Counter counter, long n) {
+        if(ENABLED) ADDERS[counter.ordinal()].add(n);
+    }
+
+    /**
+     * Counts a general dense product of an m×n and an n×p matrix under its size class.
+     */
+    public static void countMatrixMul(long m, long n, long p) {
+        if(!ENABLED) return;
+        long work = m * n * p;
+        Counter counter = work < 1L << 15 ? Counter.MATRIX_MUL_SMALL
+            : work < 1L << 21 ? Counter.MATRIX_MUL_MEDIUM
+            : Counter.MATRIX_MUL_LARGE;
+        ADDERS[counter.ordinal()].increment();
+    }
+
+    /**
+     * Reads every counter. Counts made concurrently with the snapshot may or may not be included.
+     */
+    public static Snapshot snapshot() {
+        long[] values = new long[ADDERS.length];
+        for(int i = 0; i < values.length; i++) values[i] = ADDERS[i].sum();
+        return new Snapshot(values);
+    }
+
+    /**
+     * Sets every counter back to zero. Prefer {@link Snapshot#minus(Snapshot)} to measure an
+     * interval while other threads are counting.
+     */
+    public static void reset() {
+        for(LongAdder adder : ADDERS) adder.reset();
+    }
+
+    /**
+     * Registers an MBean named <code>yevano.math:type=Metrics</code> with the platform MBean
+     * server, unless one is registered already. It has a read-only <code>long</code> attribute per
+     * {@link Counter}, named after it, and a <code>reset</code> operation.
+     * @return The name of the MBean.
+     * @throws IllegalStateException if registration fails.
+     */
+    public static synchronized ObjectName registerMBean() {
+        try {
+            ObjectName name = new ObjectName("yevano.math:type=Metrics");
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if(!server.isRegistered(name)) server.registerMBean(new MetricsBean(), name);
+            return name;
+        } catch(JMException e) {
+            throw new IllegalStateException("Could not register the metrics MBean.", e);
+        }
+    }
+
+    /**
+     * The values of all counters at one point in time.
+     */
+    public static final class Snapshot {
+        private final long[] values;
+
+        private Snapshot(long[] values) {
+            this.values = values;
+        }
+
+        public long get(@NonNull Counter counter) {
+            return values[counter.ordinal()];
+        }
+
+        /**
+         * @return The counts made between <code>earlier</code> and this snapshot.
+         */
+        public Snapshot minus(@NonNull Snapshot earlier) {
+            long[] result = new long[values.length];
+            for(int i = 0; i < result.length; i++) result[i] = values[i] - earlier.values[i];
+            return new Snapshot(result);
+        }
+
+        public Map<Counter, Long> toMap() {
+            Map<Counter, Long> result = new EnumMap<>(Counter.class);
+            for(int i = 0; i < values.length; i++) result.put(COUNTERS[i], values[i]);
+            return Collections.unmodifiableMap(result);
+        }
+
+        @Override
+        public String toString() {
+            return toMap().toString();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package yevano.math;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.ReflectionException;
+
+import yevano.math.Metrics.Counter;
+
+/**
+ * The MBean behind {@link Metrics#registerMBean()}. Its attributes are generated from
+ * {@link Counter}, so new counters are exported without changes here.
+ */
+final class MetricsBean implements DynamicMBean {
+    private final MBeanInfo info;
+
+    MetricsBean() {
+        Counter[] counters = Counter.values();
+        MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[counters.length + 1];
+        attributes[0] = new MBeanAttributeInfo("Enabled", "boolean", "Whether counting is on.", true, false, true);
+
+        for(int i = 0; i < counters.length; i++) {
+            attributes[i + 1] = new MBeanAttributeInfo(counters[i].name(), "long", counters[i].name(), true, false, false);
+        }
+
+        MBeanOperationInfo reset = new MBeanOperationInfo(
+            "reset", "Sets every counter back to zero.", new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION);
+        info = new MBeanInfo(getClass().getName(), "Operation counters of yevano.math.", attributes, null, new MBeanOperationInfo[] { reset }, null);
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        if(attribute.equals("Enabled")) return Metrics.ENABLED;
+
+        try {
+            return Metrics.snapshot().get(Counter.valueOf(attribute));
+        } catch(IllegalArgumentException e) {
+            throw new AttributeNotFoundException(attribute);
+        }
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Metrics.Snapshot snapshot = Metrics.snapshot();
+        AttributeList result = new AttributeList();
+
+        for(String attribute : attributes) {
+            if(attribute.equals("Enabled")) {
+                result.add(new Attribute(attribute, Metrics.ENABLED));
+                continue;
+            }
+
+            try {
+                result.add(new Attribute(attribute, snapshot.get(Counter.valueOf(attribute))));
+            } catch(IllegalArgumentException e) {
+                // Unknown attributes are left out, as the DynamicMBean contract allows.
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException(attribute.getName() + " is read-only.");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        if(actionName.equals("reset") && (params == null || params.length == 0)) {
+            Metrics.reset();
+            return null;
+        }
+
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        return info;
+    }
+}
@@ -0,0 +1,94 @@
+package yevano.math;
+
+import java.util.Arrays;
+
+import lombok.NonNull;
+import yevano.math.matrix.Matrix;
+import yevano.math.rotation.EulerAngles;
+import yevano.math.rotation.Quaternion;
+import yevano.math.vector.Vector;
+
+/**
+ * A hash key which snaps every component of a value to the nearest multiple of <code>step</code>,
+ * so that values which differ only by rounding noise land on the same key, e.g. when memoising a
+ * computation per orientation.
+ * <p>
+ * Two values within <code>step / 2</code> of the same grid point always match, but the grid has
+ * boundaries: values arbitrarily close to each other can still fall into neighbouring cells if
+ * they straddle one. A cache keyed on this class trades a few misses for never having to compare
+ * keys against every entry.
+ * <p>
+ * Keys of different kinds or shapes, or made with different steps, are never equal.
+ */
+public final class QuantizedKey {
+    private static final int VECTOR = 0;
+    private static final int MATRIX = 1;
+    private static final int QUATERNION = 2;
+    private static final int EULER_ANGLES = 3;
+
+    public static QuantizedKey of(@NonNull Vector v, double step) {
+        return new QuantizedKey(VECTOR, v.dimensions(), step, v.getComponents());
+    }
+
+    public static QuantizedKey of(@NonNull Matrix m, double step) {
+        return new QuantizedKey(MATRIX, m.rowCount(), step, m.getComponents());
+    }
+
+    /**
+     * Since 𝒒 and −𝒒 are the same rotation, the cells are negated if the first nonzero one is
+     * negative, so both produce the same key.
+     */
+    public static QuantizedKey of(@NonNull Quaternion q, double step) {
+        QuantizedKey key = new QuantizedKey(QUATERNION, 4, step, new double[] { q.a(), q.b(), q.c(), q.d() });
+        long[] cells = key.cells;
+
+        for(long cell : cells) {
+            if(cell == 0) continue;
+            if(cell < 0) for(int i = 0; i < cells.length; i++) cells[i] = -cells[i];
+            break;
+        }
+
+        return key;
+    }
+
+    public static QuantizedKey of(@NonNull EulerAngles angles, double step) {
+        return new QuantizedKey(EULER_ANGLES, 3, step, new double[] { angles.pitch(), angles.yaw(), angles.roll() });
+    }
+
+    private final int kind;
+    private final int shape;
+    private final double step;
+    private final long[] cells;
+
+    private QuantizedKey(int kind, int shape, double step, double[] components) {
+        if(!(step > 0) || Double.isInfinite(step)) throw new IllegalArgumentException("Step must be positive and finite.");
+        this.kind = kind;
+        this.shape = shape;
+        this.step = step;
+        this.cells = new long[components.length];
+        for(int i = 0; i < components.length; i++) cells[i] = (long) Math.rint(components[i] / step);
+    }
+
+    public double step() {
+        return step;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(!(obj instanceof QuantizedKey)) return false;
+        QuantizedKey k = (QuantizedKey) obj;
+        return kind == k.kind && shape == k.shape && step == k.step && Arrays.equals(cells, k.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 31 * kind + shape;
+        h = 31 * h + Double.hashCode(step);
+        return 31 * h + Arrays.hashCode(cells);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("QuantizedKey(%s × %s)", Arrays.toString(cells), step);
+    }
+}
@@ -0,0 +1,44 @@
+package yevano.math;
+
+/**
+ * A strategy for the trigonometric functions used to build rotations. The rotation factories
+ * take one as an optional last argument, e.g. {@link yevano.math.matrix.Matrix3#rotateZ(double,
+ * Trig)}; without it they use {@link #EXACT}.
+ */
+public interface Trig {
+    /**
+     * Delegates to {@link Math}.
+     */
+    public static final Trig EXACT = new Trig() {
+        @Override
+        public double sin(double t) {
+            return Math.sin(t);
+        }
+
+        @Override
+        public double cos(double t) {
+            return Math.cos(t);
+        }
+
+        @Override
+        public double atan2(double y, double x) {
+            return Math.atan2(y, x);
+        }
+    };
+
+    /**
+     * Table lookups corrected by short Taylor series: about twice as fast as {@link #EXACT} for
+     * sin and cos and three times for atan2, and within 10⁻¹⁵ of it for angles in [−2π, 2π].
+     * The error bounds are documented on {@link FastTrig}.
+     */
+    public static final Trig FAST = new FastTrig();
+
+    public double sin(double t);
+
+    public double cos(double t);
+
+    /**
+     * @return The angle of (x, y) in (−π, π], like {@link Math#atan2(double, double)}.
+     */
+    public double atan2(double y, double x);
+}
@@ -0,0 +1,350 @@
+package yevano.math.codec;
+
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+import lombok.NonNull;
+import yevano.math.matrix.MNMatrix;
+import yevano.math.matrix.Matrix;
+import yevano.math.matrix.Matrix2;
+import yevano.math.matrix.Matrix3;
+import yevano.math.matrix.Matrix4;
+import yevano.math.rotation.EulerAngles;
+import yevano.math.rotation.MutableQuaternion;
+import yevano.math.rotation.Quaternion;
+import yevano.math.vector.MutableVector3;
+import yevano.math.vector.NVector;
+import yevano.math.vector.Vector;
+import yevano.math.vector.Vector2;
+import yevano.math.vector.Vector3;
+import yevano.math.vector.Vector3Array;
+import yevano.math.vector.Vector4;
+
+/**
+ * Reads a stream written by a {@link MathWriter}. The precision and quaternion encoding are taken
+ * from the stream's header.
+ * <p>
+ * Records are read in order with the <code>read*</code> methods, each of which checks that the
+ * next record has the expected type. For streams of mixed records, {@link #next()} tells the type
+ * of the next one before it is read. The methods taking a mutable destination, and
+ * {@link #readComponents(double[])}, do not allocate. A reader is not thread-safe.
+ */
+public class MathReader {
+    /**
+     * The largest number of components a vector or matrix record may declare, which is about the
+     * largest array the JVM can allocate.
+     */
+    public static final int MAX_COMPONENTS = Integer.MAX_VALUE - 8;
+
+    /** Arrays for records of unknown size start at this many components and grow as they fill. */
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    private final Source source;
+    private final boolean floats;
+    private final boolean smallestThree;
+
+    /** The type of the record whose tag has been read but whose body has not, if any. */
+    private RecordType pending;
+    private int pendingRows;
+    private int pendingColumns;
+
+    /**
+     * @throws IOException if the header cannot be read, is not a header, or has an unsupported
+     * version.
+     */
+    public MathReader(@NonNull DataInput in) throws IOException {
+        this(Source.of(in));
+    }
+
+    /**
+     * Reads from a blocking channel through a buffer of {@link MathWriter#BUFFER_SIZE} bytes.
+     * @throws IOException if the header cannot be read, is not a header, or has an unsupported
+     * version.
+     */
+    public MathReader(@NonNull ReadableByteChannel channel) throws IOException {
+        this(Source.of(channel, ByteBuffer.allocateDirect(MathWriter.BUFFER_SIZE)));
+    }
+
+    private MathReader(Source source) throws IOException {
+        this.source = source;
+
+        int magic = source.readByte() << 8 | source.readByte();
+        if(magic != MathWriter.MAGIC) throw new IOException("Not a yevano.math stream.");
+        int version = source.readByte();
+        if(version > MathWriter.VERSION) throw new IOException("Unsupported stream version " + version + ".");
+        int flags = source.readByte();
+
+        this.floats = (flags & MathWriter.FLAG_FLOAT) != 0;
+        this.smallestThree = (flags & MathWriter.FLAG_SMALLEST_THREE) != 0;
+    }
+
+    public Precision precision() {
+        return floats ? Precision.FLOAT : Precision.DOUBLE;
+    }
+
+    public QuaternionEncoding quaternionEncoding() {
+        return smallestThree ? QuaternionEncoding.SMALLEST_THREE : QuaternionEncoding.FULL;
+    }
+
+    /**
+     * Reads the tag of the next record, unless it has been read already, without reading the
+     * record itself.
+     * @return The type of the next record, or <code>null</code> at the end of the stream.
+     * @throws IOException if the tag is unknown, or a vector or matrix record declares more than
+     * {@link #MAX_COMPONENTS} components.
+     */
+    public RecordType next() throws IOException {
+        if(pending != null) return pending;
+        int tag = source.readTag();
+        if(tag < 0) return null;
+        RecordType type = RecordType.of(tag);
+        if(type == null) throw new IOException("Unknown record tag " + tag + ".");
+
+        int rows, columns;
+
+        switch(type) {
+            case VECTOR2: rows = 2; columns = 1; break;
+            case VECTOR3: rows = 3; columns = 1; break;
+            case VECTOR4: rows = 4; columns = 1; break;
+            case NVECTOR: rows = readDimension(); columns = 1; break;
+            case MATRIX2: rows = 2; columns = 2; break;
+            case MATRIX3: rows = 3; columns = 3; break;
+            case MATRIX4: rows = 4; columns = 4; break;
+            case MNMATRIX: rows = readDimension(); columns = readDimension(); break;
+            default: rows = 0; columns = 0;
+        }
+
+        if((long) rows * columns > MAX_COMPONENTS) {
+            throw new IOException("Record of " + rows + "×" + columns + " components is too large.");
+        }
+
+        pending = type;
+        pendingRows = rows;
+        pendingColumns = columns;
+        return type;
+    }
+
+    /**
+     * @return The number of components of the next record if it is a vector or a matrix, e.g. to
+     * size the array for {@link #readComponents(double[])}.
+     * @throws IOException if the next record is neither.
+     */
+    public int componentCount() throws IOException {
+        expectVectorOrMatrix();
+        return pendingRows * pendingColumns;
+    }
+
+    /**
+     * Reads the components of the next vector or matrix record, in row-major order for matrices.
+     * @return The number of components read.
+     * @throws IllegalArgumentException if <code>dest</code> is too small, in which case the record
+     * is left unread.
+     */
+    public int readComponents(@NonNull double[] dest) throws IOException {
+        expectVectorOrMatrix();
+        int count = pendingRows * pendingColumns;
+        if(dest.length < count) throw new IllegalArgumentException("Array is too small.");
+        pending = null;
+        for(int i = 0; i < count; i++) dest[i] = readComponent();
+        return count;
+    }
+
+    /**
+     * Reads the next vector record as a {@link Vector2}, {@link Vector3}, {@link Vector4} or
+     * {@link NVector}, depending on its type.
+     */
+    public Vector readVector() throws IOException {
+        RecordType type = next();
+        if(type == null) throw new EOFException();
+
+        switch(type) {
+            case VECTOR2: return readVector2();
+            case VECTOR3: return readVector3();
+            case VECTOR4: return readVector4();
+            default:
+                if(type != RecordType.NVECTOR) throw new IOException("Expected a vector record, but found " + type + ".");
+                return NVector.variadic(readComponents(pendingRows));
+        }
+    }
+
+    public Vector2 readVector2() throws IOException {
+        expect(RecordType.VECTOR2);
+        return Vector2.of(readComponent(), readComponent());
+    }
+
+    public Vector3 readVector3() throws IOException {
+        expect(RecordType.VECTOR3);
+        return Vector3.of(readComponent(), readComponent(), readComponent());
+    }
+
+    /**
+     * Reads the next {@link RecordType#VECTOR3} record into <code>dest</code>.
+     * @return <code>dest</code>
+     */
+    public MutableVector3 readVector3(@NonNull MutableVector3 dest) throws IOException {
+        expect(RecordType.VECTOR3);
+        return dest.set(readComponent(), readComponent(), readComponent());
+    }
+
+    /**
+     * Reads the next {@link RecordType#VECTOR3} record into element <code>i</code> of
+     * <code>dest</code>.
+     */
+    public void readVector3(@NonNull Vector3Array dest, int i) throws IOException {
+        if(i < 0 || i >= dest.size()) throw new IndexOutOfBoundsException();
+        expect(RecordType.VECTOR3);
+        dest.set(i, readComponent(), readComponent(), readComponent());
+    }
+
+    public Vector4 readVector4() throws IOException {
+        expect(RecordType.VECTOR4);
+        return Vector4.of(readComponent(), readComponent(), readComponent(), readComponent());
+    }
+
+    /**
+     * Reads the next matrix record as a {@link Matrix2}, {@link Matrix3}, {@link Matrix4} or
+     * {@link MNMatrix}, depending on its type.
+     */
+    public Matrix readMatrix() throws IOException {
+        RecordType type = next();
+        if(type == null) throw new EOFException();
+
+        switch(type) {
+            case MATRIX2: return readMatrix2();
+            case MATRIX3: return readMatrix3();
+            case MATRIX4: return readMatrix4();
+            default:
+                if(type != RecordType.MNMATRIX) throw new IOException("Expected a matrix record, but found " + type + ".");
+                int rows = pendingRows;
+                int columns = pendingColumns;
+                return MNMatrix.of(rows, columns, readComponents(rows * columns));
+        }
+    }
+
+    public Matrix2 readMatrix2() throws IOException {
+        expect(RecordType.MATRIX2);
+        return Matrix2.of(
+            readComponent(), readComponent(),
+            readComponent(), readComponent()
+        );
+    }
+
+    public Matrix3 readMatrix3() throws IOException {
+        expect(RecordType.MATRIX3);
+        return Matrix3.of(
+            readComponent(), readComponent(), readComponent(),
+            readComponent(), readComponent(), readComponent(),
+            readComponent(), readComponent(), readComponent()
+        );
+    }
+
+    public Matrix4 readMatrix4() throws IOException {
+        expect(RecordType.MATRIX4);
+        return Matrix4.of(
+            readComponent(), readComponent(), readComponent(), readComponent(),
+            readComponent(), readComponent(), readComponent(), readComponent(),
+            readComponent(), readComponent(), readComponent(), readComponent(),
+            readComponent(), readComponent(), readComponent(), readComponent()
+        );
+    }
+
+    public Quaternion readQuaternion() throws IOException {
+        expect(RecordType.QUATERNION);
+
+        if(!smallestThree) {
+            return Quaternion.of(readComponent(), readComponent(), readComponent(), readComponent());
+        }
+
+        int packed = source.readInt();
+        double x = SmallestThree.component(packed, 0);
+        double y = SmallestThree.component(packed, 1);
+        double z = SmallestThree.component(packed, 2);
+        double w = SmallestThree.recover(x, y, z);
+
+        switch(SmallestThree.largest(packed)) {
+            case 0: return Quaternion.of(w, x, y, z);
+            case 1: return Quaternion.of(x, w, y, z);
+            case 2: return Quaternion.of(x, y, w, z);
+            default: return Quaternion.of(x, y, z, w);
+        }
+    }
+
+    /**
+     * Reads the next {@link RecordType#QUATERNION} record into <code>dest</code>.
+     * @return <code>dest</code>
+     */
+    public MutableQuaternion readQuaternion(@NonNull MutableQuaternion dest) throws IOException {
+        expect(RecordType.QUATERNION);
+
+        if(!smallestThree) {
+            return dest.set(readComponent(), readComponent(), readComponent(), readComponent());
+        }
+
+        int packed = source.readInt();
+        double x = SmallestThree.component(packed, 0);
+        double y = SmallestThree.component(packed, 1);
+        double z = SmallestThree.component(packed, 2);
+        double w = SmallestThree.recover(x, y, z);
+
+        switch(SmallestThree.largest(packed)) {
+            case 0: return dest.set(w, x, y, z);
+            case 1: return dest.set(x, w, y, z);
+            case 2: return dest.set(x, y, w, z);
+            default: return dest.set(x, y, z, w);
+        }
+    }
+
+    public EulerAngles readEulerAngles() throws IOException {
+        expect(RecordType.EULER_ANGLES);
+        return EulerAngles.of(readComponent(), readComponent(), readComponent());
+    }
+
+    /**
+     * Consumes the tag of the next record, which must have the given type.
+     */
+    private void expect(RecordType type) throws IOException {
+        RecordType actual = next();
+        if(actual == null) throw new EOFException();
+        if(actual != type) throw new IOException("Expected a " + type + " record, but found " + actual + ".");
+        pending = null;
+    }
+
+    private void expectVectorOrMatrix() throws IOException {
+        RecordType actual = next();
+        if(actual == null) throw new EOFException();
+        if(actual == RecordType.QUATERNION || actual == RecordType.EULER_ANGLES) {
+            throw new IOException("Expected a vector or matrix record, but found " + actual + ".");
+        }
+    }
+
+    /**
+     * Reads the <code>count</code> components of the pending record into a new array. The array
+     * grows as components arrive, so a corrupt count runs into the end of the stream instead of
+     * allocating gigabytes up front.
+     */
+    private double[] readComponents(int count) throws IOException {
+        pending = null;
+        double[] result = new double[Math.min(count, INITIAL_CAPACITY)];
+
+        for(int i = 0; i < count; i++) {
+            if(i == result.length) result = Arrays.copyOf(result, (int) Math.min(count, 2L * i));
+            result[i] = readComponent();
+        }
+
+        return result;
+    }
+
+    private int readDimension() throws IOException {
+        int n = source.readInt();
+        if(n < 0) throw new IOException("Negative dimension " + n + ".");
+        return n;
+    }
+
+    private double readComponent() throws IOException {
+        return floats ? source.readFloat() : source.readDouble();
+    }
+}
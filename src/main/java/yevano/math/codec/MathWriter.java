@@ -0,0 +1,164 @@
+package yevano.math.codec;
+
+import java.io.DataOutput;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import lombok.NonNull;
+import yevano.math.matrix.Matrix;
+import yevano.math.rotation.EulerAngles;
+import yevano.math.rotation.MutableQuaternion;
+import yevano.math.rotation.Quaternion;
+import yevano.math.vector.Vector;
+
+/**
+ * Writes vectors, matrices, quaternions and Euler angles as a compact binary stream, to be read
+ * back by a {@link MathReader}.
+ * <p>
+ * A stream starts with a header: the magic bytes <code>'Y' 'M'</code>, the format version, and a
+ * byte of flags recording the {@link Precision} and {@link QuaternionEncoding}, so a reader needs
+ * no configuration. Each record that follows is a one-byte {@link RecordType} tag, the dimensions
+ * for {@link RecordType#NVECTOR} and {@link RecordType#MNMATRIX}, and then the components. All
+ * values are big-endian, like {@link DataOutput}.
+ * <p>
+ * Writing does not allocate. A writer is not thread-safe.
+ */
+public class MathWriter implements Flushable {
+    static final int MAGIC = 'Y' << 8 | 'M';
+    static final int VERSION = 1;
+    static final int FLAG_FLOAT = 1;
+    static final int FLAG_SMALLEST_THREE = 2;
+
+    /** The size of the buffer used to write to a channel. */
+    public static final int BUFFER_SIZE = 8192;
+
+    private final Sink sink;
+    private final boolean floats;
+    private final boolean smallestThree;
+
+    /**
+     * Writes a lossless stream, i.e. with {@link Precision#DOUBLE} and
+     * {@link QuaternionEncoding#FULL}.
+     * @throws IOException if the header cannot be written.
+     */
+    public MathWriter(@NonNull DataOutput out) throws IOException {
+        this(out, Precision.DOUBLE, QuaternionEncoding.FULL);
+    }
+
+    /**
+     * @throws IOException if the header cannot be written.
+     */
+    public MathWriter(@NonNull DataOutput out, @NonNull Precision precision, @NonNull QuaternionEncoding quaternions) throws IOException {
+        this(Sink.of(out), precision, quaternions);
+    }
+
+    /**
+     * Writes to a blocking channel through a buffer of {@link #BUFFER_SIZE} bytes, which is only
+     * handed to the channel when it is full or on {@link #flush()}.
+     * @throws IOException if the header cannot be written.
+     */
+    public MathWriter(@NonNull WritableByteChannel channel, @NonNull Precision precision, @NonNull QuaternionEncoding quaternions) throws IOException {
+        this(Sink.of(channel, ByteBuffer.allocateDirect(BUFFER_SIZE)), precision, quaternions);
+    }
+
+    private MathWriter(Sink sink, Precision precision, QuaternionEncoding quaternions) throws IOException {
+        this.sink = sink;
+        this.floats = precision == Precision.FLOAT;
+        this.smallestThree = quaternions == QuaternionEncoding.SMALLEST_THREE;
+
+        sink.writeByte(MAGIC >>> 8);
+        sink.writeByte(MAGIC);
+        sink.writeByte(VERSION);
+        sink.writeByte((floats ? FLAG_FLOAT : 0) | (smallestThree ? FLAG_SMALLEST_THREE : 0));
+    }
+
+    /**
+     * Writes any vector, as a {@link RecordType#VECTOR2}, {@link RecordType#VECTOR3} or
+     * {@link RecordType#VECTOR4} record if it has 2, 3 or 4 dimensions and as an
+     * {@link RecordType#NVECTOR} record otherwise.
+     */
+    public void write(@NonNull Vector v) throws IOException {
+        int dimensions = v.dimensions();
+
+        switch(dimensions) {
+            case 2: sink.writeByte(RecordType.VECTOR2.tag); break;
+            case 3: sink.writeByte(RecordType.VECTOR3.tag); break;
+            case 4: sink.writeByte(RecordType.VECTOR4.tag); break;
+            default:
+                sink.writeByte(RecordType.NVECTOR.tag);
+                sink.writeInt(dimensions);
+        }
+
+        for(int i = 0; i < dimensions; i++) writeComponent(v.getComponent(i));
+    }
+
+    /**
+     * Writes any matrix, as a {@link RecordType#MATRIX2}, {@link RecordType#MATRIX3} or
+     * {@link RecordType#MATRIX4} record if it is 2×2, 3×3 or 4×4 and as an
+     * {@link RecordType#MNMATRIX} record otherwise.
+     */
+    public void write(@NonNull Matrix m) throws IOException {
+        int rows = m.rowCount();
+        int columns = m.columnCount();
+
+        if(rows == columns && rows >= 2 && rows <= 4) {
+            sink.writeByte(rows == 2 ? RecordType.MATRIX2.tag : rows == 3 ? RecordType.MATRIX3.tag : RecordType.MATRIX4.tag);
+        } else {
+            sink.writeByte(RecordType.MNMATRIX.tag);
+            sink.writeInt(rows);
+            sink.writeInt(columns);
+        }
+
+        for(int i = 0; i < rows * columns; i++) writeComponent(m.getComponent(i));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the stream uses {@link QuaternionEncoding#SMALLEST_THREE}
+     * and <code>q</code> is zero.
+     */
+    public void write(@NonNull Quaternion q) throws IOException {
+        writeQuaternion(q.a(), q.b(), q.c(), q.d());
+    }
+
+    public void write(@NonNull MutableQuaternion q) throws IOException {
+        writeQuaternion(q.a(), q.b(), q.c(), q.d());
+    }
+
+    public void write(@NonNull EulerAngles angles) throws IOException {
+        sink.writeByte(RecordType.EULER_ANGLES.tag);
+        writeComponent(angles.pitch());
+        writeComponent(angles.yaw());
+        writeComponent(angles.roll());
+    }
+
+    private void writeQuaternion(double a, double b, double c, double d) throws IOException {
+        sink.writeByte(RecordType.QUATERNION.tag);
+
+        if(smallestThree) {
+            sink.writeInt(SmallestThree.pack(a, b, c, d));
+        } else {
+            writeComponent(a);
+            writeComponent(b);
+            writeComponent(c);
+            writeComponent(d);
+        }
+    }
+
+    private void writeComponent(double v) throws IOException {
+        if(floats) {
+            sink.writeFloat((float) v);
+        } else {
+            sink.writeDouble(v);
+        }
+    }
+
+    /**
+     * Hands everything written so far to the underlying channel or stream.
+     */
+    @Override
+    public void flush() throws IOException {
+        sink.flush();
+    }
+}
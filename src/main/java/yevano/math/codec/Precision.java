@@ -0,0 +1,11 @@
+package yevano.math.codec;
+
+/**
+ * How a {@link MathWriter} encodes real components.
+ */
+public enum Precision {
+    /** 8-byte IEEE doubles, which round-trip exactly. */
+    DOUBLE,
+    /** 4-byte IEEE floats, i.e. half the size, rounding each component once. */
+    FLOAT
+}
@@ -0,0 +1,18 @@
+package yevano.math.codec;
+
+/**
+ * How a {@link MathWriter} encodes quaternions.
+ */
+public enum QuaternionEncoding {
+    /** All four components, in the stream's {@link Precision}. */
+    FULL,
+    /**
+     * Unit quaternions in 4 bytes: the index of the largest component in 2 bits, and the other
+     * three in 10 bits each. Since 𝒒 and −𝒒 are the same rotation, the sign is chosen so that the
+     * largest component is positive and it can be recovered as √(1 − 𝑥² − 𝑦² − 𝑧²). The other
+     * components lie in [−1/√2, 1/√2], so each is off by at most 1/(√2·1023) ≈ 6.9·10⁻⁴, and the
+     * recovered largest one, which is at least 1/2, by at most about 3·10⁻³. The norm of a
+     * non-unit quaternion is lost.
+     */
+    SMALLEST_THREE
+}
@@ -0,0 +1,38 @@
+package yevano.math.codec;
+
+/**
+ * The kinds of record in a stream, each of which starts with its one-byte tag.
+ */
+public enum RecordType {
+    VECTOR2(1),
+    VECTOR3(2),
+    VECTOR4(3),
+    /** An n-vector, preceded by n as an int. */
+    NVECTOR(4),
+    MATRIX2(5),
+    MATRIX3(6),
+    MATRIX4(7),
+    /** An m×n matrix in row-major order, preceded by m and n as ints. */
+    MNMATRIX(8),
+    QUATERNION(9),
+    EULER_ANGLES(10);
+
+    private static final RecordType[] BY_TAG = new RecordType[11];
+
+    static {
+        for(RecordType type : values()) BY_TAG[type.tag] = type;
+    }
+
+    final int tag;
+
+    private RecordType(int tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * @return The type with the given tag, or <code>null</code> if there is none.
+     */
+    static RecordType of(int tag) {
+        return tag >= 0 && tag < BY_TAG.length ? BY_TAG[tag] : null;
+    }
+}
@@ -0,0 +1,91 @@
+package yevano.math.codec;
+
+import java.io.DataOutput;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The primitive writes a {@link MathWriter} is built from, over either a {@link DataOutput} or a
+ * buffered channel.
+ */
+interface Sink {
+    void writeByte(int v) throws IOException;
+    void writeInt(int v) throws IOException;
+    void writeFloat(float v) throws IOException;
+    void writeDouble(double v) throws IOException;
+    void flush() throws IOException;
+
+    static Sink of(DataOutput out) {
+        return new Sink() {
+            @Override
+            public void writeByte(int v) throws IOException {
+                out.writeByte(v);
+            }
+
+            @Override
+            public void writeInt(int v) throws IOException {
+                out.writeInt(v);
+            }
+
+            @Override
+            public void writeFloat(float v) throws IOException {
+                out.writeFloat(v);
+            }
+
+            @Override
+            public void writeDouble(double v) throws IOException {
+                out.writeDouble(v);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if(out instanceof Flushable) ((Flushable) out).flush();
+            }
+        };
+    }
+
+    /**
+     * Collects writes in <code>buffer</code>, which is big-endian like {@link DataOutput}, and
+     * hands it to the channel whenever it fills up.
+     */
+    static Sink of(WritableByteChannel channel, ByteBuffer buffer) {
+        return new Sink() {
+            private void ensure(int bytes) throws IOException {
+                if(buffer.remaining() < bytes) flush();
+            }
+
+            @Override
+            public void writeByte(int v) throws IOException {
+                ensure(1);
+                buffer.put((byte) v);
+            }
+
+            @Override
+            public void writeInt(int v) throws IOException {
+                ensure(Integer.BYTES);
+                buffer.putInt(v);
+            }
+
+            @Override
+            public void writeFloat(float v) throws IOException {
+                ensure(Float.BYTES);
+                buffer.putFloat(v);
+            }
+
+            @Override
+            public void writeDouble(double v) throws IOException {
+                ensure(Double.BYTES);
+                buffer.putDouble(v);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                buffer.flip();
+                while(buffer.hasRemaining()) channel.write(buffer);
+                buffer.clear();
+            }
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package yevano.math.codec;
+
+/**
+ * Packing for {@link QuaternionEncoding#SMALLEST_THREE}.
+ */
+final class SmallestThree {
+    private static final int BITS = 10;
+    private static final int MAX = (1 << BITS) - 1;
+    private static final double RANGE = Math.sqrt(0.5);
+
+    private SmallestThree() {
+    }
+
+    static int pack(double a, double b, double c, double d) {
+        double n = Math.sqrt(a * a + b * b + c * c + d * d);
+        if(n == 0.0) throw new IllegalArgumentException("Cannot encode the zero quaternion.");
+
+        int largest = 0;
+        double max = Math.abs(a);
+
+        if(Math.abs(b) > max) {
+            largest = 1;
+            max = Math.abs(b);
+        }
+
+        if(Math.abs(c) > max) {
+            largest = 2;
+            max = Math.abs(c);
+        }
+
+        if(Math.abs(d) > max) largest = 3;
+
+        double s = 1 / n;
+        double q0 = a * s, q1 = b * s, q2 = c * s, q3 = d * s;
+        double sign;
+
+        switch(largest) {
+            case 0: sign = q0 < 0 ? -1 : 1; return pack(0, q1 * sign, q2 * sign, q3 * sign);
+            case 1: sign = q1 < 0 ? -1 : 1; return pack(1, q0 * sign, q2 * sign, q3 * sign);
+            case 2: sign = q2 < 0 ? -1 : 1; return pack(2, q0 * sign, q1 * sign, q3 * sign);
+            default: sign = q3 < 0 ? -1 : 1; return pack(3, q0 * sign, q1 * sign, q2 * sign);
+        }
+    }
+
+    private static int pack(int largest, double x, double y, double z) {
+        return largest << (3 * BITS) | quantize(x) << (2 * BITS) | quantize(y) << BITS | quantize(z);
+    }
+
+    private static int quantize(double x) {
+        long v = Math.round((x / RANGE + 1) * 0.5 * MAX);
+        return (int) Math.max(0, Math.min(MAX, v));
+    }
+
+    private static double dequantize(int v) {
+        return ((double) v / MAX * 2 - 1) * RANGE;
+    }
+
+    static int largest(int packed) {
+        return packed >>> (3 * BITS);
+    }
+
+    /**
+     * @return The ith of the three stored components, in the order a, b, c, d without the largest.
+     */
+    static double component(int packed, int i) {
+        return dequantize(packed >>> ((2 - i) * BITS) & MAX);
+    }
+
+    static double recover(double x, double y, double z) {
+        return Math.sqrt(Math.max(0, 1 - x * x - y * y - z * z));
+    }
+}
@@ -0,0 +1,110 @@
+package yevano.math.codec;
+
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * The primitive reads a {@link MathReader} is built from, over either a {@link DataInput} or a
+ * buffered channel.
+ */
+interface Source {
+    /**
+     * @return The next unsigned byte, or −1 at the end of the stream.
+     */
+    int readTag() throws IOException;
+    int readByte() throws IOException;
+    int readInt() throws IOException;
+    float readFloat() throws IOException;
+    double readDouble() throws IOException;
+
+    static Source of(DataInput in) {
+        return new Source() {
+            @Override
+            public int readTag() throws IOException {
+                try {
+                    return in.readUnsignedByte();
+                } catch(EOFException e) {
+                    return -1;
+                }
+            }
+
+            @Override
+            public int readByte() throws IOException {
+                return in.readUnsignedByte();
+            }
+
+            @Override
+            public int readInt() throws IOException {
+                return in.readInt();
+            }
+
+            @Override
+            public float readFloat() throws IOException {
+                return in.readFloat();
+            }
+
+            @Override
+            public double readDouble() throws IOException {
+                return in.readDouble();
+            }
+        };
+    }
+
+    /**
+     * Refills <code>buffer</code>, which is big-endian like {@link DataInput}, from the channel
+     * whenever fewer bytes remain than the next read needs.
+     */
+    static Source of(ReadableByteChannel channel, ByteBuffer buffer) {
+        buffer.limit(0);
+
+        return new Source() {
+            private boolean fill(int bytes) throws IOException {
+                if(buffer.remaining() >= bytes) return true;
+                buffer.compact();
+
+                while(buffer.position() < bytes) {
+                    if(channel.read(buffer) < 0) break;
+                }
+
+                buffer.flip();
+                return buffer.remaining() >= bytes;
+            }
+
+            private void ensure(int bytes) throws IOException {
+                if(!fill(bytes)) throw new EOFException();
+            }
+
+            @Override
+            public int readTag() throws IOException {
+                return fill(1) ? buffer.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int readByte() throws IOException {
+                ensure(1);
+                return buffer.get() & 0xFF;
+            }
+
+            @Override
+            public int readInt() throws IOException {
+                ensure(Integer.BYTES);
+                return buffer.getInt();
+            }
+
+            @Override
+            public float readFloat() throws IOException {
+                ensure(Float.BYTES);
+                return buffer.getFloat();
+            }
+
+            @Override
+            public double readDouble() throws IOException {
+                ensure(Double.BYTES);
+                return buffer.getDouble();
+            }
+        };
+    }
+}
@@ -0,0 +1,331 @@
+package yevano.math.matrix;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+
+import lombok.NonNull;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+
+/**
+ * A dense m×n matrix whose components live outside the Java heap, in direct or memory-mapped
+ * buffers, in row-major order like {@link MNMatrix}. Such a matrix does not count towards the heap
+ * size and is never scanned or moved by the collector; a mapped one can be larger than physical
+ * memory and can be shared with other processes through its file.
+ * <p>
+ * A single NIO buffer is limited to 2³¹ bytes, so the components are split over chunks of
+ * 2<sup>{@value #CHUNK_SHIFT}</sup> doubles each. The matrix as a whole still uses int indices,
+ * i.e. it holds at most 2³¹ − 1 components.
+ * <p>
+ * Unlike the other matrices, a buffer matrix is mutable through {@link #set(int, int, double)}.
+ * Methods inherited from {@link Matrix} run against it unchanged, but those which produce a new
+ * matrix (e.g. {@link #add(Matrix)} or {@link #lu()}) return heap-backed results; use
+ * {@link #mulInto(Matrix, BufferMatrix)} to keep a large product off the heap.
+ */
+public class BufferMatrix implements Matrix {
+    /** log₂ of the number of doubles per chunk, i.e. 1 GiB chunks. */
+    static final int CHUNK_SHIFT = 27;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    /** The number of doubles a heap panel of A or of the product may hold when B is streamed. */
+    private static final int PANEL_BUDGET = 1 << 22;
+
+    /**
+     * Allocates a zero matrix in direct buffers, in the platform's native byte order.
+     */
+    public static BufferMatrix allocateDirect(int rowCount, int columnCount) {
+        int size = size(rowCount, columnCount);
+        DoubleBuffer[] chunks = new DoubleBuffer[chunkCount(size)];
+
+        for(int k = 0; k < chunks.length; k++) {
+            int length = chunkLength(size, k);
+            chunks[k] = ByteBuffer.allocateDirect(length * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+
+        return new BufferMatrix(rowCount, columnCount, chunks, null);
+    }
+
+    /**
+     * Copies <code>matrix</code> into direct buffers.
+     */
+    public static BufferMatrix copyOf(@NonNull Matrix matrix) {
+        BufferMatrix result = allocateDirect(matrix.rowCount(), matrix.columnCount());
+        result.copyFrom(matrix);
+        return result;
+    }
+
+    /**
+     * Maps m·n doubles of a file, starting at byte <code>position</code>, in the platform's native
+     * byte order. With {@link MapMode#READ_WRITE} the file is extended as needed, and changes are
+     * visible to every other mapping of the same region; {@link #force()} writes them to disk.
+     * The mapping stays valid after the channel is closed.
+     * @throws IOException if the file cannot be mapped.
+     */
+    public static BufferMatrix map(@NonNull FileChannel channel, @NonNull MapMode mode, long position, int rowCount, int columnCount) throws IOException {
+        int size = size(rowCount, columnCount);
+        DoubleBuffer[] chunks = new DoubleBuffer[chunkCount(size)];
+        MappedByteBuffer[] mapped = new MappedByteBuffer[chunks.length];
+
+        for(int k = 0; k < chunks.length; k++) {
+            int length = chunkLength(size, k);
+            long offset = position + ((long) k << CHUNK_SHIFT) * Double.BYTES;
+            mapped[k] = channel.map(mode, offset, (long) length * Double.BYTES);
+            chunks[k] = mapped[k].order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+
+        return new BufferMatrix(rowCount, columnCount, chunks, mapped);
+    }
+
+    /**
+     * Uses the m·n doubles of <code>buffer</code> from its current position on as the components,
+     * without copying them. Changes to either are visible through the other.
+     * @throws IllegalArgumentException if fewer than m·n doubles remain.
+     */
+    public static BufferMatrix wrap(@NonNull DoubleBuffer buffer, int rowCount, int columnCount) {
+        int size = size(rowCount, columnCount);
+        if(buffer.remaining() < size) throw new IllegalArgumentException("Buffer is too small.");
+        DoubleBuffer[] chunks = new DoubleBuffer[chunkCount(size)];
+
+        for(int k = 0; k < chunks.length; k++) {
+            DoubleBuffer chunk = buffer.duplicate();
+            chunk.position(buffer.position() + (k << CHUNK_SHIFT));
+            chunk.limit(chunk.position() + chunkLength(size, k));
+            chunks[k] = chunk.slice();
+        }
+
+        return new BufferMatrix(rowCount, columnCount, chunks, null);
+    }
+
+    private final int rowCount;
+    private final int columnCount;
+    private final DoubleBuffer[] chunks;
+    private final MappedByteBuffer[] mapped;
+
+    private BufferMatrix(int rowCount, int columnCount, DoubleBuffer[] chunks, MappedByteBuffer[] mapped) {
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.chunks = chunks;
+        this.mapped = mapped;
+    }
+
+    @Override
+    public int rowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int columnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public double getComponent(int i) {
+        if(i < 0 || i >= rowCount * columnCount) throw new IndexOutOfBoundsException();
+        return chunks[i >>> CHUNK_SHIFT].get(i & CHUNK_MASK);
+    }
+
+    @Override
+    public double getComponent(int row, int column) {
+        if(row < 0 || row >= rowCount || column < 0 || column >= columnCount) throw new IndexOutOfBoundsException();
+        int i = row * columnCount + column;
+        return chunks[i >>> CHUNK_SHIFT].get(i & CHUNK_MASK);
+    }
+
+    /**
+     * Copies every component onto the heap.
+     */
+    @Override
+    public @NonNull double[] getComponents() {
+        double[] result = new double[rowCount * columnCount];
+        read(0, result, 0, result.length);
+        return result;
+    }
+
+    /**
+     * @throws java.nio.ReadOnlyBufferException if the matrix was mapped read-only.
+     */
+    public void set(int row, int column, double value) {
+        if(row < 0 || row >= rowCount || column < 0 || column >= columnCount) throw new IndexOutOfBoundsException();
+        int i = row * columnCount + column;
+        chunks[i >>> CHUNK_SHIFT].put(i & CHUNK_MASK, value);
+    }
+
+    /**
+     * Overwrites every component with those of <code>matrix</code>, one row at a time.
+     * @throws IllegalArgumentException if the dimensions differ.
+     */
+    public void copyFrom(@NonNull Matrix matrix) {
+        if(matrix.rowCount() != rowCount || matrix.columnCount() != columnCount) {
+            throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        }
+
+        double[] row = new double[columnCount];
+
+        for(int i = 0; i < rowCount; i++) {
+            for(int j = 0; j < columnCount; j++) row[j] = matrix.getComponent(i * columnCount + j);
+            write(i * columnCount, row, 0, columnCount);
+        }
+    }
+
+    /**
+     * Writes changes to a {@link MapMode#READ_WRITE} mapping back to its file. Does nothing for
+     * direct or wrapped matrices.
+     */
+    public void force() {
+        if(mapped == null) return;
+        for(MappedByteBuffer buffer : mapped) buffer.force();
+    }
+
+    @Override
+    public void mulInto(@NonNull double[] x, @NonNull double[] y) {
+        Metrics.count(Counter.MATRIX_VECTOR_MUL);
+        if(x.length != columnCount || y.length != rowCount) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        int e = 0;
+
+        for(int i = 0; i < rowCount; i++) {
+            double sum = 0;
+            for(int k = 0; k < columnCount; k++, e++) sum += chunks[e >>> CHUNK_SHIFT].get(e & CHUNK_MASK) * x[k];
+            y[i] = sum;
+        }
+    }
+
+    /**
+     * Streams this matrix through the tiled kernel in panels of {@link MatrixKernels#BLOCK_I}
+     * rows, so only one panel of A and one of the product are on the heap at a time, besides B.
+     * If B is a buffer matrix too, it is not copied onto the heap either: it is streamed in panels
+     * of {@link MatrixKernels#BLOCK_K} rows for every panel of A, which are then made as large as
+     * a few MiB allow to keep the number of passes over B down. Either way, the result is
+     * bit-identical to the product of the same components as an {@link MNMatrix}.
+     * @throws IllegalArgumentException if the product has more than 2³¹ − 1 components.
+     */
+    @Override
+    public MNMatrix mul(@NonNull Matrix rhs) {
+        if(columnCount != rhs.rowCount()) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        double[] c = new double[size(rowCount, rhs.columnCount())];
+        mulPanels(rhs, c, null);
+        return MNMatrix.wrap(rowCount, rhs.columnCount(), c);
+    }
+
+    /**
+     * Like {@link #mul(Matrix)}, but writes the product to <code>dest</code>, which may be another
+     * buffer matrix too large for the heap. <code>dest</code> must not share storage with either
+     * operand.
+     * @return <code>dest</code>
+     */
+    public BufferMatrix mulInto(@NonNull Matrix rhs, @NonNull BufferMatrix dest) {
+        if(columnCount != rhs.rowCount()) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        if(dest.rowCount != rowCount || dest.columnCount != rhs.columnCount()) {
+            throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        }
+
+        mulPanels(rhs, null, dest);
+        return dest;
+    }
+
+    private void mulPanels(Matrix rhs, double[] c, BufferMatrix dest) {
+        Metrics.countMatrixMul(rowCount, columnCount, rhs.columnCount());
+        int n = columnCount;
+        int p = rhs.columnCount();
+        BufferMatrix streamed = rhs instanceof BufferMatrix ? (BufferMatrix) rhs : null;
+        double[] b = streamed == null ? rhs.getComponents() : null;
+        int kRows = Math.min(MatrixKernels.BLOCK_K, n);
+        double[] bPanel = streamed == null ? null : new double[kRows * p];
+
+        int panelRows = MatrixKernels.BLOCK_I;
+        if(streamed != null) panelRows = Math.max(panelRows, PANEL_BUDGET / Math.max(1, Math.max(n, p)) / panelRows * panelRows);
+        panelRows = Math.min(panelRows, rowCount);
+        double[] a = new double[panelRows * n];
+        double[] cPanel = new double[panelRows * p];
+
+        for(int i0 = 0; i0 < rowCount; i0 += panelRows) {
+            int rows = Math.min(panelRows, rowCount - i0);
+            read(i0 * n, a, 0, rows * n);
+            Arrays.fill(cPanel, 0.0);
+
+            if(streamed == null) {
+                MatrixKernels.mul(a, b, cPanel, n, p, 0, rows);
+            } else {
+                for(int k0 = 0; k0 < n; k0 += kRows) {
+                    int k1 = Math.min(k0 + kRows, n);
+                    streamed.read(k0 * p, bPanel, 0, (k1 - k0) * p);
+                    MatrixKernels.mulPanel(a, bPanel, cPanel, n, p, rows, k0, k1);
+                }
+            }
+
+            if(dest == null) {
+                System.arraycopy(cPanel, 0, c, i0 * p, rows * p);
+            } else {
+                dest.write(i0 * p, cPanel, 0, rows * p);
+            }
+        }
+    }
+
+    /**
+     * Copies the components [<code>from</code>, <code>from + length</code>) into <code>dst</code>,
+     * with one bulk transfer per chunk. The transfers go through duplicates, so the chunks'
+     * positions never change and concurrent readers do not interfere.
+     */
+    private void read(int from, double[] dst, int offset, int length) {
+        while(length > 0) {
+            DoubleBuffer chunk = chunks[from >>> CHUNK_SHIFT];
+            int at = from & CHUNK_MASK;
+            int count = Math.min(length, CHUNK_SIZE - at);
+            DoubleBuffer view = chunk.duplicate();
+            view.position(at);
+            view.get(dst, offset, count);
+            from += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    private void write(int from, double[] src, int offset, int length) {
+        while(length > 0) {
+            DoubleBuffer chunk = chunks[from >>> CHUNK_SHIFT];
+            int at = from & CHUNK_MASK;
+            int count = Math.min(length, CHUNK_SIZE - at);
+            DoubleBuffer view = chunk.duplicate();
+            view.position(at);
+            view.put(src, offset, count);
+            from += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    private static int size(int rowCount, int columnCount) {
+        if(rowCount < 0 || columnCount < 0) throw new IllegalArgumentException("Dimensions must not be negative.");
+        long size = (long) rowCount * columnCount;
+        if(size > Integer.MAX_VALUE) throw new IllegalArgumentException("Matrix is too large.");
+        return (int) size;
+    }
+
+    private static int chunkCount(int size) {
+        return (int) (((long) size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+    }
+
+    private static int chunkLength(int size, int k) {
+        return Math.min(CHUNK_SIZE, size - (k << CHUNK_SHIFT));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Matrix && equals((Matrix) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return Matrix.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BufferMatrix(%s×%s)", rowCount, columnCount);
+    }
+}
@@ -0,0 +1,117 @@
+package yevano.math.matrix;
+
+import lombok.NonNull;
+import yevano.math.vector.NVector;
+import yevano.math.vector.Vector;
+
+/**
+ * The factorisation A = LLᵀ of a symmetric positive-definite matrix A, with L lower triangular.
+ * Only the lower triangle of A is read. The factor is computed in place in a row-major working
+ * copy, one panel of {@link #BLOCK} columns at a time: every row is swept against the rows of the
+ * current panel while they are still in cache, and each entry is a contiguous dot product of two
+ * row prefixes.
+ */
+public class CholeskyDecomposition {
+    /** Columns per panel. */
+    static final int BLOCK = 64;
+
+    private final int n;
+    private final double[] l;
+
+    /**
+     * Factors a copy of <code>matrix</code>.
+     * @param matrix A symmetric positive-definite matrix A
+     * @throws IllegalArgumentException if the matrix is not square.
+     * @throws ArithmeticException if the matrix is not positive definite.
+     */
+    public CholeskyDecomposition(@NonNull Matrix matrix) {
+        if(matrix.rowCount() != matrix.columnCount()) throw new IllegalArgumentException("Matrix must be square.");
+        int n = matrix.rowCount();
+        double[] a = matrix.getComponents();
+
+        for(int j0 = 0; j0 < n; j0 += BLOCK) {
+            int j1 = Math.min(j0 + BLOCK, n);
+
+            for(int i = j0; i < n; i++) {
+                int iRow = i * n;
+                int jEnd = Math.min(i + 1, j1);
+
+                for(int j = j0; j < jEnd; j++) {
+                    int jRow = j * n;
+                    double sum = a[iRow + j];
+                    for(int k = 0; k < j; k++) sum -= a[iRow + k] * a[jRow + k];
+
+                    if(i == j) {
+                        if(!(sum > 0.0)) throw new ArithmeticException("Matrix is not positive definite.");
+                        a[iRow + i] = Math.sqrt(sum);
+                    } else {
+                        a[iRow + j] = sum / a[jRow + j];
+                    }
+                }
+            }
+        }
+
+        for(int i = 0; i < n; i++) {
+            for(int j = i + 1; j < n; j++) a[i * n + j] = 0;
+        }
+
+        this.n = n;
+        this.l = a;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return The lower triangular factor L.
+     */
+    public MNMatrix getL() {
+        return MNMatrix.of(n, n, l);
+    }
+
+    /**
+     * @return The determinant of A, i.e. the squared product of the diagonal of L.
+     */
+    public double det() {
+        double result = 1;
+        for(int i = 0; i < n; i++) result *= l[i * n + i];
+        return result * result;
+    }
+
+    /**
+     * Solves Ax = b for x.
+     * @param b An n-vector
+     * @return x
+     */
+    public Vector solve(@NonNull Vector b) {
+        if(b.dimensions() != n) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        double[] x = b.getComponents();
+        solveInPlace(x);
+        return NVector.variadic(x);
+    }
+
+    /**
+     * Solves Ax = b for x, overwriting <code>b</code> with x. Nothing is allocated.
+     * @param b An array of n components
+     */
+    public void solveInPlace(@NonNull double[] b) {
+        if(b.length != n) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        double[] a = l;
+
+        for(int i = 0; i < n; i++) {
+            int iRow = i * n;
+            double sum = b[i];
+            for(int k = 0; k < i; k++) sum -= a[iRow + k] * b[k];
+            b[i] = sum / a[iRow + i];
+        }
+
+        // Lᵀx = y: walk L by rows and scatter, so the inner loop stays contiguous.
+        for(int i = n - 1; i >= 0; i--) {
+            int iRow = i * n;
+            double xi = b[i] / a[iRow + i];
+            b[i] = xi;
+            for(int k = 0; k < i; k++) b[k] -= a[iRow + k] * xi;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package yevano.math.matrix;
+
+import lombok.NonNull;
+import yevano.math.vector.NVector;
+import yevano.math.vector.Vector;
+
+/**
+ * The factorisation PA = LU of a square matrix A, with partial (row) pivoting. L is unit lower
+ * triangular and U is upper triangular; both are packed into a single row-major array which is
+ * factored in place, and kept so that any number of right-hand sides can be solved against it.
+ */
+public class LUDecomposition {
+    private final int n;
+    private final double[] lu;
+    /** Row k was swapped with row swaps[k] at elimination step k. */
+    private final int[] swaps;
+    private final boolean singular;
+    private final int sign;
+
+    /**
+     * Factors a copy of <code>matrix</code>.
+     * @param matrix A square matrix A
+     * @throws IllegalArgumentException if the matrix is not square.
+     */
+    public LUDecomposition(@NonNull Matrix matrix) {
+        this(matrix.rowCount(), matrix.columnCount(), matrix.getComponents());
+    }
+
+    /**
+     * Factors <code>components</code> in place; the array is owned by the decomposition afterwards.
+     */
+    LUDecomposition(int rowCount, int columnCount, double[] components) {
+        if(rowCount != columnCount) throw new IllegalArgumentException("Matrix must be square.");
+        int n = rowCount;
+        double[] a = components;
+        int[] swaps = new int[n];
+        boolean singular = false;
+        int sign = 1;
+
+        for(int k = 0; k < n; k++) {
+            int p = k;
+            double max = Math.abs(a[k * n + k]);
+
+            for(int i = k + 1; i < n; i++) {
+                double v = Math.abs(a[i * n + k]);
+                if(v > max) {
+                    max = v;
+                    p = i;
+                }
+            }
+
+            swaps[k] = p;
+
+            if(p != k) {
+                swapRows(a, n, p, k);
+                sign = -sign;
+            }
+
+            double pivotValue = a[k * n + k];
+
+            if(pivotValue == 0.0) {
+                singular = true;
+                continue;
+            }
+
+            int kRow = k * n;
+
+            for(int i = k + 1; i < n; i++) {
+                int iRow = i * n;
+                double f = a[iRow + k] / pivotValue;
+                a[iRow + k] = f;
+                if(f == 0.0) continue;
+
+                for(int j = k + 1; j < n; j++) {
+                    a[iRow + j] -= f * a[kRow + j];
+                }
+            }
+        }
+
+        this.n = n;
+        this.lu = a;
+        this.swaps = swaps;
+        this.singular = singular;
+        this.sign = sign;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public boolean isSingular() {
+        return singular;
+    }
+
+    /**
+     * @return The determinant of A, i.e. the product of the diagonal of U times the sign of P.
+     */
+    public double det() {
+        double result = sign;
+        for(int i = 0; i < n; i++) result *= lu[i * n + i];
+        return result;
+    }
+
+    /**
+     * Solves Ax = b for x.
+     * @param b An n-vector
+     * @throws IllegalArgumentException if b does not have n components.
+     * @throws ArithmeticException if A is singular.
+     * @return x
+     */
+    public Vector solve(@NonNull Vector b) {
+        if(b.dimensions() != n) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        double[] x = b.getComponents();
+        solveInPlace(x);
+        return NVector.variadic(x);
+    }
+
+    /**
+     * Solves Ax = b for x, overwriting <code>b</code> with x. Nothing is allocated.
+     * @param b An array of n components
+     * @throws ArithmeticException if A is singular.
+     */
+    public void solveInPlace(@NonNull double[] b) {
+        if(b.length != n) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        checkSingular();
+        double[] a = lu;
+
+        for(int k = 0; k < n; k++) {
+            int s = swaps[k];
+            if(s == k) continue;
+            double t = b[k];
+            b[k] = b[s];
+            b[s] = t;
+        }
+
+        for(int i = 1; i < n; i++) {
+            int iRow = i * n;
+            double sum = b[i];
+            for(int k = 0; k < i; k++) sum -= a[iRow + k] * b[k];
+            b[i] = sum;
+        }
+
+        for(int i = n - 1; i >= 0; i--) {
+            int iRow = i * n;
+            double sum = b[i];
+            for(int k = i + 1; k < n; k++) sum -= a[iRow + k] * b[k];
+            b[i] = sum / a[iRow + i];
+        }
+    }
+
+    /**
+     * Solves AX = B for X, treating every column of B as a separate right-hand side.
+     * @param b An n×p matrix
+     * @throws IllegalArgumentException if B does not have n rows.
+     * @throws ArithmeticException if A is singular.
+     * @return The n×p matrix X.
+     */
+    public MNMatrix solve(@NonNull Matrix b) {
+        if(b.rowCount() != n) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        int p = b.columnCount();
+        double[] x = b.getComponents();
+        solveInPlace(x, p);
+        return MNMatrix.wrap(n, p, x);
+    }
+
+    /**
+     * @throws ArithmeticException if A is singular.
+     * @return A⁻¹
+     */
+    public MNMatrix inverse() {
+        double[] x = new double[n * n];
+        for(int i = 0; i < n; i++) x[i * n + i] = 1;
+        solveInPlace(x, n);
+        return MNMatrix.wrap(n, n, x);
+    }
+
+    /**
+     * Solves AX = B where <code>b</code> is a row-major n×p matrix, overwriting it with X. The
+     * substitutions run as whole-row updates, so every inner loop is a contiguous sweep.
+     */
+    private void solveInPlace(double[] b, int p) {
+        checkSingular();
+        double[] a = lu;
+
+        for(int k = 0; k < n; k++) {
+            if(swaps[k] != k) swapRows(b, p, k, swaps[k]);
+        }
+
+        for(int i = 1; i < n; i++) {
+            int iRow = i * p;
+
+            for(int k = 0; k < i; k++) {
+                double f = a[i * n + k];
+                if(f == 0.0) continue;
+                int kRow = k * p;
+                for(int j = 0; j < p; j++) b[iRow + j] -= f * b[kRow + j];
+            }
+        }
+
+        for(int i = n - 1; i >= 0; i--) {
+            int iRow = i * p;
+
+            for(int k = i + 1; k < n; k++) {
+                double f = a[i * n + k];
+                if(f == 0.0) continue;
+                int kRow = k * p;
+                for(int j = 0; j < p; j++) b[iRow + j] -= f * b[kRow + j];
+            }
+
+            double d = a[i * n + i];
+            for(int j = 0; j < p; j++) b[iRow + j] /= d;
+        }
+    }
+
+    private void checkSingular() {
+        if(singular) throw new ArithmeticException("Matrix is singular.");
+    }
+
+    private static void swapRows(double[] a, int n, int r, int s) {
+        int rRow = r * n;
+        int sRow = s * n;
+
+        for(int j = 0; j < n; j++) {
+            double t = a[rRow + j];
+            a[rRow + j] = a[sRow + j];
+            a[sRow + j] = t;
+        }
+    }
+}
@@ -1,15 +1,38 @@
 package yevano.math.matrix;
 
+import java.nio.DoubleBuffer;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 import lombok.NonNull;
 import lombok.val;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
 
 public class MNMatrix implements Matrix {
+    /**
+     * Products with fewer multiply-adds (m·n·p) than this are computed serially by
+     * {@link #mulParallel(MNMatrix, ForkJoinPool)}, since forking would cost more than it saves.
+     */
+    public static final long PARALLEL_THRESHOLD = 1L << 21;
+
     public static MNMatrix of(int rowCount, int columnCount, double... components) {
         return new MNMatrix(rowCount, columnCount, components);
     }
 
+    /**
+     * Reads m·n consecutive components in row-major order, starting at absolute index
+     * <code>index</code>, with one bulk transfer and without changing the buffer's position.
+     */
+    public static MNMatrix readFrom(@NonNull DoubleBuffer src, int index, int rowCount, int columnCount) {
+        if(rowCount < 0 || columnCount < 0) throw new IllegalArgumentException("Dimensions must not be negative.");
+        double[] components = new double[rowCount * columnCount];
+        val view = src.duplicate();
+        view.position(index);
+        view.get(components);
+        return new MNMatrix(components, rowCount, columnCount);
+    }
+
     public static MNMatrix rows(double[]... rows) {
         int m = rows.length;
         if(m == 0) throw new IllegalArgumentException("Not enough arguments.");
@@ -28,6 +51,32 @@ public class MNMatrix implements Matrix {
         return MNMatrix.of(m, n, result);
     }
 
+    /**
+     * Wraps <code>components</code> without copying it. The caller hands over ownership of the
+     * array and must not touch it afterwards.
+     */
+    static MNMatrix wrap(int rowCount, int columnCount, double[] components) {
+        return new MNMatrix(components, rowCount, columnCount);
+    }
+
+    /**
+     * Multiplies two array-backed matrices with the tiled kernel in {@link MatrixKernels}, without
+     * allocating anything besides the result.
+     */
+    static MNMatrix mul(@NonNull MNMatrix lhs, @NonNull MNMatrix rhs) {
+        int m = lhs.rowCount;
+        int n = lhs.columnCount;
+        int p = rhs.columnCount;
+
+        if(n != rhs.rowCount) {
+            throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        }
+
+        double[] result = new double[m * p];
+        MatrixKernels.mul(lhs.components, rhs.components, result, m, n, p);
+        return wrap(m, p, result);
+    }
+
     private final int rowCount;
     private final int columnCount;
     private final double[] components;
@@ -39,6 +88,12 @@ public class MNMatrix implements Matrix {
         this.components = Arrays.copyOf(components, components.length);
     }
 
+    private MNMatrix(double[] components, int rowCount, int columnCount) {
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.components = components;
+    }
+
     public MNMatrix(@NonNull Matrix matrix) {
         this.rowCount = matrix.rowCount();
         this.columnCount = matrix.columnCount();
@@ -65,22 +120,141 @@ public class MNMatrix implements Matrix {
         return columnCount;
     }
 
+    MatrixView view() {
+        return new MatrixView(components, 0, rowCount, columnCount, columnCount, 1);
+    }
+
+    /**
+     * @return A view of the transpose of this matrix, sharing its storage.
+     */
+    @Override
+    public MatrixView transpose() {
+        return view().transpose();
+    }
+
+    /**
+     * @param row The first row of the region
+     * @param column The first column of the region
+     * @param rowCount
+     * @param columnCount
+     * @return A view of the given region of this matrix, sharing its storage.
+     */
+    public MatrixView subMatrix(int row, int column, int rowCount, int columnCount) {
+        return view().subMatrix(row, column, rowCount, columnCount);
+    }
+
+    /**
+     * @return A view of the ith row, sharing this matrix's storage.
+     */
+    @Override
+    public VectorView getRow(int i) {
+        if(i < 0 || i >= rowCount) throw new IllegalArgumentException("Invalid row.");
+        return new VectorView(components, i * columnCount, columnCount, 1);
+    }
+
+    /**
+     * @return A view of the jth column, sharing this matrix's storage.
+     */
+    @Override
+    public VectorView getColumn(int j) {
+        if(j < 0 || j >= columnCount) throw new IllegalArgumentException("Invalid column.");
+        return new VectorView(components, j, rowCount, columnCount);
+    }
+
+    @Override
+    public void mulInto(@NonNull double[] x, @NonNull double[] y) {
+        Metrics.count(Counter.MATRIX_VECTOR_MUL);
+        int m = rowCount;
+        int n = columnCount;
+        if(x.length != n || y.length != m) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        double[] a = components;
+
+        for(int i = 0; i < m; i++) {
+            int row = i * n;
+            double sum = 0;
+            for(int k = 0; k < n; k++) sum += a[row + k] * x[k];
+            y[i] = sum;
+        }
+    }
+
+    /**
+     * Runs the {@link #mulParallel(MNMatrix, ForkJoinPool)} kernel in the common pool.
+     * @param rhs
+     * @return The matrix product AB.
+     */
+    public MNMatrix mulParallel(@NonNull MNMatrix rhs) {
+        return mulParallel(rhs, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Given this m×n matrix A, and an n×p matrix <code>rhs</code> B, get the m×p matrix product AB,
+     * computed by splitting the rows of the result into tiles on <code>pool</code>. Products below
+     * {@link #PARALLEL_THRESHOLD} are computed on the calling thread. The result is bit-identical
+     * to {@link #mul(Matrix)} in either case.
+     * @param rhs
+     * @param pool The pool to run the row tiles in.
+     * @return The matrix product AB.
+     */
+    public MNMatrix mulParallel(@NonNull MNMatrix rhs, @NonNull ForkJoinPool pool) {
+        int m = rowCount;
+        int n = columnCount;
+        int p = rhs.columnCount;
+
+        if(n != rhs.rowCount) {
+            throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        }
+
+        Metrics.countMatrixMul(m, n, p);
+
+        if((long) m * n * p < PARALLEL_THRESHOLD || m <= MatrixKernels.BLOCK_I) {
+            return mul(this, rhs);
+        }
+
+        double[] result = new double[m * p];
+        pool.invoke(new MatrixKernels.MulTask(components, rhs.components, result, n, p, 0, m));
+        return wrap(m, p, result);
+    }
+
+    /**
+     * Row-major writes are a single bulk transfer from the backing array.
+     */
+    @Override
+    public void writeTo(@NonNull DoubleBuffer dst, int index, @NonNull Order order) {
+        if(order == Order.COLUMN_MAJOR) {
+            Matrix.super.writeTo(dst, index, order);
+            return;
+        }
+
+        val view = dst.duplicate();
+        view.position(index);
+        view.put(components);
+    }
+
     @Override
     public boolean equals(Object obj) {
         return obj instanceof Matrix && equals((Matrix) obj);
     }
 
+    @Override
+    public int hashCode() {
+        return Matrix.hashCode(this);
+    }
+
     @Override
     public String toString() {
+        return toString(this);
+    }
+
+    static String toString(@NonNull Matrix matrix) {
         val sb = new StringBuilder();
 
-        for(int i = 0; i < rowCount(); i++) {
+        for(int i = 0; i < matrix.rowCount(); i++) {
             sb.append("[");
-            sb.append(Double.toString(this.getComponent(i, 0)));
+            sb.append(Double.toString(matrix.getComponent(i, 0)));
 
-            for(int j = 1; j < columnCount(); j++) {
+            for(int j = 1; j < matrix.columnCount(); j++) {
                 sb.append(" ");
-                sb.append(Double.toString(this.getComponent(i, j)));
+                sb.append(Double.toString(matrix.getComponent(i, j)));
             }
 
             sb.append("]");
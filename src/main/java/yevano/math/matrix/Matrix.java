@@ -1,13 +1,29 @@
 package yevano.math.matrix;
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
 import java.util.Arrays;
 
 import lombok.NonNull;
 import lombok.val;
+import yevano.math.Components;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
 import yevano.math.vector.NVector;
 import yevano.math.vector.Vector;
 
 public interface Matrix {
+    /**
+     * The order in which the components of a matrix are laid out in a buffer.
+     */
+    public static enum Order {
+        /** Row after row, like {@link Matrix#getComponents()}. */
+        ROW_MAJOR,
+        /** Column after column, as expected by OpenGL and most GPU APIs. */
+        COLUMN_MAJOR
+    }
+
     public @NonNull double[] getComponents();
     public double getComponent(int i);
     public int rowCount();
@@ -71,17 +87,53 @@ public interface Matrix {
             throw new IllegalArgumentException("Matrix dimensions not compatible.");
         }
 
+        Metrics.countMatrixMul(m, n, p);
+
+        if(this instanceof MNMatrix && rhs instanceof MNMatrix) {
+            return MNMatrix.mul((MNMatrix) this, (MNMatrix) rhs);
+        }
+
+        val lhsView = MatrixView.of(this);
+        val rhsView = MatrixView.of(rhs);
+
+        if(lhsView != null && rhsView != null) {
+            return MatrixKernels.mul(lhsView, rhsView);
+        }
+
         double[] result = new double[m * p];
 
         for(int i = 0; i < m; i++) {
             for(int j = 0; j < p; j++) {
-                Vector row = this.getRow(i);
-                Vector column = rhs.getColumn(j);
-                result[i * p + j] = row.dot(column);
+                double sum = 0;
+
+                for(int k = 0; k < n; k++) {
+                    sum += getComponent(i * n + k) * rhs.getComponent(k * p + j);
+                }
+
+                result[i * p + j] = sum;
             }
         }
 
-        return MNMatrix.of(m, p, result);
+        return MNMatrix.wrap(m, p, result);
+    }
+
+    /**
+     * Given this m×n matrix A, get its transpose Aᵀ. Array-backed matrices return a view which
+     * shares their storage; other matrices copy.
+     * @return The n×m matrix Aᵀ.
+     */
+    public default @NonNull Matrix transpose() {
+        int m = rowCount();
+        int n = columnCount();
+        double[] result = new double[m * n];
+
+        for(int i = 0; i < m; i++) {
+            for(int j = 0; j < n; j++) {
+                result[j * m + i] = getComponent(i * n + j);
+            }
+        }
+
+        return MNMatrix.wrap(n, m, result);
     }
 
     /**
@@ -89,12 +141,38 @@ public interface Matrix {
      * vector s.t. the result of this method will be the same as multiplying this matrix by an m×1
      * matrix, the latter of which has entries corresponding to the components of the vector it
      * represents.
+     * <p>
+     * The product is computed by {@link #mulInto(double[], double[])}, so it is counted as a
+     * matrix-vector product rather than as a product of matrices.
      * 
      * @param rhs
      * @return
      */
     public default Vector mul(@NonNull Vector rhs) {
-        return mul(rhs.toColumnVector()).getColumn(0);
+        int m = rowCount();
+        if(rhs.dimensions() != columnCount()) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        double[] y = new double[m];
+        mulInto(rhs.getComponents(), y);
+        return new VectorView(y, 0, m, 1);
+    }
+
+    /**
+     * Computes y = Ax for this m×n matrix A without allocating, e.g. for iterative solvers which
+     * apply the same matrix many times.
+     * @param x An array of n components
+     * @param y An array of m components, overwritten with the product
+     */
+    public default void mulInto(@NonNull double[] x, @NonNull double[] y) {
+        Metrics.count(Counter.MATRIX_VECTOR_MUL);
+        int m = rowCount();
+        int n = columnCount();
+        if(x.length != n || y.length != m) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+
+        for(int i = 0; i < m; i++) {
+            double sum = 0;
+            for(int k = 0; k < n; k++) sum += getComponent(i * n + k) * x[k];
+            y[i] = sum;
+        }
     }
 
     /**
@@ -128,16 +206,167 @@ public interface Matrix {
         return MNMatrix.of(m, n, result);
     }
 
+    /**
+     * Factor this square matrix as PA = LU. The decomposition can be kept around to solve against
+     * many right-hand sides without factoring again.
+     * @throws IllegalArgumentException if the matrix is not square.
+     * @return The LU decomposition of this matrix.
+     */
+    public default LUDecomposition lu() {
+        return new LUDecomposition(this);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the matrix is not square.
+     * @return The determinant of this matrix.
+     */
+    public default double det() {
+        return lu().det();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the matrix is not square.
+     * @throws ArithmeticException if the matrix is singular.
+     * @return The inverse of this matrix.
+     */
+    public default @NonNull Matrix inverse() {
+        return lu().inverse();
+    }
+
+    /**
+     * Given this n×n matrix A and an n-vector b, solve Ax = b for x.
+     * @param b
+     * @throws ArithmeticException if the matrix is singular.
+     * @return x
+     */
+    public default @NonNull Vector solve(@NonNull Vector b) {
+        return lu().solve(b);
+    }
+
+    /**
+     * Given this n×n matrix A and an n×p matrix B, solve AX = B for X.
+     * @param b
+     * @throws ArithmeticException if the matrix is singular.
+     * @return X
+     */
+    public default @NonNull Matrix solve(@NonNull Matrix b) {
+        return lu().solve(b);
+    }
+
+    /**
+     * Factor this symmetric positive-definite matrix as A = LLᵀ. Only the lower triangle is read.
+     * @throws IllegalArgumentException if the matrix is not square.
+     * @throws ArithmeticException if the matrix is not positive definite.
+     * @return The Cholesky decomposition of this matrix.
+     */
+    public default CholeskyDecomposition cholesky() {
+        return new CholeskyDecomposition(this);
+    }
+
+    /**
+     * Factor this m×n matrix, with m ≥ n, as A = QR.
+     * @throws IllegalArgumentException if the matrix has fewer rows than columns.
+     * @return The QR decomposition of this matrix.
+     */
+    public default QRDecomposition qr() {
+        return new QRDecomposition(this);
+    }
+
+    /**
+     * Given this m×n matrix A, with m ≥ n, and an m-vector b, find the x which minimises ‖Ax - b‖.
+     * @param b
+     * @throws ArithmeticException if the matrix is rank deficient.
+     * @return x
+     */
+    public default @NonNull Vector solveLeastSquares(@NonNull Vector b) {
+        return qr().solveLeastSquares(b);
+    }
+
     public default boolean equals(Matrix rhs) {
         val m = rowCount();
         val n = columnCount();
         if(m != rhs.rowCount() || n != rhs.columnCount()) return false;
-        int mn = m * n;
 
-        for(int i = 0; i < mn; i++) {
-            if(getComponent(i) != rhs.getComponent(i)) return false;
+        for(int i = 0; i < m; i++) {
+            for(int j = 0; j < n; j++) {
+                if(!Components.equal(getComponent(i, j), rhs.getComponent(i, j))) return false;
+            }
         }
 
         return true;
     }
+
+    /**
+     * The hash code of every matrix class, consistent with {@link #equals(Matrix)}: the
+     * dimensions, followed by the polynomial hash of the components in row-major order with
+     * {@link Components#hash(double)} for each.
+     */
+    public static int hashCode(@NonNull Matrix m) {
+        int mn = m.rowCount() * m.columnCount();
+        int h = 31 * m.rowCount() + m.columnCount();
+        for(int i = 0; i < mn; i++) h = 31 * h + Components.hash(m.getComponent(i));
+        return h;
+    }
+
+    /**
+     * Writes the components of this matrix to <code>dst</code> in row-major order, starting at
+     * absolute index <code>index</code>, without changing the buffer's position and without copying
+     * them into an intermediate array.
+     * @throws IndexOutOfBoundsException if the buffer's limit is too small.
+     */
+    public default void writeTo(@NonNull DoubleBuffer dst, int index) {
+        writeTo(dst, index, Order.ROW_MAJOR);
+    }
+
+    public default void writeTo(@NonNull DoubleBuffer dst, int index, @NonNull Order order) {
+        int m = rowCount();
+        int n = columnCount();
+
+        for(int i = 0; i < m; i++) {
+            for(int j = 0; j < n; j++) {
+                int at = order == Order.ROW_MAJOR ? i * n + j : j * m + i;
+                dst.put(index + at, getComponent(i * n + j));
+            }
+        }
+    }
+
+    /**
+     * Like {@link #writeTo(DoubleBuffer, int)}, rounding every component to the nearest float.
+     */
+    public default void writeTo(@NonNull FloatBuffer dst, int index) {
+        writeTo(dst, index, Order.ROW_MAJOR);
+    }
+
+    public default void writeTo(@NonNull FloatBuffer dst, int index, @NonNull Order order) {
+        int m = rowCount();
+        int n = columnCount();
+
+        for(int i = 0; i < m; i++) {
+            for(int j = 0; j < n; j++) {
+                int at = order == Order.ROW_MAJOR ? i * n + j : j * m + i;
+                dst.put(index + at, (float) getComponent(i * n + j));
+            }
+        }
+    }
+
+    /**
+     * Like {@link #writeTo(DoubleBuffer, int)}, starting at the absolute byte offset
+     * <code>offset</code> and in the buffer's byte order. Components are written as 8-byte doubles,
+     * or as 4-byte floats by the single-precision types such as {@link Matrix4f}.
+     */
+    public default void writeTo(@NonNull ByteBuffer dst, int offset) {
+        writeTo(dst, offset, Order.ROW_MAJOR);
+    }
+
+    public default void writeTo(@NonNull ByteBuffer dst, int offset, @NonNull Order order) {
+        int m = rowCount();
+        int n = columnCount();
+
+        for(int i = 0; i < m; i++) {
+            for(int j = 0; j < n; j++) {
+                int at = order == Order.ROW_MAJOR ? i * n + j : j * m + i;
+                dst.putDouble(offset + at * Double.BYTES, getComponent(i * n + j));
+            }
+        }
+    }
 }
@@ -1,9 +1,12 @@
 package yevano.math.matrix;
 
 import lombok.NonNull;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+import yevano.math.Trig;
 import yevano.math.vector.Vector2;
 
-public class Matrix2 extends MNMatrix {
+public class Matrix2 implements Matrix {
     public static final Matrix2 IDENTITY = Matrix2.of(
         1, 0,
         0, 1
@@ -16,19 +19,33 @@ public class Matrix2 extends MNMatrix {
         );
     }
 
-    
     public static Matrix2 rotation(double t) {
+        return rotation(t, Trig.EXACT);
+    }
+
+    public static Matrix2 rotation(double t, @NonNull Trig trig) {
+        double cos = trig.cos(t);
+        double sin = trig.sin(t);
+
         return of(
-            Math.cos(t), -Math.sin(t),
-            Math.sin(t), Math.cos(t)
+            cos, -sin,
+            sin, cos
         );
     }
 
-    public Matrix2(double m11, double m12, double m21, double m22) {
-        super(2, 2,
-            m11, m12,
-            m21, m22
-        );
+    private final double m11;
+    private final double m12;
+    private final double m21;
+    private final double m22;
+
+    public Matrix2(
+        double m11, double m12,
+        double m21, double m22)
+    {
+        this.m11 = m11;
+        this.m12 = m12;
+        this.m21 = m21;
+        this.m22 = m22;
     }
 
     public Matrix2(@NonNull Matrix matrix) {
@@ -40,29 +57,123 @@ public class Matrix2 extends MNMatrix {
         if(matrix.rowCount() != 2 || matrix.columnCount() != 2) throw new IllegalArgumentException();
     }
 
+    @Override
+    public @NonNull double[] getComponents() {
+        return new double[] {
+            m11, m12,
+            m21, m22
+        };
+    }
+
+    @Override
+    public double getComponent(int i) {
+        switch(i) {
+            case 0: return m11;
+            case 1: return m12;
+            case 2: return m21;
+            case 3: return m22;
+            default: throw new IndexOutOfBoundsException();
+        }
+    }
+
+    @Override
+    public int rowCount() {
+        return 2;
+    }
+
+    @Override
+    public int columnCount() {
+        return 2;
+    }
+
     @Override
     public Vector2 getRow(int i) {
-        return new Vector2(super.getRow(i));
+        switch(i) {
+            case 0: return Vector2.of(m11, m12);
+            case 1: return Vector2.of(m21, m22);
+            default: throw new IllegalArgumentException("Invalid row.");
+        }
     }
 
     @Override
     public Vector2 getColumn(int j) {
-        return new Vector2(super.getColumn(j));
+        switch(j) {
+            case 0: return Vector2.of(m11, m21);
+            case 1: return Vector2.of(m12, m22);
+            default: throw new IllegalArgumentException("Invalid column.");
+        }
     }
 
     public Matrix2 mul(@NonNull Matrix2 rhs) {
-        return new Matrix2(super.mul(rhs));
+        Metrics.count(Counter.MATRIX_MUL_2);
+        return Matrix2.of(
+            m11 * rhs.m11 + m12 * rhs.m21,
+            m11 * rhs.m12 + m12 * rhs.m22,
+            m21 * rhs.m11 + m22 * rhs.m21,
+            m21 * rhs.m12 + m22 * rhs.m22
+        );
     }
 
     public Vector2 mul(@NonNull Vector2 rhs) {
-        return new Vector2(super.mul(rhs));
+        Metrics.count(Counter.MATRIX_VECTOR_MUL);
+        return Vector2.of(
+            m11 * rhs.x() + m12 * rhs.y(),
+            m21 * rhs.x() + m22 * rhs.y()
+        );
     }
 
+    @Override
     public Matrix2 mul(double rhs) {
-        return new Matrix2(super.mul(rhs));
+        return Matrix2.of(
+            m11 * rhs, m12 * rhs,
+            m21 * rhs, m22 * rhs
+        );
     }
 
     public Matrix2 add(@NonNull Matrix2 rhs) {
-        return new Matrix2(super.add(rhs));
+        return Matrix2.of(
+            m11 + rhs.m11, m12 + rhs.m12,
+            m21 + rhs.m21, m22 + rhs.m22
+        );
+    }
+
+    @Override
+    public Matrix2 transpose() {
+        return Matrix2.of(
+            m11, m21,
+            m12, m22
+        );
+    }
+
+    @Override
+    public double det() {
+        return m11 * m22 - m12 * m21;
+    }
+
+    @Override
+    public Matrix2 inverse() {
+        double det = det();
+        if(det == 0.0) throw new ArithmeticException("Matrix is singular.");
+        double s = 1.0 / det;
+
+        return Matrix2.of(
+            m22 * s, -m12 * s,
+            -m21 * s, m11 * s
+        );
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Matrix && equals((Matrix) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return Matrix.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return MNMatrix.toString(this);
     }
 }
@@ -1,10 +1,17 @@
 package yevano.math.matrix;
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
 import lombok.NonNull;
 import lombok.val;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+import yevano.math.Trig;
 import yevano.math.vector.Vector3;
 
-public class Matrix3 extends MNMatrix {
+public class Matrix3 implements Matrix {
     public static final Matrix3 IDENTITY = Matrix3.of(
         1, 0, 0,
         0, 1, 0,
@@ -24,13 +31,17 @@ public class Matrix3 extends MNMatrix {
     }
 
     public static Matrix3 rotation(double t, @NonNull Vector3 axis) {
+        return rotation(t, axis, Trig.EXACT);
+    }
+
+    public static Matrix3 rotation(double t, @NonNull Vector3 axis, @NonNull Trig trig) {
         val normAxis = axis.normalized();
         double l = normAxis.x();
         double m = normAxis.y();
         double n = normAxis.z();
 
-        double ct = Math.cos(t);
-        double st = Math.sin(t);
+        double ct = trig.cos(t);
+        double st = trig.sin(t);
         double lst = l*st;
         double mst = m*st;
         double nst = n*st;
@@ -50,8 +61,12 @@ public class Matrix3 extends MNMatrix {
     }
 
     public static Matrix3 rotateX(double t) {
-        double cos = Math.cos(t);
-        double sin = Math.sin(t);
+        return rotateX(t, Trig.EXACT);
+    }
+
+    public static Matrix3 rotateX(double t, @NonNull Trig trig) {
+        double cos = trig.cos(t);
+        double sin = trig.sin(t);
 
         return Matrix3.of(
             1.0, 0.0, 0.0,
@@ -61,8 +76,12 @@ public class Matrix3 extends MNMatrix {
     }
 
     public static Matrix3 rotateY(double t) {
-        double cos = Math.cos(t);
-        double sin = Math.sin(t);
+        return rotateY(t, Trig.EXACT);
+    }
+
+    public static Matrix3 rotateY(double t, @NonNull Trig trig) {
+        double cos = trig.cos(t);
+        double sin = trig.sin(t);
 
         return Matrix3.of(
             cos, 0.0, sin,
@@ -72,8 +91,12 @@ public class Matrix3 extends MNMatrix {
     }
 
     public static Matrix3 rotateZ(double t) {
-        double cos = Math.cos(t);
-        double sin = Math.sin(t);
+        return rotateZ(t, Trig.EXACT);
+    }
+
+    public static Matrix3 rotateZ(double t, @NonNull Trig trig) {
+        double cos = trig.cos(t);
+        double sin = trig.sin(t);
 
         return Matrix3.of(
             cos, -sin, 0.0,
@@ -82,16 +105,91 @@ public class Matrix3 extends MNMatrix {
         );
     }
 
+    /**
+     * Reads 9 consecutive components in row-major order, starting at absolute index
+     * <code>index</code>, without changing the buffer's position.
+     */
+    public static Matrix3 readFrom(@NonNull DoubleBuffer src, int index) {
+        return readFrom(src, index, Order.ROW_MAJOR);
+    }
+
+    public static Matrix3 readFrom(@NonNull DoubleBuffer src, int index, @NonNull Order order) {
+        int r = order == Order.ROW_MAJOR ? 3 : 1;
+        int c = order == Order.ROW_MAJOR ? 1 : 3;
+
+        return Matrix3.of(
+            src.get(index), src.get(index + c), src.get(index + 2 * c),
+            src.get(index + r), src.get(index + r + c), src.get(index + r + 2 * c),
+            src.get(index + 2 * r), src.get(index + 2 * r + c), src.get(index + 2 * r + 2 * c)
+        );
+    }
+
+    public static Matrix3 readFrom(@NonNull FloatBuffer src, int index) {
+        return readFrom(src, index, Order.ROW_MAJOR);
+    }
+
+    public static Matrix3 readFrom(@NonNull FloatBuffer src, int index, @NonNull Order order) {
+        int r = order == Order.ROW_MAJOR ? 3 : 1;
+        int c = order == Order.ROW_MAJOR ? 1 : 3;
+
+        return Matrix3.of(
+            src.get(index), src.get(index + c), src.get(index + 2 * c),
+            src.get(index + r), src.get(index + r + c), src.get(index + r + 2 * c),
+            src.get(index + 2 * r), src.get(index + 2 * r + c), src.get(index + 2 * r + 2 * c)
+        );
+    }
+
+    /**
+     * Reads 9 consecutive doubles in row-major order, starting at the absolute byte offset
+     * <code>offset</code>, in the buffer's byte order.
+     */
+    public static Matrix3 readFrom(@NonNull ByteBuffer src, int offset) {
+        return readFrom(src, offset, Order.ROW_MAJOR);
+    }
+
+    public static Matrix3 readFrom(@NonNull ByteBuffer src, int offset, @NonNull Order order) {
+        int r = (order == Order.ROW_MAJOR ? 3 : 1) * Double.BYTES;
+        int c = (order == Order.ROW_MAJOR ? 1 : 3) * Double.BYTES;
+
+        return Matrix3.of(
+            src.getDouble(offset),
+            src.getDouble(offset + c),
+            src.getDouble(offset + 2 * c),
+
+            src.getDouble(offset + r),
+            src.getDouble(offset + r + c),
+            src.getDouble(offset + r + 2 * c),
+
+            src.getDouble(offset + 2 * r),
+            src.getDouble(offset + 2 * r + c),
+            src.getDouble(offset + 2 * r + 2 * c)
+        );
+    }
+
+    private final double m11;
+    private final double m12;
+    private final double m13;
+    private final double m21;
+    private final double m22;
+    private final double m23;
+    private final double m31;
+    private final double m32;
+    private final double m33;
+
     public Matrix3(
         double m11, double m12, double m13,
         double m21, double m22, double m23,
         double m31, double m32, double m33)
     {
-        super(3, 3,
-            m11, m12, m13,
-            m21, m22, m23,
-            m31, m32, m33
-        );
+        this.m11 = m11;
+        this.m12 = m12;
+        this.m13 = m13;
+        this.m21 = m21;
+        this.m22 = m22;
+        this.m23 = m23;
+        this.m31 = m31;
+        this.m32 = m32;
+        this.m33 = m33;
     }
 
     public Matrix3(@NonNull Matrix matrix) {
@@ -104,29 +202,197 @@ public class Matrix3 extends MNMatrix {
         if(matrix.rowCount() != 3 || matrix.columnCount() != 3) throw new IllegalArgumentException();
     }
 
+    @Override
+    public @NonNull double[] getComponents() {
+        return new double[] {
+            m11, m12, m13,
+            m21, m22, m23,
+            m31, m32, m33
+        };
+    }
+
+    @Override
+    public double getComponent(int i) {
+        switch(i) {
+            case 0: return m11;
+            case 1: return m12;
+            case 2: return m13;
+            case 3: return m21;
+            case 4: return m22;
+            case 5: return m23;
+            case 6: return m31;
+            case 7: return m32;
+            case 8: return m33;
+            default: throw new IndexOutOfBoundsException();
+        }
+    }
+
+    @Override
+    public int rowCount() {
+        return 3;
+    }
+
+    @Override
+    public int columnCount() {
+        return 3;
+    }
+
     @Override
     public Vector3 getRow(int i) {
-        return new Vector3(super.getRow(i));
+        switch(i) {
+            case 0: return Vector3.of(m11, m12, m13);
+            case 1: return Vector3.of(m21, m22, m23);
+            case 2: return Vector3.of(m31, m32, m33);
+            default: throw new IllegalArgumentException("Invalid row.");
+        }
     }
 
     @Override
     public Vector3 getColumn(int j) {
-        return new Vector3(super.getColumn(j));
+        switch(j) {
+            case 0: return Vector3.of(m11, m21, m31);
+            case 1: return Vector3.of(m12, m22, m32);
+            case 2: return Vector3.of(m13, m23, m33);
+            default: throw new IllegalArgumentException("Invalid column.");
+        }
     }
 
     public Matrix3 mul(@NonNull Matrix3 rhs) {
-        return new Matrix3(super.mul(rhs));
+        Metrics.count(Counter.MATRIX_MUL_3);
+        return Matrix3.of(
+            m11 * rhs.m11 + m12 * rhs.m21 + m13 * rhs.m31,
+            m11 * rhs.m12 + m12 * rhs.m22 + m13 * rhs.m32,
+            m11 * rhs.m13 + m12 * rhs.m23 + m13 * rhs.m33,
+            m21 * rhs.m11 + m22 * rhs.m21 + m23 * rhs.m31,
+            m21 * rhs.m12 + m22 * rhs.m22 + m23 * rhs.m32,
+            m21 * rhs.m13 + m22 * rhs.m23 + m23 * rhs.m33,
+            m31 * rhs.m11 + m32 * rhs.m21 + m33 * rhs.m31,
+            m31 * rhs.m12 + m32 * rhs.m22 + m33 * rhs.m32,
+            m31 * rhs.m13 + m32 * rhs.m23 + m33 * rhs.m33
+        );
     }
 
     public Vector3 mul(@NonNull Vector3 rhs) {
-        return new Vector3(super.mul(rhs));
+        Metrics.count(Counter.MATRIX_VECTOR_MUL);
+        return Vector3.of(
+            m11 * rhs.x() + m12 * rhs.y() + m13 * rhs.z(),
+            m21 * rhs.x() + m22 * rhs.y() + m23 * rhs.z(),
+            m31 * rhs.x() + m32 * rhs.y() + m33 * rhs.z()
+        );
     }
 
+    @Override
     public Matrix3 mul(double rhs) {
-        return new Matrix3(super.mul(rhs));
+        return Matrix3.of(
+            m11 * rhs, m12 * rhs, m13 * rhs,
+            m21 * rhs, m22 * rhs, m23 * rhs,
+            m31 * rhs, m32 * rhs, m33 * rhs
+        );
     }
 
     public Matrix3 add(@NonNull Matrix3 rhs) {
-        return new Matrix3(super.add(rhs));
+        return Matrix3.of(
+            m11 + rhs.m11, m12 + rhs.m12, m13 + rhs.m13,
+            m21 + rhs.m21, m22 + rhs.m22, m23 + rhs.m23,
+            m31 + rhs.m31, m32 + rhs.m32, m33 + rhs.m33
+        );
+    }
+
+    @Override
+    public Matrix3 transpose() {
+        return Matrix3.of(
+            m11, m21, m31,
+            m12, m22, m32,
+            m13, m23, m33
+        );
+    }
+
+    @Override
+    public double det() {
+        return m11 * (m22 * m33 - m23 * m32)
+             - m12 * (m21 * m33 - m23 * m31)
+             + m13 * (m21 * m32 - m22 * m31);
+    }
+
+    /**
+     * Inverts this matrix as the adjugate divided by the determinant.
+     */
+    @Override
+    public Matrix3 inverse() {
+        double c11 = m22 * m33 - m23 * m32;
+        double c12 = m23 * m31 - m21 * m33;
+        double c13 = m21 * m32 - m22 * m31;
+        double det = m11 * c11 + m12 * c12 + m13 * c13;
+        if(det == 0.0) throw new ArithmeticException("Matrix is singular.");
+        double s = 1.0 / det;
+
+        return Matrix3.of(
+            c11 * s, (m13 * m32 - m12 * m33) * s, (m12 * m23 - m13 * m22) * s,
+            c12 * s, (m11 * m33 - m13 * m31) * s, (m13 * m21 - m11 * m23) * s,
+            c13 * s, (m12 * m31 - m11 * m32) * s, (m11 * m22 - m12 * m21) * s
+        );
+    }
+
+    @Override
+    public void writeTo(@NonNull DoubleBuffer dst, int index, @NonNull Order order) {
+        int r = order == Order.ROW_MAJOR ? 3 : 1;
+        int c = order == Order.ROW_MAJOR ? 1 : 3;
+
+        dst.put(index, m11);
+        dst.put(index + c, m12);
+        dst.put(index + 2 * c, m13);
+        dst.put(index + r, m21);
+        dst.put(index + r + c, m22);
+        dst.put(index + r + 2 * c, m23);
+        dst.put(index + 2 * r, m31);
+        dst.put(index + 2 * r + c, m32);
+        dst.put(index + 2 * r + 2 * c, m33);
+    }
+
+    @Override
+    public void writeTo(@NonNull FloatBuffer dst, int index, @NonNull Order order) {
+        int r = order == Order.ROW_MAJOR ? 3 : 1;
+        int c = order == Order.ROW_MAJOR ? 1 : 3;
+
+        dst.put(index, (float) m11);
+        dst.put(index + c, (float) m12);
+        dst.put(index + 2 * c, (float) m13);
+        dst.put(index + r, (float) m21);
+        dst.put(index + r + c, (float) m22);
+        dst.put(index + r + 2 * c, (float) m23);
+        dst.put(index + 2 * r, (float) m31);
+        dst.put(index + 2 * r + c, (float) m32);
+        dst.put(index + 2 * r + 2 * c, (float) m33);
+    }
+
+    @Override
+    public void writeTo(@NonNull ByteBuffer dst, int offset, @NonNull Order order) {
+        int r = (order == Order.ROW_MAJOR ? 3 : 1) * Double.BYTES;
+        int c = (order == Order.ROW_MAJOR ? 1 : 3) * Double.BYTES;
+
+        dst.putDouble(offset, m11);
+        dst.putDouble(offset + c, m12);
+        dst.putDouble(offset + 2 * c, m13);
+        dst.putDouble(offset + r, m21);
+        dst.putDouble(offset + r + c, m22);
+        dst.putDouble(offset + r + 2 * c, m23);
+        dst.putDouble(offset + 2 * r, m31);
+        dst.putDouble(offset + 2 * r + c, m32);
+        dst.putDouble(offset + 2 * r + 2 * c, m33);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Matrix && equals((Matrix) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return Matrix.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return MNMatrix.toString(this);
     }
 }
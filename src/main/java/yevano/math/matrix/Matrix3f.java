@@ -0,0 +1,372 @@
+package yevano.math.matrix;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
+import lombok.NonNull;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+import yevano.math.vector.Vector3f;
+
+/**
+ * A 3×3 matrix with single-precision components, for data which ends up as floats anyway, e.g.
+ * GPU uniforms. Arithmetic between two Matrix3f runs in float; conversions to and from
+ * {@link Matrix3} round each component once.
+ */
+public class Matrix3f implements Matrix {
+    public static final Matrix3f IDENTITY = Matrix3f.of(
+        1, 0, 0,
+        0, 1, 0,
+        0, 0, 1
+    );
+
+    public static Matrix3f of(
+        float m11, float m12, float m13,
+        float m21, float m22, float m23,
+        float m31, float m32, float m33)
+    {
+        return new Matrix3f(
+            m11, m12, m13,
+            m21, m22, m23,
+            m31, m32, m33
+        );
+    }
+
+    /**
+     * Rounds every component of <code>m</code> to the nearest float.
+     */
+    public static Matrix3f of(@NonNull Matrix3 m) {
+        return new Matrix3f(m);
+    }
+
+    public static Matrix3f rotation(double t, @NonNull Vector3f axis) {
+        return of(Matrix3.rotation(t, axis.toVector3()));
+    }
+
+    public static Matrix3f rotateX(double t) {
+        return of(Matrix3.rotateX(t));
+    }
+
+    public static Matrix3f rotateY(double t) {
+        return of(Matrix3.rotateY(t));
+    }
+
+    public static Matrix3f rotateZ(double t) {
+        return of(Matrix3.rotateZ(t));
+    }
+
+    /**
+     * Reads 9 consecutive components in row-major order, starting at absolute index
+     * <code>index</code>, without changing the buffer's position.
+     */
+    public static Matrix3f readFrom(@NonNull DoubleBuffer src, int index) {
+        return readFrom(src, index, Order.ROW_MAJOR);
+    }
+
+    public static Matrix3f readFrom(@NonNull DoubleBuffer src, int index, @NonNull Order order) {
+        int r = order == Order.ROW_MAJOR ? 3 : 1;
+        int c = order == Order.ROW_MAJOR ? 1 : 3;
+
+        return Matrix3f.of(
+            (float) src.get(index),
+            (float) src.get(index + c),
+            (float) src.get(index + 2 * c),
+
+            (float) src.get(index + r),
+            (float) src.get(index + r + c),
+            (float) src.get(index + r + 2 * c),
+
+            (float) src.get(index + 2 * r),
+            (float) src.get(index + 2 * r + c),
+            (float) src.get(index + 2 * r + 2 * c)
+        );
+    }
+
+    public static Matrix3f readFrom(@NonNull FloatBuffer src, int index) {
+        return readFrom(src, index, Order.ROW_MAJOR);
+    }
+
+    public static Matrix3f readFrom(@NonNull FloatBuffer src, int index, @NonNull Order order) {
+        int r = order == Order.ROW_MAJOR ? 3 : 1;
+        int c = order == Order.ROW_MAJOR ? 1 : 3;
+
+        return Matrix3f.of(
+            src.get(index), src.get(index + c), src.get(index + 2 * c),
+            src.get(index + r), src.get(index + r + c), src.get(index + r + 2 * c),
+            src.get(index + 2 * r), src.get(index + 2 * r + c), src.get(index + 2 * r + 2 * c)
+        );
+    }
+
+    /**
+     * Reads 9 consecutive floats in row-major order, starting at the absolute byte offset
+     * <code>offset</code>, in the buffer's byte order.
+     */
+    public static Matrix3f readFrom(@NonNull ByteBuffer src, int offset) {
+        return readFrom(src, offset, Order.ROW_MAJOR);
+    }
+
+    public static Matrix3f readFrom(@NonNull ByteBuffer src, int offset, @NonNull Order order) {
+        int r = (order == Order.ROW_MAJOR ? 3 : 1) * Float.BYTES;
+        int c = (order == Order.ROW_MAJOR ? 1 : 3) * Float.BYTES;
+
+        return Matrix3f.of(
+            src.getFloat(offset),
+            src.getFloat(offset + c),
+            src.getFloat(offset + 2 * c),
+
+            src.getFloat(offset + r),
+            src.getFloat(offset + r + c),
+            src.getFloat(offset + r + 2 * c),
+
+            src.getFloat(offset + 2 * r),
+            src.getFloat(offset + 2 * r + c),
+            src.getFloat(offset + 2 * r + 2 * c)
+        );
+    }
+
+    private final float m11;
+    private final float m12;
+    private final float m13;
+    private final float m21;
+    private final float m22;
+    private final float m23;
+    private final float m31;
+    private final float m32;
+    private final float m33;
+
+    public Matrix3f(
+        float m11, float m12, float m13,
+        float m21, float m22, float m23,
+        float m31, float m32, float m33)
+    {
+        this.m11 = m11;
+        this.m12 = m12;
+        this.m13 = m13;
+        this.m21 = m21;
+        this.m22 = m22;
+        this.m23 = m23;
+        this.m31 = m31;
+        this.m32 = m32;
+        this.m33 = m33;
+    }
+
+    public Matrix3f(@NonNull Matrix matrix) {
+        this(
+            (float) matrix.getComponent(0), (float) matrix.getComponent(1), (float) matrix.getComponent(2),
+            (float) matrix.getComponent(3), (float) matrix.getComponent(4), (float) matrix.getComponent(5),
+            (float) matrix.getComponent(6), (float) matrix.getComponent(7), (float) matrix.getComponent(8)
+        );
+
+        if(matrix.rowCount() != 3 || matrix.columnCount() != 3) throw new IllegalArgumentException();
+    }
+
+    @Override
+    public @NonNull double[] getComponents() {
+        return new double[] {
+            m11, m12, m13,
+            m21, m22, m23,
+            m31, m32, m33
+        };
+    }
+
+    @Override
+    public double getComponent(int i) {
+        switch(i) {
+            case 0: return m11;
+            case 1: return m12;
+            case 2: return m13;
+            case 3: return m21;
+            case 4: return m22;
+            case 5: return m23;
+            case 6: return m31;
+            case 7: return m32;
+            case 8: return m33;
+            default: throw new IndexOutOfBoundsException();
+        }
+    }
+
+    @Override
+    public int rowCount() {
+        return 3;
+    }
+
+    @Override
+    public int columnCount() {
+        return 3;
+    }
+
+    @Override
+    public Vector3f getRow(int i) {
+        switch(i) {
+            case 0: return Vector3f.of(m11, m12, m13);
+            case 1: return Vector3f.of(m21, m22, m23);
+            case 2: return Vector3f.of(m31, m32, m33);
+            default: throw new IllegalArgumentException("Invalid row.");
+        }
+    }
+
+    @Override
+    public Vector3f getColumn(int j) {
+        switch(j) {
+            case 0: return Vector3f.of(m11, m21, m31);
+            case 1: return Vector3f.of(m12, m22, m32);
+            case 2: return Vector3f.of(m13, m23, m33);
+            default: throw new IllegalArgumentException("Invalid column.");
+        }
+    }
+
+    public Matrix3f mul(@NonNull Matrix3f rhs) {
+        Metrics.count(Counter.MATRIX_MUL_3);
+        return Matrix3f.of(
+            m11 * rhs.m11 + m12 * rhs.m21 + m13 * rhs.m31,
+            m11 * rhs.m12 + m12 * rhs.m22 + m13 * rhs.m32,
+            m11 * rhs.m13 + m12 * rhs.m23 + m13 * rhs.m33,
+            m21 * rhs.m11 + m22 * rhs.m21 + m23 * rhs.m31,
+            m21 * rhs.m12 + m22 * rhs.m22 + m23 * rhs.m32,
+            m21 * rhs.m13 + m22 * rhs.m23 + m23 * rhs.m33,
+            m31 * rhs.m11 + m32 * rhs.m21 + m33 * rhs.m31,
+            m31 * rhs.m12 + m32 * rhs.m22 + m33 * rhs.m32,
+            m31 * rhs.m13 + m32 * rhs.m23 + m33 * rhs.m33
+        );
+    }
+
+    public Vector3f mul(@NonNull Vector3f rhs) {
+        Metrics.count(Counter.MATRIX_VECTOR_MUL);
+        return Vector3f.of(
+            m11 * rhs.x() + m12 * rhs.y() + m13 * rhs.z(),
+            m21 * rhs.x() + m22 * rhs.y() + m23 * rhs.z(),
+            m31 * rhs.x() + m32 * rhs.y() + m33 * rhs.z()
+        );
+    }
+
+    @Override
+    public Matrix3f mul(double rhs) {
+        return mul((float) rhs);
+    }
+
+    public Matrix3f mul(float rhs) {
+        return Matrix3f.of(
+            m11 * rhs, m12 * rhs, m13 * rhs,
+            m21 * rhs, m22 * rhs, m23 * rhs,
+            m31 * rhs, m32 * rhs, m33 * rhs
+        );
+    }
+
+    public Matrix3f add(@NonNull Matrix3f rhs) {
+        return Matrix3f.of(
+            m11 + rhs.m11, m12 + rhs.m12, m13 + rhs.m13,
+            m21 + rhs.m21, m22 + rhs.m22, m23 + rhs.m23,
+            m31 + rhs.m31, m32 + rhs.m32, m33 + rhs.m33
+        );
+    }
+
+    @Override
+    public Matrix3f transpose() {
+        return Matrix3f.of(
+            m11, m21, m31,
+            m12, m22, m32,
+            m13, m23, m33
+        );
+    }
+
+    @Override
+    public double det() {
+        return m11 * (m22 * m33 - m23 * m32)
+             - m12 * (m21 * m33 - m23 * m31)
+             + m13 * (m21 * m32 - m22 * m31);
+    }
+
+    /**
+     * Inverts this matrix as the adjugate divided by the determinant.
+     */
+    @Override
+    public Matrix3f inverse() {
+        float c11 = m22 * m33 - m23 * m32;
+        float c12 = m23 * m31 - m21 * m33;
+        float c13 = m21 * m32 - m22 * m31;
+        float det = m11 * c11 + m12 * c12 + m13 * c13;
+        if(det == 0.0) throw new ArithmeticException("Matrix is singular.");
+        float s = 1 / det;
+
+        return Matrix3f.of(
+            c11 * s, (m13 * m32 - m12 * m33) * s, (m12 * m23 - m13 * m22) * s,
+            c12 * s, (m11 * m33 - m13 * m31) * s, (m13 * m21 - m11 * m23) * s,
+            c13 * s, (m12 * m31 - m11 * m32) * s, (m11 * m22 - m12 * m21) * s
+        );
+    }
+
+    /**
+     * Widens every component to a double, which is exact.
+     */
+    public Matrix3 toMatrix3() {
+        return Matrix3.of(
+            m11, m12, m13,
+            m21, m22, m23,
+            m31, m32, m33
+        );
+    }
+
+    @Override
+    public void writeTo(@NonNull DoubleBuffer dst, int index, @NonNull Order order) {
+        int r = order == Order.ROW_MAJOR ? 3 : 1;
+        int c = order == Order.ROW_MAJOR ? 1 : 3;
+
+        dst.put(index, m11);
+        dst.put(index + c, m12);
+        dst.put(index + 2 * c, m13);
+        dst.put(index + r, m21);
+        dst.put(index + r + c, m22);
+        dst.put(index + r + 2 * c, m23);
+        dst.put(index + 2 * r, m31);
+        dst.put(index + 2 * r + c, m32);
+        dst.put(index + 2 * r + 2 * c, m33);
+    }
+
+    @Override
+    public void writeTo(@NonNull FloatBuffer dst, int index, @NonNull Order order) {
+        int r = order == Order.ROW_MAJOR ? 3 : 1;
+        int c = order == Order.ROW_MAJOR ? 1 : 3;
+
+        dst.put(index, m11);
+        dst.put(index + c, m12);
+        dst.put(index + 2 * c, m13);
+        dst.put(index + r, m21);
+        dst.put(index + r + c, m22);
+        dst.put(index + r + 2 * c, m23);
+        dst.put(index + 2 * r, m31);
+        dst.put(index + 2 * r + c, m32);
+        dst.put(index + 2 * r + 2 * c, m33);
+    }
+
+    @Override
+    public void writeTo(@NonNull ByteBuffer dst, int offset, @NonNull Order order) {
+        int r = (order == Order.ROW_MAJOR ? 3 : 1) * Float.BYTES;
+        int c = (order == Order.ROW_MAJOR ? 1 : 3) * Float.BYTES;
+
+        dst.putFloat(offset, m11);
+        dst.putFloat(offset + c, m12);
+        dst.putFloat(offset + 2 * c, m13);
+        dst.putFloat(offset + r, m21);
+        dst.putFloat(offset + r + c, m22);
+        dst.putFloat(offset + r + 2 * c, m23);
+        dst.putFloat(offset + 2 * r, m31);
+        dst.putFloat(offset + 2 * r + c, m32);
+        dst.putFloat(offset + 2 * r + 2 * c, m33);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Matrix && equals((Matrix) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return Matrix.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return MNMatrix.toString(this);
+    }
+}
@@ -0,0 +1,510 @@
+package yevano.math.matrix;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
+import lombok.NonNull;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+import yevano.math.vector.Vector4f;
+
+/**
+ * A 4×4 matrix with single-precision components, for data which ends up as floats anyway, e.g.
+ * GPU uniforms. Arithmetic between two Matrix4f runs in float; conversions to and from
+ * {@link Matrix4} round each component once.
+ */
+public class Matrix4f implements Matrix {
+    public static final Matrix4f IDENTITY = Matrix4f.of(
+        1, 0, 0, 0,
+        0, 1, 0, 0,
+        0, 0, 1, 0,
+        0, 0, 0, 1
+    );
+
+    public static Matrix4f of(
+        float m11, float m12, float m13, float m14,
+        float m21, float m22, float m23, float m24,
+        float m31, float m32, float m33, float m34,
+        float m41, float m42, float m43, float m44)
+    {
+        return new Matrix4f(
+            m11, m12, m13, m14,
+            m21, m22, m23, m24,
+            m31, m32, m33, m34,
+            m41, m42, m43, m44
+        );
+    }
+
+    /**
+     * Rounds every component of <code>m</code> to the nearest float.
+     */
+    public static Matrix4f of(@NonNull Matrix4 m) {
+        return new Matrix4f(m);
+    }
+
+    /**
+     * Reads 16 consecutive components in row-major order, starting at absolute index
+     * <code>index</code>, without changing the buffer's position.
+     */
+    public static Matrix4f readFrom(@NonNull DoubleBuffer src, int index) {
+        return readFrom(src, index, Order.ROW_MAJOR);
+    }
+
+    public static Matrix4f readFrom(@NonNull DoubleBuffer src, int index, @NonNull Order order) {
+        int r = order == Order.ROW_MAJOR ? 4 : 1;
+        int c = order == Order.ROW_MAJOR ? 1 : 4;
+
+        return Matrix4f.of(
+            (float) src.get(index),
+            (float) src.get(index + c),
+            (float) src.get(index + 2 * c),
+            (float) src.get(index + 3 * c),
+
+            (float) src.get(index + r),
+            (float) src.get(index + r + c),
+            (float) src.get(index + r + 2 * c),
+            (float) src.get(index + r + 3 * c),
+
+            (float) src.get(index + 2 * r),
+            (float) src.get(index + 2 * r + c),
+            (float) src.get(index + 2 * r + 2 * c),
+            (float) src.get(index + 2 * r + 3 * c),
+
+            (float) src.get(index + 3 * r),
+            (float) src.get(index + 3 * r + c),
+            (float) src.get(index + 3 * r + 2 * c),
+            (float) src.get(index + 3 * r + 3 * c)
+        );
+    }
+
+    public static Matrix4f readFrom(@NonNull FloatBuffer src, int index) {
+        return readFrom(src, index, Order.ROW_MAJOR);
+    }
+
+    public static Matrix4f readFrom(@NonNull FloatBuffer src, int index, @NonNull Order order) {
+        int r = order == Order.ROW_MAJOR ? 4 : 1;
+        int c = order == Order.ROW_MAJOR ? 1 : 4;
+
+        return Matrix4f.of(
+            src.get(index),
+            src.get(index + c),
+            src.get(index + 2 * c),
+            src.get(index + 3 * c),
+
+            src.get(index + r),
+            src.get(index + r + c),
+            src.get(index + r + 2 * c),
+            src.get(index + r + 3 * c),
+
+            src.get(index + 2 * r),
+            src.get(index + 2 * r + c),
+            src.get(index + 2 * r + 2 * c),
+            src.get(index + 2 * r + 3 * c),
+
+            src.get(index + 3 * r),
+            src.get(index + 3 * r + c),
+            src.get(index + 3 * r + 2 * c),
+            src.get(index + 3 * r + 3 * c)
+        );
+    }
+
+    /**
+     * Reads 16 consecutive floats in row-major order, starting at the absolute byte offset
+     * <code>offset</code>, in the buffer's byte order.
+     */
+    public static Matrix4f readFrom(@NonNull ByteBuffer src, int offset) {
+        return readFrom(src, offset, Order.ROW_MAJOR);
+    }
+
+    public static Matrix4f readFrom(@NonNull ByteBuffer src, int offset, @NonNull Order order) {
+        int r = (order == Order.ROW_MAJOR ? 4 : 1) * Float.BYTES;
+        int c = (order == Order.ROW_MAJOR ? 1 : 4) * Float.BYTES;
+
+        return Matrix4f.of(
+            src.getFloat(offset),
+            src.getFloat(offset + c),
+            src.getFloat(offset + 2 * c),
+            src.getFloat(offset + 3 * c),
+
+            src.getFloat(offset + r),
+            src.getFloat(offset + r + c),
+            src.getFloat(offset + r + 2 * c),
+            src.getFloat(offset + r + 3 * c),
+
+            src.getFloat(offset + 2 * r),
+            src.getFloat(offset + 2 * r + c),
+            src.getFloat(offset + 2 * r + 2 * c),
+            src.getFloat(offset + 2 * r + 3 * c),
+
+            src.getFloat(offset + 3 * r),
+            src.getFloat(offset + 3 * r + c),
+            src.getFloat(offset + 3 * r + 2 * c),
+            src.getFloat(offset + 3 * r + 3 * c)
+        );
+    }
+
+    /**
+     * Writes <code>matrices</code> back to back, i.e. 16·<code>matrices.length</code> components,
+     * starting at absolute index <code>index</code>.
+     */
+    public static void writeTo(@NonNull Matrix4f[] matrices, @NonNull DoubleBuffer dst, int index, @NonNull Order order) {
+        for(int i = 0; i < matrices.length; i++) matrices[i].writeTo(dst, index + 16 * i, order);
+    }
+
+    public static void writeTo(@NonNull Matrix4f[] matrices, @NonNull FloatBuffer dst, int index, @NonNull Order order) {
+        for(int i = 0; i < matrices.length; i++) matrices[i].writeTo(dst, index + 16 * i, order);
+    }
+
+    /**
+     * Fills <code>dst</code> with matrices read back to back, starting at absolute index
+     * <code>index</code>.
+     */
+    public static void readFrom(@NonNull DoubleBuffer src, int index, @NonNull Order order, @NonNull Matrix4f[] dst) {
+        for(int i = 0; i < dst.length; i++) dst[i] = readFrom(src, index + 16 * i, order);
+    }
+
+    public static void readFrom(@NonNull FloatBuffer src, int index, @NonNull Order order, @NonNull Matrix4f[] dst) {
+        for(int i = 0; i < dst.length; i++) dst[i] = readFrom(src, index + 16 * i, order);
+    }
+
+    private final float m11;
+    private final float m12;
+    private final float m13;
+    private final float m14;
+    private final float m21;
+    private final float m22;
+    private final float m23;
+    private final float m24;
+    private final float m31;
+    private final float m32;
+    private final float m33;
+    private final float m34;
+    private final float m41;
+    private final float m42;
+    private final float m43;
+    private final float m44;
+
+    public Matrix4f(
+        float m11, float m12, float m13, float m14,
+        float m21, float m22, float m23, float m24,
+        float m31, float m32, float m33, float m34,
+        float m41, float m42, float m43, float m44)
+    {
+        this.m11 = m11;
+        this.m12 = m12;
+        this.m13 = m13;
+        this.m14 = m14;
+        this.m21 = m21;
+        this.m22 = m22;
+        this.m23 = m23;
+        this.m24 = m24;
+        this.m31 = m31;
+        this.m32 = m32;
+        this.m33 = m33;
+        this.m34 = m34;
+        this.m41 = m41;
+        this.m42 = m42;
+        this.m43 = m43;
+        this.m44 = m44;
+    }
+
+    public Matrix4f(@NonNull Matrix matrix) {
+        this(
+            (float) matrix.getComponent(0), (float) matrix.getComponent(1), (float) matrix.getComponent(2), (float) matrix.getComponent(3),
+            (float) matrix.getComponent(4), (float) matrix.getComponent(5), (float) matrix.getComponent(6), (float) matrix.getComponent(7),
+            (float) matrix.getComponent(8), (float) matrix.getComponent(9), (float) matrix.getComponent(10), (float) matrix.getComponent(11),
+            (float) matrix.getComponent(12), (float) matrix.getComponent(13), (float) matrix.getComponent(14), (float) matrix.getComponent(15)
+        );
+
+        if(matrix.rowCount() != 4 || matrix.columnCount() != 4) throw new IllegalArgumentException();
+    }
+
+    @Override
+    public @NonNull double[] getComponents() {
+        return new double[] {
+            m11, m12, m13, m14,
+            m21, m22, m23, m24,
+            m31, m32, m33, m34,
+            m41, m42, m43, m44
+        };
+    }
+
+    @Override
+    public double getComponent(int i) {
+        switch(i) {
+            case 0: return m11;
+            case 1: return m12;
+            case 2: return m13;
+            case 3: return m14;
+            case 4: return m21;
+            case 5: return m22;
+            case 6: return m23;
+            case 7: return m24;
+            case 8: return m31;
+            case 9: return m32;
+            case 10: return m33;
+            case 11: return m34;
+            case 12: return m41;
+            case 13: return m42;
+            case 14: return m43;
+            case 15: return m44;
+            default: throw new IndexOutOfBoundsException();
+        }
+    }
+
+    @Override
+    public int rowCount() {
+        return 4;
+    }
+
+    @Override
+    public int columnCount() {
+        return 4;
+    }
+
+    @Override
+    public Vector4f getRow(int i) {
+        switch(i) {
+            case 0: return Vector4f.of(m11, m12, m13, m14);
+            case 1: return Vector4f.of(m21, m22, m23, m24);
+            case 2: return Vector4f.of(m31, m32, m33, m34);
+            case 3: return Vector4f.of(m41, m42, m43, m44);
+            default: throw new IllegalArgumentException("Invalid row.");
+        }
+    }
+
+    @Override
+    public Vector4f getColumn(int j) {
+        switch(j) {
+            case 0: return Vector4f.of(m11, m21, m31, m41);
+            case 1: return Vector4f.of(m12, m22, m32, m42);
+            case 2: return Vector4f.of(m13, m23, m33, m43);
+            case 3: return Vector4f.of(m14, m24, m34, m44);
+            default: throw new IllegalArgumentException("Invalid column.");
+        }
+    }
+
+    public Matrix4f mul(@NonNull Matrix4f rhs) {
+        Metrics.count(Counter.MATRIX_MUL_4);
+        return Matrix4f.of(
+            m11 * rhs.m11 + m12 * rhs.m21 + m13 * rhs.m31 + m14 * rhs.m41,
+            m11 * rhs.m12 + m12 * rhs.m22 + m13 * rhs.m32 + m14 * rhs.m42,
+            m11 * rhs.m13 + m12 * rhs.m23 + m13 * rhs.m33 + m14 * rhs.m43,
+            m11 * rhs.m14 + m12 * rhs.m24 + m13 * rhs.m34 + m14 * rhs.m44,
+            m21 * rhs.m11 + m22 * rhs.m21 + m23 * rhs.m31 + m24 * rhs.m41,
+            m21 * rhs.m12 + m22 * rhs.m22 + m23 * rhs.m32 + m24 * rhs.m42,
+            m21 * rhs.m13 + m22 * rhs.m23 + m23 * rhs.m33 + m24 * rhs.m43,
+            m21 * rhs.m14 + m22 * rhs.m24 + m23 * rhs.m34 + m24 * rhs.m44,
+            m31 * rhs.m11 + m32 * rhs.m21 + m33 * rhs.m31 + m34 * rhs.m41,
+            m31 * rhs.m12 + m32 * rhs.m22 + m33 * rhs.m32 + m34 * rhs.m42,
+            m31 * rhs.m13 + m32 * rhs.m23 + m33 * rhs.m33 + m34 * rhs.m43,
+            m31 * rhs.m14 + m32 * rhs.m24 + m33 * rhs.m34 + m34 * rhs.m44,
+            m41 * rhs.m11 + m42 * rhs.m21 + m43 * rhs.m31 + m44 * rhs.m41,
+            m41 * rhs.m12 + m42 * rhs.m22 + m43 * rhs.m32 + m44 * rhs.m42,
+            m41 * rhs.m13 + m42 * rhs.m23 + m43 * rhs.m33 + m44 * rhs.m43,
+            m41 * rhs.m14 + m42 * rhs.m24 + m43 * rhs.m34 + m44 * rhs.m44
+        );
+    }
+
+    public Vector4f mul(@NonNull Vector4f rhs) {
+        Metrics.count(Counter.MATRIX_VECTOR_MUL);
+        return Vector4f.of(
+            m11 * rhs.x() + m12 * rhs.y() + m13 * rhs.z() + m14 * rhs.w(),
+            m21 * rhs.x() + m22 * rhs.y() + m23 * rhs.z() + m24 * rhs.w(),
+            m31 * rhs.x() + m32 * rhs.y() + m33 * rhs.z() + m34 * rhs.w(),
+            m41 * rhs.x() + m42 * rhs.y() + m43 * rhs.z() + m44 * rhs.w()
+        );
+    }
+
+    @Override
+    public Matrix4f mul(double rhs) {
+        return mul((float) rhs);
+    }
+
+    public Matrix4f mul(float rhs) {
+        return Matrix4f.of(
+            m11 * rhs, m12 * rhs, m13 * rhs, m14 * rhs,
+            m21 * rhs, m22 * rhs, m23 * rhs, m24 * rhs,
+            m31 * rhs, m32 * rhs, m33 * rhs, m34 * rhs,
+            m41 * rhs, m42 * rhs, m43 * rhs, m44 * rhs
+        );
+    }
+
+    public Matrix4f add(@NonNull Matrix4f rhs) {
+        return Matrix4f.of(
+            m11 + rhs.m11, m12 + rhs.m12, m13 + rhs.m13, m14 + rhs.m14,
+            m21 + rhs.m21, m22 + rhs.m22, m23 + rhs.m23, m24 + rhs.m24,
+            m31 + rhs.m31, m32 + rhs.m32, m33 + rhs.m33, m34 + rhs.m34,
+            m41 + rhs.m41, m42 + rhs.m42, m43 + rhs.m43, m44 + rhs.m44
+        );
+    }
+
+    @Override
+    public Matrix4f transpose() {
+        return Matrix4f.of(
+            m11, m21, m31, m41,
+            m12, m22, m32, m42,
+            m13, m23, m33, m43,
+            m14, m24, m34, m44
+        );
+    }
+
+    @Override
+    public double det() {
+        float s0 = m11 * m22 - m21 * m12;
+        float s1 = m11 * m23 - m21 * m13;
+        float s2 = m11 * m24 - m21 * m14;
+        float s3 = m12 * m23 - m22 * m13;
+        float s4 = m12 * m24 - m22 * m14;
+        float s5 = m13 * m24 - m23 * m14;
+        float c5 = m33 * m44 - m43 * m34;
+        float c4 = m32 * m44 - m42 * m34;
+        float c3 = m32 * m43 - m42 * m33;
+        float c2 = m31 * m44 - m41 * m34;
+        float c1 = m31 * m43 - m41 * m33;
+        float c0 = m31 * m42 - m41 * m32;
+        return s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+    }
+
+    /**
+     * Inverts this matrix by cofactor expansion, sharing the twelve 2×2 minors of the upper and
+     * lower row pairs between the determinant and the adjugate.
+     */
+    @Override
+    public Matrix4f inverse() {
+        float s0 = m11 * m22 - m21 * m12;
+        float s1 = m11 * m23 - m21 * m13;
+        float s2 = m11 * m24 - m21 * m14;
+        float s3 = m12 * m23 - m22 * m13;
+        float s4 = m12 * m24 - m22 * m14;
+        float s5 = m13 * m24 - m23 * m14;
+        float c5 = m33 * m44 - m43 * m34;
+        float c4 = m32 * m44 - m42 * m34;
+        float c3 = m32 * m43 - m42 * m33;
+        float c2 = m31 * m44 - m41 * m34;
+        float c1 = m31 * m43 - m41 * m33;
+        float c0 = m31 * m42 - m41 * m32;
+        float det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+        if(det == 0.0) throw new ArithmeticException("Matrix is singular.");
+        float s = 1 / det;
+
+        return Matrix4f.of(
+            ( m22 * c5 - m23 * c4 + m24 * c3) * s,
+            (-m12 * c5 + m13 * c4 - m14 * c3) * s,
+            ( m42 * s5 - m43 * s4 + m44 * s3) * s,
+            (-m32 * s5 + m33 * s4 - m34 * s3) * s,
+
+            (-m21 * c5 + m23 * c2 - m24 * c1) * s,
+            ( m11 * c5 - m13 * c2 + m14 * c1) * s,
+            (-m41 * s5 + m43 * s2 - m44 * s1) * s,
+            ( m31 * s5 - m33 * s2 + m34 * s1) * s,
+
+            ( m21 * c4 - m22 * c2 + m24 * c0) * s,
+            (-m11 * c4 + m12 * c2 - m14 * c0) * s,
+            ( m41 * s4 - m42 * s2 + m44 * s0) * s,
+            (-m31 * s4 + m32 * s2 - m34 * s0) * s,
+
+            (-m21 * c3 + m22 * c1 - m23 * c0) * s,
+            ( m11 * c3 - m12 * c1 + m13 * c0) * s,
+            (-m41 * s3 + m42 * s1 - m43 * s0) * s,
+            ( m31 * s3 - m32 * s1 + m33 * s0) * s
+        );
+    }
+
+    /**
+     * Widens every component to a double, which is exact.
+     */
+    public Matrix4 toMatrix4() {
+        return Matrix4.of(
+            m11, m12, m13, m14,
+            m21, m22, m23, m24,
+            m31, m32, m33, m34,
+            m41, m42, m43, m44
+        );
+    }
+
+    @Override
+    public void writeTo(@NonNull DoubleBuffer dst, int index, @NonNull Order order) {
+        int r = order == Order.ROW_MAJOR ? 4 : 1;
+        int c = order == Order.ROW_MAJOR ? 1 : 4;
+
+        dst.put(index, m11);
+        dst.put(index + c, m12);
+        dst.put(index + 2 * c, m13);
+        dst.put(index + 3 * c, m14);
+        dst.put(index + r, m21);
+        dst.put(index + r + c, m22);
+        dst.put(index + r + 2 * c, m23);
+        dst.put(index + r + 3 * c, m24);
+        dst.put(index + 2 * r, m31);
+        dst.put(index + 2 * r + c, m32);
+        dst.put(index + 2 * r + 2 * c, m33);
+        dst.put(index + 2 * r + 3 * c, m34);
+        dst.put(index + 3 * r, m41);
+        dst.put(index + 3 * r + c, m42);
+        dst.put(index + 3 * r + 2 * c, m43);
+        dst.put(index + 3 * r + 3 * c, m44);
+    }
+
+    @Override
+    public void writeTo(@NonNull FloatBuffer dst, int index, @NonNull Order order) {
+        int r = order == Order.ROW_MAJOR ? 4 : 1;
+        int c = order == Order.ROW_MAJOR ? 1 : 4;
+
+        dst.put(index, m11);
+        dst.put(index + c, m12);
+        dst.put(index + 2 * c, m13);
+        dst.put(index + 3 * c, m14);
+        dst.put(index + r, m21);
+        dst.put(index + r + c, m22);
+        dst.put(index + r + 2 * c, m23);
+        dst.put(index + r + 3 * c, m24);
+        dst.put(index + 2 * r, m31);
+        dst.put(index + 2 * r + c, m32);
+        dst.put(index + 2 * r + 2 * c, m33);
+        dst.put(index + 2 * r + 3 * c, m34);
+        dst.put(index + 3 * r, m41);
+        dst.put(index + 3 * r + c, m42);
+        dst.put(index + 3 * r + 2 * c, m43);
+        dst.put(index + 3 * r + 3 * c, m44);
+    }
+
+    @Override
+    public void writeTo(@NonNull ByteBuffer dst, int offset, @NonNull Order order) {
+        int r = (order == Order.ROW_MAJOR ? 4 : 1) * Float.BYTES;
+        int c = (order == Order.ROW_MAJOR ? 1 : 4) * Float.BYTES;
+
+        dst.putFloat(offset, m11);
+        dst.putFloat(offset + c, m12);
+        dst.putFloat(offset + 2 * c, m13);
+        dst.putFloat(offset + 3 * c, m14);
+        dst.putFloat(offset + r, m21);
+        dst.putFloat(offset + r + c, m22);
+        dst.putFloat(offset + r + 2 * c, m23);
+        dst.putFloat(offset + r + 3 * c, m24);
+        dst.putFloat(offset + 2 * r, m31);
+        dst.putFloat(offset + 2 * r + c, m32);
+        dst.putFloat(offset + 2 * r + 2 * c, m33);
+        dst.putFloat(offset + 2 * r + 3 * c, m34);
+        dst.putFloat(offset + 3 * r, m41);
+        dst.putFloat(offset + 3 * r + c, m42);
+        dst.putFloat(offset + 3 * r + 2 * c, m43);
+        dst.putFloat(offset + 3 * r + 3 * c, m44);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Matrix && equals((Matrix) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return Matrix.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return MNMatrix.toString(this);
+    }
+}
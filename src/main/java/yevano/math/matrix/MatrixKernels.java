@@ -0,0 +1,213 @@
+package yevano.math.matrix;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Primitive kernels which operate directly on row-major backing arrays. Nothing in here allocates,
+ * so callers own every buffer that is passed in.
+ */
+final class MatrixKernels {
+    /** Rows of A (and C) processed per tile. */
+    static final int BLOCK_I = 64;
+    /** Rows of B (columns of A) processed per tile. */
+    static final int BLOCK_K = 128;
+    /** Columns of B (and C) processed per tile; a row segment of this length stays in L1. */
+    static final int BLOCK_J = 256;
+
+    private MatrixKernels() { }
+
+    /**
+     * Accumulates the product of the m×n matrix <code>a</code> and the n×p matrix <code>b</code>
+     * into the m×p matrix <code>c</code>, which is expected to be zeroed by the caller.
+     * <p>
+     * The loops run in i-k-j order over L1/L2 sized tiles. Each entry of C is summed over k in
+     * ascending order no matter how the tiles are laid out, so the result is identical to that of
+     * the naive row-by-column dot product.
+     */
+    static void mul(double[] a, double[] b, double[] c, int m, int n, int p) {
+        mul(a, b, c, n, p, 0, m);
+    }
+
+    /**
+     * Same as {@link #mul(double[], double[], double[], int, int, int)}, but only computes the rows
+     * of C in the range [<code>rowStart</code>, <code>rowEnd</code>). Rows are independent of each
+     * other, so splitting the output this way does not change any result bit.
+     */
+    static void mul(double[] a, double[] b, double[] c, int n, int p, int rowStart, int rowEnd) {
+        for(int i0 = rowStart; i0 < rowEnd; i0 += BLOCK_I) {
+            int i1 = Math.min(i0 + BLOCK_I, rowEnd);
+
+            for(int k0 = 0; k0 < n; k0 += BLOCK_K) {
+                int k1 = Math.min(k0 + BLOCK_K, n);
+
+                for(int j0 = 0; j0 < p; j0 += BLOCK_J) {
+                    int j1 = Math.min(j0 + BLOCK_J, p);
+
+                    for(int i = i0; i < i1; i++) {
+                        int aRow = i * n;
+                        int cRow = i * p;
+
+                        for(int k = k0; k < k1; k++) {
+                            double aik = a[aRow + k];
+                            int bRow = k * p;
+
+                            for(int j = j0; j < j1; j++) {
+                                c[cRow + j] += aik * b[bRow + j];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the products with rows [<code>k0</code>, <code>k1</code>) of B to the first
+     * <code>rows</code> rows of C, where <code>a</code> holds those rows of A (n components each)
+     * and <code>bPanel</code> holds only rows k0 to k1 − 1 of B. Calling this for consecutive
+     * panels of B in order adds every product to C in the same order as the full kernel, so the
+     * result is bit-identical.
+     */
+    static void mulPanel(double[] a, double[] bPanel, double[] c, int n, int p, int rows, int k0, int k1) {
+        for(int i0 = 0; i0 < rows; i0 += BLOCK_I) {
+            int i1 = Math.min(i0 + BLOCK_I, rows);
+
+            for(int j0 = 0; j0 < p; j0 += BLOCK_J) {
+                int j1 = Math.min(j0 + BLOCK_J, p);
+
+                for(int i = i0; i < i1; i++) {
+                    int aRow = i * n;
+                    int cRow = i * p;
+
+                    for(int k = k0; k < k1; k++) {
+                        double aik = a[aRow + k];
+                        int bRow = (k - k0) * p;
+
+                        for(int j = j0; j < j1; j++) {
+                            c[cRow + j] += aik * bPanel[bRow + j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Multiplies two strided views, choosing the loop order from their layout so that the
+     * innermost loop walks contiguous memory whenever possible:
+     * <ul>
+     * <li>if B's rows are contiguous (e.g. AᵀB), i-k-j as in the dense kernel;</li>
+     * <li>if A's rows and B's columns are contiguous (e.g. ABᵀ), i-j-k dot products;</li>
+     * <li>otherwise i-k-j over whatever strides are given.</li>
+     * </ul>
+     * As with the dense kernel, every entry is summed over k in ascending order.
+     */
+    static MNMatrix mul(MatrixView a, MatrixView b) {
+        int m = a.rowCount;
+        int n = a.columnCount;
+        int p = b.columnCount;
+
+        if(n != b.rowCount) {
+            throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        }
+
+        double[] c = new double[m * p];
+
+        if(b.columnStride != 1 && a.columnStride == 1 && b.rowStride == 1) {
+            mulDot(a, b, c, m, n, p);
+        } else {
+            mulStrided(a, b, c, m, n, p);
+        }
+
+        return MNMatrix.wrap(m, p, c);
+    }
+
+    private static void mulStrided(MatrixView a, MatrixView b, double[] c, int m, int n, int p) {
+        double[] ad = a.data, bd = b.data;
+        int ars = a.rowStride, acs = a.columnStride, brs = b.rowStride, bcs = b.columnStride;
+
+        for(int i0 = 0; i0 < m; i0 += BLOCK_I) {
+            int i1 = Math.min(i0 + BLOCK_I, m);
+
+            for(int k0 = 0; k0 < n; k0 += BLOCK_K) {
+                int k1 = Math.min(k0 + BLOCK_K, n);
+
+                for(int j0 = 0; j0 < p; j0 += BLOCK_J) {
+                    int j1 = Math.min(j0 + BLOCK_J, p);
+
+                    for(int i = i0; i < i1; i++) {
+                        int aRow = a.offset + i * ars;
+                        int cRow = i * p;
+
+                        for(int k = k0; k < k1; k++) {
+                            double aik = ad[aRow + k * acs];
+                            int bRow = b.offset + k * brs;
+
+                            for(int j = j0; j < j1; j++) {
+                                c[cRow + j] += aik * bd[bRow + j * bcs];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void mulDot(MatrixView a, MatrixView b, double[] c, int m, int n, int p) {
+        double[] ad = a.data, bd = b.data;
+        int ars = a.rowStride, bcs = b.columnStride;
+
+        for(int i = 0; i < m; i++) {
+            int aRow = a.offset + i * ars;
+
+            for(int j = 0; j < p; j++) {
+                int bColumn = b.offset + j * bcs;
+                double sum = 0;
+                for(int k = 0; k < n; k++) sum += ad[aRow + k] * bd[bColumn + k];
+                c[i * p + j] = sum;
+            }
+        }
+    }
+
+    /**
+     * Splits the rows of C in halves, aligned to {@link #BLOCK_I}, until a single row tile is left,
+     * and runs the serial kernel on each tile.
+     */
+    static final class MulTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] a;
+        private final double[] b;
+        private final double[] c;
+        private final int n;
+        private final int p;
+        private final int rowStart;
+        private final int rowEnd;
+
+        MulTask(double[] a, double[] b, double[] c, int n, int p, int rowStart, int rowEnd) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.n = n;
+            this.p = p;
+            this.rowStart = rowStart;
+            this.rowEnd = rowEnd;
+        }
+
+        @Override
+        protected void compute() {
+            int rows = rowEnd - rowStart;
+
+            if(rows <= BLOCK_I) {
+                mul(a, b, c, n, p, rowStart, rowEnd);
+                return;
+            }
+
+            int mid = rowStart + (rows / 2 + BLOCK_I - 1) / BLOCK_I * BLOCK_I;
+            invokeAll(
+                new MulTask(a, b, c, n, p, rowStart, mid),
+                new MulTask(a, b, c, n, p, mid, rowEnd)
+            );
+        }
+    }
+}
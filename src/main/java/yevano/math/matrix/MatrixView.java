@@ -0,0 +1,163 @@
+package yevano.math.matrix;
+
+import lombok.NonNull;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+import yevano.math.vector.Vector;
+
+/**
+ * A read-only view of a rectangular region of another matrix's storage. Entry (i, j) of the view
+ * is <code>data[offset + i·rowStride + j·columnStride]</code>, which covers transposes (swapped
+ * strides), submatrices (shifted offset) and the parent itself without copying anything.
+ * <p>
+ * {@link Matrix#mul(Matrix)} recognises views and picks a kernel which suits their strides, e.g.
+ * AᵀB is computed from A's storage directly instead of materialising Aᵀ first. A view keeps the
+ * whole parent array reachable for as long as it lives.
+ */
+public class MatrixView implements Matrix {
+    /**
+     * Get a view of an array-backed matrix, or <code>null</code> if <code>matrix</code> does not
+     * expose its storage.
+     */
+    static MatrixView of(@NonNull Matrix matrix) {
+        if(matrix instanceof MatrixView) return (MatrixView) matrix;
+        if(matrix instanceof MNMatrix) return ((MNMatrix) matrix).view();
+        return null;
+    }
+
+    final double[] data;
+    final int offset;
+    final int rowCount;
+    final int columnCount;
+    final int rowStride;
+    final int columnStride;
+
+    MatrixView(double[] data, int offset, int rowCount, int columnCount, int rowStride, int columnStride) {
+        this.data = data;
+        this.offset = offset;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.rowStride = rowStride;
+        this.columnStride = columnStride;
+    }
+
+    @Override
+    public @NonNull double[] getComponents() {
+        double[] result = new double[rowCount * columnCount];
+
+        for(int i = 0; i < rowCount; i++) {
+            int src = offset + i * rowStride;
+            int dst = i * columnCount;
+
+            for(int j = 0; j < columnCount; j++) {
+                result[dst + j] = data[src + j * columnStride];
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public double getComponent(int i) {
+        if(i < 0 || i >= rowCount * columnCount) throw new IndexOutOfBoundsException();
+        return data[offset + i / columnCount * rowStride + i % columnCount * columnStride];
+    }
+
+    @Override
+    public double getComponent(int row, int column) {
+        if(row < 0 || row >= rowCount || column < 0 || column >= columnCount) throw new IndexOutOfBoundsException();
+        return data[offset + row * rowStride + column * columnStride];
+    }
+
+    @Override
+    public int rowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int columnCount() {
+        return columnCount;
+    }
+
+    /**
+     * @return A view of the transpose of this view, sharing its storage.
+     */
+    @Override
+    public MatrixView transpose() {
+        return new MatrixView(data, offset, columnCount, rowCount, columnStride, rowStride);
+    }
+
+    /**
+     * @param row The first row of the region
+     * @param column The first column of the region
+     * @param rowCount
+     * @param columnCount
+     * @return A view of the given region of this view, sharing its storage.
+     */
+    public MatrixView subMatrix(int row, int column, int rowCount, int columnCount) {
+        if(row < 0 || column < 0 || rowCount < 0 || columnCount < 0
+            || row + rowCount > this.rowCount || column + columnCount > this.columnCount)
+        {
+            throw new IllegalArgumentException("Invalid region.");
+        }
+
+        return new MatrixView(data, offset + row * rowStride + column * columnStride,
+            rowCount, columnCount, rowStride, columnStride);
+    }
+
+    @Override
+    public VectorView getRow(int i) {
+        if(i < 0 || i >= rowCount) throw new IllegalArgumentException("Invalid row.");
+        return new VectorView(data, offset + i * rowStride, columnCount, columnStride);
+    }
+
+    @Override
+    public VectorView getColumn(int j) {
+        if(j < 0 || j >= columnCount) throw new IllegalArgumentException("Invalid column.");
+        return new VectorView(data, offset + j * columnStride, rowCount, rowStride);
+    }
+
+    @Override
+    public Vector mul(@NonNull Vector rhs) {
+        Metrics.count(Counter.MATRIX_VECTOR_MUL);
+        if(columnCount != rhs.dimensions()) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        double[] result = new double[rowCount];
+
+        for(int i = 0; i < rowCount; i++) {
+            int row = offset + i * rowStride;
+            double sum = 0;
+            for(int k = 0; k < columnCount; k++) sum += data[row + k * columnStride] * rhs.getComponent(k);
+            result[i] = sum;
+        }
+
+        return new VectorView(result, 0, rowCount, 1);
+    }
+
+    @Override
+    public void mulInto(@NonNull double[] x, @NonNull double[] y) {
+        Metrics.count(Counter.MATRIX_VECTOR_MUL);
+        if(x.length != columnCount || y.length != rowCount) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+
+        for(int i = 0; i < rowCount; i++) {
+            int row = offset + i * rowStride;
+            double sum = 0;
+            for(int k = 0; k < columnCount; k++) sum += data[row + k * columnStride] * x[k];
+            y[i] = sum;
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Matrix && equals((Matrix) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return Matrix.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return MNMatrix.toString(this);
+    }
+}
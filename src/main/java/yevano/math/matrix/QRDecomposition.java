@@ -0,0 +1,156 @@
+package yevano.math.matrix;
+
+import lombok.NonNull;
+import yevano.math.vector.NVector;
+import yevano.math.vector.Vector;
+
+/**
+ * The factorisation A = QR of an m×n matrix A with m ≥ n, computed with Householder reflections.
+ * The working copy is stored column-major, so that the Householder vector of each column and every
+ * column it is applied to are contiguous panels. Q is kept implicitly as the sequence of
+ * reflections below the diagonal, and the diagonal of R is kept separately.
+ */
+public class QRDecomposition {
+    private final int m;
+    private final int n;
+    /** Column-major: entry (i, j) lives at j·m + i. */
+    private final double[] qr;
+    private final double[] rDiagonal;
+
+    /**
+     * Factors a copy of <code>matrix</code>.
+     * @param matrix An m×n matrix A with m ≥ n
+     * @throws IllegalArgumentException if the matrix has fewer rows than columns.
+     */
+    public QRDecomposition(@NonNull Matrix matrix) {
+        int m = matrix.rowCount();
+        int n = matrix.columnCount();
+        if(m < n) throw new IllegalArgumentException("Matrix must have at least as many rows as columns.");
+        double[] a = new double[m * n];
+        double[] rDiagonal = new double[n];
+
+        for(int i = 0; i < m; i++) {
+            for(int j = 0; j < n; j++) a[j * m + i] = matrix.getComponent(i * n + j);
+        }
+
+        for(int k = 0; k < n; k++) {
+            int kCol = k * m;
+            double norm = norm(a, kCol + k, kCol + m);
+
+            if(norm != 0.0) {
+                if(a[kCol + k] < 0) norm = -norm;
+                for(int i = k; i < m; i++) a[kCol + i] /= norm;
+                a[kCol + k] += 1.0;
+
+                for(int j = k + 1; j < n; j++) {
+                    int jCol = j * m;
+                    double s = 0;
+                    for(int i = k; i < m; i++) s += a[kCol + i] * a[jCol + i];
+                    s = -s / a[kCol + k];
+                    for(int i = k; i < m; i++) a[jCol + i] += s * a[kCol + i];
+                }
+            }
+
+            rDiagonal[k] = -norm;
+        }
+
+        this.m = m;
+        this.n = n;
+        this.qr = a;
+        this.rDiagonal = rDiagonal;
+    }
+
+    /**
+     * The Euclidean norm of <code>a[from .. to)</code>. The plain sum of squares is used unless it
+     * overflows or is small enough to have lost entries to underflow, in which case the entries are
+     * rescaled by the largest magnitude first, like LAPACK's <code>dnrm2</code>.
+     */
+    private static double norm(double[] a, int from, int to) {
+        double sum = 0;
+        for(int i = from; i < to; i++) sum += a[i] * a[i];
+        if(sum >= 0x1p-900 && sum <= Double.MAX_VALUE) return Math.sqrt(sum);
+
+        double scale = 0;
+        for(int i = from; i < to; i++) scale = Math.max(scale, Math.abs(a[i]));
+        if(scale == 0.0 || Double.isInfinite(scale)) return scale;
+
+        sum = 0;
+
+        for(int i = from; i < to; i++) {
+            double x = a[i] / scale;
+            sum += x * x;
+        }
+
+        return scale * Math.sqrt(sum);
+    }
+
+    /**
+     * @return Whether R, and therefore A, has full column rank.
+     */
+    public boolean isFullRank() {
+        for(int j = 0; j < n; j++) {
+            if(rDiagonal[j] == 0.0) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return The n×n upper triangular factor R.
+     */
+    public MNMatrix getR() {
+        double[] r = new double[n * n];
+
+        for(int i = 0; i < n; i++) {
+            r[i * n + i] = rDiagonal[i];
+            for(int j = i + 1; j < n; j++) r[i * n + j] = qr[j * m + i];
+        }
+
+        return MNMatrix.wrap(n, n, r);
+    }
+
+    /**
+     * Find the x which minimises ‖Ax - b‖.
+     * @param b An m-vector
+     * @throws IllegalArgumentException if b does not have m components.
+     * @throws ArithmeticException if A is rank deficient.
+     * @return The least-squares solution x, an n-vector.
+     */
+    public Vector solveLeastSquares(@NonNull Vector b) {
+        if(b.dimensions() != m) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        double[] y = b.getComponents();
+        double[] x = new double[n];
+        solveLeastSquares(y, x);
+        return NVector.variadic(x);
+    }
+
+    /**
+     * Like {@link #solveLeastSquares(Vector)}, but without allocating: <code>b</code> is
+     * overwritten with Qᵀb, and the solution is written to <code>x</code>.
+     * @param b An array of m components
+     * @param x An array of n components
+     */
+    public void solveLeastSquares(@NonNull double[] b, @NonNull double[] x) {
+        if(b.length != m || x.length != n) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        if(!isFullRank()) throw new ArithmeticException("Matrix is rank deficient.");
+        double[] a = qr;
+
+        for(int k = 0; k < n; k++) {
+            int kCol = k * m;
+            double s = 0;
+            for(int i = k; i < m; i++) s += a[kCol + i] * b[i];
+            s = -s / a[kCol + k];
+            for(int i = k; i < m; i++) b[i] += s * a[kCol + i];
+        }
+
+        System.arraycopy(b, 0, x, 0, n);
+
+        // Rx = (Qᵀb)[0, n): R is stored by columns, so eliminate column by column.
+        for(int k = n - 1; k >= 0; k--) {
+            int kCol = k * m;
+            x[k] /= rDiagonal[k];
+            double xk = x[k];
+            for(int i = 0; i < k; i++) x[i] -= xk * a[kCol + i];
+        }
+    }
+}
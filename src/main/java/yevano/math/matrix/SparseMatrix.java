@@ -0,0 +1,527 @@
+package yevano.math.matrix;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import lombok.NonNull;
+import yevano.math.Components;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+import yevano.math.vector.Vector;
+
+/**
+ * A sparse m×n matrix in compressed sparse row (CSR) form: the nonzeros of row i are
+ * <code>values[rowPointers[i] .. rowPointers[i + 1])</code>, in ascending column order, with their
+ * columns in <code>columnIndices</code>. Only the nonzeros are stored, so memory is proportional to
+ * their count rather than to m·n.
+ * <p>
+ * Methods inherited from {@link Matrix} which produce dense results, like
+ * {@link #getComponents()} or {@link #add(Matrix)}, still work, but allocate all m·n entries.
+ */
+public class SparseMatrix implements Matrix {
+    /**
+     * Products with fewer nonzeros than this are computed serially by
+     * {@link #mulParallel(Vector, ForkJoinPool)}.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    public static Builder builder(int rowCount, int columnCount) {
+        return new Builder(rowCount, columnCount);
+    }
+
+    /**
+     * Collects (row, column, value) triplets in any order. Entries given more than once for the
+     * same position are summed.
+     */
+    public static class Builder {
+        private final int rowCount;
+        private final int columnCount;
+        private int size;
+        private int[] rows = new int[16];
+        private int[] columns = new int[16];
+        private double[] values = new double[16];
+
+        private Builder(int rowCount, int columnCount) {
+            if(rowCount < 0 || columnCount < 0) throw new IllegalArgumentException("Dimensions must not be negative.");
+            this.rowCount = rowCount;
+            this.columnCount = columnCount;
+        }
+
+        public Builder add(int row, int column, double value) {
+            if(row < 0 || row >= rowCount || column < 0 || column >= columnCount) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            if(size == rows.length) {
+                int capacity = size * 2;
+                rows = Arrays.copyOf(rows, capacity);
+                columns = Arrays.copyOf(columns, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+
+            rows[size] = row;
+            columns[size] = column;
+            values[size] = value;
+            size++;
+            return this;
+        }
+
+        /**
+         * Sorts the triplets into CSR order with two stable counting sorts (by column, then by
+         * row), which takes O(nonzeros + m + n) time, and merges duplicates.
+         */
+        public SparseMatrix build() {
+            int nnz = size;
+            int[] byColumn = new int[nnz];
+            int[] counts = new int[Math.max(rowCount, columnCount) + 1];
+
+            for(int e = 0; e < nnz; e++) counts[columns[e] + 1]++;
+            for(int j = 0; j < columnCount; j++) counts[j + 1] += counts[j];
+            for(int e = 0; e < nnz; e++) byColumn[counts[columns[e]]++] = e;
+
+            int[] rowPointers = new int[rowCount + 1];
+            for(int e = 0; e < nnz; e++) rowPointers[rows[e] + 1]++;
+            for(int i = 0; i < rowCount; i++) rowPointers[i + 1] += rowPointers[i];
+
+            int[] next = Arrays.copyOf(rowPointers, rowCount);
+            int[] columnIndices = new int[nnz];
+            double[] sortedValues = new double[nnz];
+
+            for(int t = 0; t < nnz; t++) {
+                int e = byColumn[t];
+                int at = next[rows[e]]++;
+                columnIndices[at] = columns[e];
+                sortedValues[at] = values[e];
+            }
+
+            // Merge duplicates within each row, compacting in place.
+            int out = 0;
+            int start = 0;
+
+            for(int i = 0; i < rowCount; i++) {
+                int end = rowPointers[i + 1];
+                rowPointers[i] = out;
+
+                for(int e = start; e < end; e++) {
+                    if(out > rowPointers[i] && columnIndices[out - 1] == columnIndices[e]) {
+                        sortedValues[out - 1] += sortedValues[e];
+                    } else {
+                        columnIndices[out] = columnIndices[e];
+                        sortedValues[out] = sortedValues[e];
+                        out++;
+                    }
+                }
+
+                start = end;
+            }
+
+            rowPointers[rowCount] = out;
+
+            return new SparseMatrix(rowCount, columnCount, rowPointers,
+                Arrays.copyOf(columnIndices, out), Arrays.copyOf(sortedValues, out));
+        }
+    }
+
+    private final int rowCount;
+    private final int columnCount;
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final double[] values;
+
+    private SparseMatrix(int rowCount, int columnCount, int[] rowPointers, int[] columnIndices, double[] values) {
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+    }
+
+    @Override
+    public int rowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int columnCount() {
+        return columnCount;
+    }
+
+    /**
+     * @return The number of stored entries.
+     */
+    public int nonZeroCount() {
+        return values.length;
+    }
+
+    @Override
+    public double getComponent(int i) {
+        if(i < 0 || i >= denseSize()) throw new IndexOutOfBoundsException();
+        return getComponent(i / columnCount, i % columnCount);
+    }
+
+    @Override
+    public double getComponent(int row, int column) {
+        if(row < 0 || row >= rowCount || column < 0 || column >= columnCount) throw new IndexOutOfBoundsException();
+        int at = Arrays.binarySearch(columnIndices, rowPointers[row], rowPointers[row + 1], column);
+        return at < 0 ? 0.0 : values[at];
+    }
+
+    @Override
+    public @NonNull double[] getComponents() {
+        double[] result = new double[denseSize()];
+
+        for(int i = 0; i < rowCount; i++) {
+            for(int e = rowPointers[i]; e < rowPointers[i + 1]; e++) {
+                result[i * columnCount + columnIndices[e]] = values[e];
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes y = Ax without allocating.
+     * @param x An array of n components
+     * @param y An array of m components, overwritten with the product
+     */
+    @Override
+    public void mulInto(@NonNull double[] x, @NonNull double[] y) {
+        Metrics.count(Counter.MATRIX_VECTOR_MUL);
+        if(x.length != columnCount || y.length != rowCount) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        mulRows(x, y, 0, rowCount);
+    }
+
+    @Override
+    public Vector mul(@NonNull Vector rhs) {
+        Metrics.count(Counter.MATRIX_VECTOR_MUL);
+        if(rhs.dimensions() != columnCount) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        double[] y = new double[rowCount];
+        mulRows(rhs.getComponents(), y, 0, rowCount);
+        return new VectorView(y, 0, rowCount, 1);
+    }
+
+    /**
+     * Like {@link #mul(Vector)}, but splits the rows into chunks of roughly equal nonzero count on
+     * the common pool.
+     */
+    public Vector mulParallel(@NonNull Vector rhs) {
+        return mulParallel(rhs, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like {@link #mul(Vector)}, but splits the rows into chunks of roughly equal nonzero count on
+     * <code>pool</code>. Matrices with fewer than {@link #PARALLEL_THRESHOLD} nonzeros are
+     * multiplied on the calling thread. Each row is summed in the same order either way, so the
+     * result is bit-identical to the serial product.
+     * @param rhs
+     * @param pool
+     * @return Ax
+     */
+    public Vector mulParallel(@NonNull Vector rhs, @NonNull ForkJoinPool pool) {
+        if(rhs.dimensions() != columnCount) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        double[] y = new double[rowCount];
+        mulIntoParallel(rhs.getComponents(), y, pool);
+        return new VectorView(y, 0, rowCount, 1);
+    }
+
+    /**
+     * The allocation-free form of {@link #mulParallel(Vector, ForkJoinPool)}.
+     */
+    public void mulIntoParallel(@NonNull double[] x, @NonNull double[] y, @NonNull ForkJoinPool pool) {
+        Metrics.count(Counter.MATRIX_VECTOR_MUL);
+        if(x.length != columnCount || y.length != rowCount) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+
+        if(values.length < PARALLEL_THRESHOLD) {
+            mulRows(x, y, 0, rowCount);
+        } else {
+            pool.invoke(new MulTask(x, y, 0, rowCount));
+        }
+    }
+
+    /**
+     * Given this sparse m×n matrix A and a dense n×p matrix B, get the dense m×p product AB. Each
+     * nonzero A[i, k] adds a multiple of row k of B to row i of the result. If B is sparse too,
+     * the product is sparse, as by {@link #mul(SparseMatrix)}.
+     * @throws IllegalArgumentException if the dense product would have more than 2³¹ − 1 entries.
+     */
+    @Override
+    public Matrix mul(@NonNull Matrix rhs) {
+        if(rhs instanceof SparseMatrix) return mul((SparseMatrix) rhs);
+        Metrics.count(Counter.MATRIX_MUL_SPARSE);
+        int p = rhs.columnCount();
+        if(columnCount != rhs.rowCount()) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        int size;
+
+        try {
+            size = Math.multiplyExact(rowCount, p);
+        } catch(ArithmeticException e) {
+            throw new IllegalArgumentException("Matrix is too large.", e);
+        }
+
+        double[] b = rhs.getComponents();
+        double[] c = new double[size];
+
+        for(int i = 0; i < rowCount; i++) {
+            int cRow = i * p;
+
+            for(int e = rowPointers[i]; e < rowPointers[i + 1]; e++) {
+                double v = values[e];
+                int bRow = columnIndices[e] * p;
+                for(int j = 0; j < p; j++) c[cRow + j] += v * b[bRow + j];
+            }
+        }
+
+        return MNMatrix.wrap(rowCount, p, c);
+    }
+
+    /**
+     * Given this sparse m×n matrix A and a sparse n×p matrix B, get the sparse m×p product AB,
+     * row by row (Gustavson): the rows of B selected by the nonzeros of row i of A are scattered
+     * into a dense accumulator of p entries, and the columns they touched are gathered back in
+     * ascending order. This takes O(m + p + flops) time and never allocates anything m×p.
+     * Entries which cancel to zero are kept, as {@link Builder} keeps them.
+     */
+    public SparseMatrix mul(@NonNull SparseMatrix rhs) {
+        Metrics.count(Counter.MATRIX_MUL_SPARSE);
+        if(columnCount != rhs.rowCount) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        int p = rhs.columnCount;
+        int[] bPointers = rhs.rowPointers;
+        int[] bColumns = rhs.columnIndices;
+        double[] bValues = rhs.values;
+
+        double[] accumulator = new double[p];
+        int[] lastRow = new int[p];
+        Arrays.fill(lastRow, -1);
+        int[] touched = new int[p];
+
+        int[] pointers = new int[rowCount + 1];
+        int capacity = Math.max(16, Math.max(values.length, bValues.length));
+        int[] columns = new int[capacity];
+        double[] products = new double[capacity];
+        int out = 0;
+
+        for(int i = 0; i < rowCount; i++) {
+            int count = 0;
+
+            for(int e = rowPointers[i]; e < rowPointers[i + 1]; e++) {
+                double v = values[e];
+                int k = columnIndices[e];
+
+                for(int f = bPointers[k]; f < bPointers[k + 1]; f++) {
+                    int j = bColumns[f];
+
+                    if(lastRow[j] != i) {
+                        lastRow[j] = i;
+                        accumulator[j] = 0.0;
+                        touched[count++] = j;
+                    }
+
+                    accumulator[j] += v * bValues[f];
+                }
+            }
+
+            Arrays.sort(touched, 0, count);
+
+            if(count > capacity - out) {
+                long grown = Math.max(2L * capacity, (long) out + count);
+                if(grown > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Product has too many nonzeros.");
+                capacity = (int) grown;
+                columns = Arrays.copyOf(columns, capacity);
+                products = Arrays.copyOf(products, capacity);
+            }
+
+            for(int t = 0; t < count; t++) {
+                int j = touched[t];
+                columns[out] = j;
+                products[out] = accumulator[j];
+                out++;
+            }
+
+            pointers[i + 1] = out;
+        }
+
+        return new SparseMatrix(rowCount, p, pointers, Arrays.copyOf(columns, out), Arrays.copyOf(products, out));
+    }
+
+    /**
+     * Computes y = Aᵀx without forming Aᵀ, by scattering each row of A into y.
+     * @param x An array of m components
+     * @param y An array of n components, overwritten with the product
+     */
+    public void mulTransposedInto(@NonNull double[] x, @NonNull double[] y) {
+        if(x.length != rowCount || y.length != columnCount) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        Arrays.fill(y, 0.0);
+
+        for(int i = 0; i < rowCount; i++) {
+            double xi = x[i];
+            if(xi == 0.0) continue;
+            for(int e = rowPointers[i]; e < rowPointers[i + 1]; e++) y[columnIndices[e]] += values[e] * xi;
+        }
+    }
+
+    /**
+     * @param rhs An m-vector x
+     * @return Aᵀx
+     */
+    public Vector mulTransposed(@NonNull Vector rhs) {
+        if(rhs.dimensions() != rowCount) throw new IllegalArgumentException("Matrix dimensions not compatible.");
+        double[] y = new double[columnCount];
+        mulTransposedInto(rhs.getComponents(), y);
+        return new VectorView(y, 0, columnCount, 1);
+    }
+
+    /**
+     * Get Aᵀ in CSR form. Its arrays are exactly the compressed sparse column (CSC) form of A, so
+     * this doubles as the CSR to CSC conversion.
+     * @return The n×m sparse matrix Aᵀ.
+     */
+    @Override
+    public SparseMatrix transpose() {
+        int nnz = values.length;
+        int[] pointers = new int[columnCount + 1];
+        for(int e = 0; e < nnz; e++) pointers[columnIndices[e] + 1]++;
+        for(int j = 0; j < columnCount; j++) pointers[j + 1] += pointers[j];
+
+        int[] next = Arrays.copyOf(pointers, columnCount);
+        int[] rowIndices = new int[nnz];
+        double[] transposed = new double[nnz];
+
+        for(int i = 0; i < rowCount; i++) {
+            for(int e = rowPointers[i]; e < rowPointers[i + 1]; e++) {
+                int at = next[columnIndices[e]]++;
+                rowIndices[at] = i;
+                transposed[at] = values[e];
+            }
+        }
+
+        return new SparseMatrix(columnCount, rowCount, pointers, rowIndices, transposed);
+    }
+
+    private void mulRows(double[] x, double[] y, int rowStart, int rowEnd) {
+        int[] pointers = rowPointers;
+        int[] columns = columnIndices;
+        double[] vs = values;
+
+        for(int i = rowStart; i < rowEnd; i++) {
+            double sum = 0;
+            for(int e = pointers[i]; e < pointers[i + 1]; e++) sum += vs[e] * x[columns[e]];
+            y[i] = sum;
+        }
+    }
+
+    /**
+     * Splits a row range at the row which halves its nonzeros, until a chunk holds no more than
+     * {@link SparseMatrix#PARALLEL_THRESHOLD} of them.
+     */
+    private final class MulTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] x;
+        private final double[] y;
+        private final int rowStart;
+        private final int rowEnd;
+
+        MulTask(double[] x, double[] y, int rowStart, int rowEnd) {
+            this.x = x;
+            this.y = y;
+            this.rowStart = rowStart;
+            this.rowEnd = rowEnd;
+        }
+
+        @Override
+        protected void compute() {
+            int nnz = rowPointers[rowEnd] - rowPointers[rowStart];
+
+            if(nnz <= PARALLEL_THRESHOLD || rowEnd - rowStart < 2) {
+                mulRows(x, y, rowStart, rowEnd);
+                return;
+            }
+
+            int half = rowPointers[rowStart] + nnz / 2;
+            int mid = Arrays.binarySearch(rowPointers, rowStart, rowEnd + 1, half);
+            if(mid < 0) mid = -mid - 1;
+            mid = Math.max(rowStart + 1, Math.min(mid, rowEnd - 1));
+
+            invokeAll(new MulTask(x, y, rowStart, mid), new MulTask(x, y, mid, rowEnd));
+        }
+    }
+
+    /**
+     * @return m·n, the length of the dense row-major form.
+     * @throws UnsupportedOperationException if m·n does not fit in an <code>int</code>.
+     */
+    private int denseSize() {
+        long mn = (long) rowCount * columnCount;
+        if(mn > Integer.MAX_VALUE) throw new UnsupportedOperationException("Matrix is too large for dense access.");
+        return (int) mn;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(obj instanceof SparseMatrix) return equals((SparseMatrix) obj);
+        return obj instanceof Matrix && equals((Matrix) obj);
+    }
+
+    /**
+     * Compares the stored entries of both matrices row by row, treating an entry stored in only
+     * one of them as compared against 0.0, so explicitly stored zeros do not matter.
+     */
+    public boolean equals(@NonNull SparseMatrix rhs) {
+        if(rowCount != rhs.rowCount || columnCount != rhs.columnCount) return false;
+
+        for(int i = 0; i < rowCount; i++) {
+            int e = rowPointers[i], end = rowPointers[i + 1];
+            int f = rhs.rowPointers[i], rhsEnd = rhs.rowPointers[i + 1];
+
+            while(e < end || f < rhsEnd) {
+                int j = e < end ? columnIndices[e] : columnCount;
+                int k = f < rhsEnd ? rhs.columnIndices[f] : columnCount;
+                double a = j <= k ? values[e] : 0.0;
+                double b = k <= j ? rhs.values[f] : 0.0;
+                if(!Components.equal(a, b)) return false;
+                if(j <= k) e++;
+                if(k <= j) f++;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Equal to {@link Matrix#hashCode(Matrix)}, but computed from the nonzeros alone: each run of
+     * z zeros multiplies the polynomial hash by 31<sup>z</sup>, which takes O(log z) steps.
+     */
+    @Override
+    public int hashCode() {
+        int h = 31 * rowCount + columnCount;
+        long next = 0;
+
+        for(int i = 0; i < rowCount; i++) {
+            for(int e = rowPointers[i]; e < rowPointers[i + 1]; e++) {
+                long at = (long) i * columnCount + columnIndices[e];
+                h = h * pow31(at - next) * 31 + Components.hash(values[e]);
+                next = at + 1;
+            }
+        }
+
+        return h * pow31((long) rowCount * columnCount - next);
+    }
+
+    private static int pow31(long k) {
+        int result = 1;
+        int base = 31;
+
+        for(; k > 0; k >>= 1) {
+            if((k & 1) != 0) result *= base;
+            base *= base;
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SparseMatrix(%s×%s, %s nonzeros)", rowCount, columnCount, values.length);
+    }
+}
@@ -0,0 +1,91 @@
+package yevano.math.matrix;
+
+import lombok.NonNull;
+import lombok.val;
+import yevano.math.vector.Vector;
+
+/**
+ * A read-only {@link Vector} over strided storage, such as one row or column of a matrix. Like
+ * {@link MatrixView}, it shares the storage of the matrix it was taken from.
+ */
+public class VectorView implements Vector {
+    private final double[] data;
+    private final int offset;
+    private final int dimensions;
+    private final int stride;
+
+    VectorView(double[] data, int offset, int dimensions, int stride) {
+        this.data = data;
+        this.offset = offset;
+        this.dimensions = dimensions;
+        this.stride = stride;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public double getComponent(int i) {
+        if(i < 0 || i >= dimensions) throw new IndexOutOfBoundsException();
+        return data[offset + i * stride];
+    }
+
+    @Override
+    public @NonNull double[] getComponents() {
+        double[] result = new double[dimensions];
+        for(int i = 0; i < dimensions; i++) result[i] = data[offset + i * stride];
+        return result;
+    }
+
+    @Override
+    public double dot(@NonNull Vector rhs) {
+        if(!(rhs instanceof VectorView)) return Vector.super.dot(rhs);
+        val v = (VectorView) rhs;
+        if(dimensions != v.dimensions) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        double sum = 0;
+
+        for(int i = 0; i < dimensions; i++) {
+            sum += data[offset + i * stride] * v.data[v.offset + i * v.stride];
+        }
+
+        return sum;
+    }
+
+    @Override
+    public double length2() {
+        double sum = 0;
+
+        for(int i = 0; i < dimensions; i++) {
+            double x = data[offset + i * stride];
+            sum += x * x;
+        }
+
+        return sum;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Vector && equals((Vector) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return Vector.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        val sb = new StringBuilder();
+        sb.append("[");
+
+        for(int i = 0; i < dimensions; i++) {
+            if(i > 0) sb.append(", ");
+            sb.append(Double.toString(data[offset + i * stride]));
+        }
+
+        sb.append("]");
+        return sb.toString();
+    }
+}
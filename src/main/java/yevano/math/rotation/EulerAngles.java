@@ -1,7 +1,10 @@
 package yevano.math.rotation;
 
+import lombok.NonNull;
 import lombok.val;
+import yevano.math.Components;
 import yevano.math.Convert;
+import yevano.math.Trig;
 import yevano.math.matrix.Matrix3;
 import yevano.math.vector.Vector3;
 
@@ -20,6 +23,36 @@ public class EulerAngles {
         );
     }
 
+    /**
+     * Converts the angles at every index i in [<code>from</code>, <code>to</code>) as
+     * {@link #toRotationQuaternion()} does, writing the result to <code>dest</code> at the same
+     * index.
+     */
+    public static void toRotationQuaternions(@NonNull double[] pitch, @NonNull double[] yaw, @NonNull double[] roll,
+            @NonNull QuaternionArray dest, int from, int to) {
+        toRotationQuaternions(pitch, yaw, roll, dest, from, to, Trig.EXACT);
+    }
+
+    public static void toRotationQuaternions(@NonNull double[] pitch, @NonNull double[] yaw, @NonNull double[] roll,
+            @NonNull QuaternionArray dest, int from, int to, @NonNull Trig trig) {
+        if(from < 0 || from > to || to > pitch.length || to > yaw.length || to > roll.length || to > dest.size()) {
+            throw new IndexOutOfBoundsException("Invalid range.");
+        }
+
+        for(int i = from; i < to; i++) {
+            double hx = pitch[i] / 2, hy = yaw[i] / 2, hz = roll[i] / 2;
+            double cx = trig.cos(hx), sx = trig.sin(hx);
+            double cy = trig.cos(hy), sy = trig.sin(hy);
+            double cz = trig.cos(hz), sz = trig.sin(hz);
+
+            dest.set(i,
+                cx * cy * cz + sx * sy * sz,
+                sx * cy * cz - cx * sy * sz,
+                cx * sy * cz + sx * cy * sz,
+                cx * cy * sz - sx * sy * cz);
+        }
+    }
+
     private final double pitch;
     private final double yaw;
     private final double roll;
@@ -42,26 +75,73 @@ public class EulerAngles {
         return roll;
     }
 
+    /**
+     * The rotation matrix 𝑅ₓ(pitch)·𝑅ᵧ(yaw)·𝑅𝓏(roll), i.e. the three rotations applied in the
+     * reverse order of {@link #toRotationMatrix()}, written out in closed form.
+     */
     public Matrix3 transform() {
-        return Matrix3.rotateX(pitch).mul(Matrix3.rotateY(yaw)).mul(Matrix3.rotateZ(roll));
+        double cx = Math.cos(pitch), sx = Math.sin(pitch);
+        double cy = Math.cos(yaw), sy = Math.sin(yaw);
+        double cz = Math.cos(roll), sz = Math.sin(roll);
+
+        return Matrix3.of(
+            cy * cz, -cy * sz, sy,
+            sx * sy * cz + cx * sz, cx * cz - sx * sy * sz, -sx * cy,
+            sx * sz - cx * sy * cz, cx * sy * sz + sx * cz, cx * cy
+        );
     }
 
+    /**
+     * The unit quaternion for a rotation by pitch about the 𝑥-axis, then by yaw about the 𝑦-axis,
+     * then by roll about the 𝑧-axis, i.e. 𝒒𝓏𝒒ᵧ𝒒ₓ, expanded into products of the half-angle sines
+     * and cosines.
+     */
     public Quaternion toRotationQuaternion() {
-        Quaternion pitchRotation = Quaternion.fromAxisAngle(pitch, Vector3.X_AXIS);
-        Quaternion yawRotation   = Quaternion.fromAxisAngle(yaw, Vector3.Y_AXIS);
-        Quaternion rollRotation  = Quaternion.fromAxisAngle(roll, Vector3.Z_AXIS);
-        return rollRotation.mul(yawRotation).mul(pitchRotation);
+        return toRotationQuaternion(Trig.EXACT);
     }
 
+    public Quaternion toRotationQuaternion(@NonNull Trig trig) {
+        double hx = pitch / 2, hy = yaw / 2, hz = roll / 2;
+        double cx = trig.cos(hx), sx = trig.sin(hx);
+        double cy = trig.cos(hy), sy = trig.sin(hy);
+        double cz = trig.cos(hz), sz = trig.sin(hz);
+
+        return Quaternion.of(
+            cx * cy * cz + sx * sy * sz,
+            sx * cy * cz - cx * sy * sz,
+            cx * sy * cz + sx * cy * sz,
+            cx * cy * sz - sx * sy * cz);
+    }
+
+    /**
+     * The 𝑧-axis rotated by {@link #toRotationQuaternion()}, i.e. the last column of
+     * {@link #toRotationMatrix()}.
+     */
     public Vector3 toDirectionVector() {
-        return toRotationQuaternion().conjugate(Vector3.Z_AXIS);
+        double cx = Math.cos(pitch), sx = Math.sin(pitch);
+        double cy = Math.cos(yaw), sy = Math.sin(yaw);
+        double cz = Math.cos(roll), sz = Math.sin(roll);
+        return Vector3.of(cz * sy * cx + sz * sx, sz * sy * cx - cz * sx, cy * cx);
     }
 
+    /**
+     * The rotation matrix 𝑅𝓏(roll)·𝑅ᵧ(yaw)·𝑅ₓ(pitch), the same rotation as
+     * {@link #toRotationQuaternion()}, written out in closed form.
+     */
     public Matrix3 toRotationMatrix() {
-        Matrix3 pitchRotation = Matrix3.rotateX(pitch);
-        Matrix3 yawRotation   = Matrix3.rotateY(yaw);
-        Matrix3 rollRotation  = Matrix3.rotateZ(roll);
-        return rollRotation.mul(yawRotation).mul(pitchRotation);
+        return toRotationMatrix(Trig.EXACT);
+    }
+
+    public Matrix3 toRotationMatrix(@NonNull Trig trig) {
+        double cx = trig.cos(pitch), sx = trig.sin(pitch);
+        double cy = trig.cos(yaw), sy = trig.sin(yaw);
+        double cz = trig.cos(roll), sz = trig.sin(roll);
+
+        return Matrix3.of(
+            cz * cy, cz * sy * sx - sz * cx, cz * sy * cx + sz * sx,
+            sz * cy, sz * sy * sx + cz * cx, sz * sy * cx - cz * sx,
+            -sy, cy * sx, cy * cx
+        );
     }
 
     @Override
@@ -73,9 +153,17 @@ public class EulerAngles {
     public boolean equals(Object obj) {
         if(obj instanceof EulerAngles) {
             val rhs = (EulerAngles) obj;
-            return pitch == rhs.pitch && yaw == rhs.yaw && roll == rhs.roll;
+            return Components.equal(pitch, rhs.pitch) && Components.equal(yaw, rhs.yaw) && Components.equal(roll, rhs.roll);
         }
 
         return false;
     }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        h = 31 * h + Components.hash(pitch);
+        h = 31 * h + Components.hash(yaw);
+        return 31 * h + Components.hash(roll);
+    }
 }
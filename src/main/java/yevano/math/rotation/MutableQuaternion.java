@@ -0,0 +1,188 @@
+package yevano.math.rotation;
+
+import lombok.NonNull;
+import yevano.math.Components;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+import yevano.math.vector.MutableVector3;
+
+/**
+ * A quaternion whose components can be changed in place. The <code>*Local</code> methods
+ * overwrite this quaternion with their result and return it, so hot loops can compose rotations
+ * without allocating a {@link Quaternion} per step.
+ */
+public class MutableQuaternion {
+    private double a;
+    private double b;
+    private double c;
+    private double d;
+
+    /**
+     * Constructs the real number 1, i.e. the identity rotation.
+     */
+    public MutableQuaternion() {
+        this(1, 0, 0, 0);
+    }
+
+    /**
+     * Constructs the quaternion 𝑎 + 𝑏𝒊 + 𝑐𝒋 + 𝑑𝒌.
+     * @param a Real number 𝑎
+     * @param b Real number 𝑏
+     * @param c Real number 𝑐
+     * @param d Real number 𝑑
+     */
+    public MutableQuaternion(double a, double b, double c, double d) {
+        this.a = a;
+        this.b = b;
+        this.c = c;
+        this.d = d;
+    }
+
+    public MutableQuaternion(@NonNull Quaternion q) {
+        this(q.a(), q.b(), q.c(), q.d());
+    }
+
+    public double a() {
+        return a;
+    }
+
+    public double b() {
+        return b;
+    }
+
+    public double c() {
+        return c;
+    }
+
+    public double d() {
+        return d;
+    }
+
+    public MutableQuaternion set(double a, double b, double c, double d) {
+        this.a = a;
+        this.b = b;
+        this.c = c;
+        this.d = d;
+        return this;
+    }
+
+    public MutableQuaternion set(@NonNull Quaternion q) {
+        return set(q.a(), q.b(), q.c(), q.d());
+    }
+
+    public MutableQuaternion set(@NonNull MutableQuaternion q) {
+        return set(q.a, q.b, q.c, q.d);
+    }
+
+    /**
+     * Replaces 𝒑 = {@code this} with the Hamilton product 𝒑𝒒, where 𝒒 = 𝑎 + 𝑏𝒊 + 𝑐𝒋 + 𝑑𝒌.
+     */
+    public MutableQuaternion mulLocal(double a2, double b2, double c2, double d2) {
+        Metrics.count(Counter.QUATERNION_MUL);
+        double a1 = this.a;
+        double b1 = this.b;
+        double c1 = this.c;
+        double d1 = this.d;
+
+        return set(
+            a1 * a2 - b1 * b2 - c1 * c2 - d1 * d2,
+            a1 * b2 + b1 * a2 + c1 * d2 - d1 * c2,
+            a1 * c2 - b1 * d2 + c1 * a2 + d1 * b2,
+            a1 * d2 + b1 * c2 - c1 * b2 + d1 * a2);
+    }
+
+    public MutableQuaternion mulLocal(@NonNull Quaternion rhs) {
+        return mulLocal(rhs.a(), rhs.b(), rhs.c(), rhs.d());
+    }
+
+    public MutableQuaternion mulLocal(@NonNull MutableQuaternion rhs) {
+        return mulLocal(rhs.a, rhs.b, rhs.c, rhs.d);
+    }
+
+    /**
+     * Replaces 𝒑 = {@code this} with the Hamilton product 𝒒𝒑, i.e. applies the rotation 𝒒 after
+     * the rotation 𝒑.
+     */
+    public MutableQuaternion premulLocal(@NonNull Quaternion lhs) {
+        Metrics.count(Counter.QUATERNION_MUL);
+        double a1 = lhs.a();
+        double b1 = lhs.b();
+        double c1 = lhs.c();
+        double d1 = lhs.d();
+        double a2 = this.a;
+        double b2 = this.b;
+        double c2 = this.c;
+        double d2 = this.d;
+
+        return set(
+            a1 * a2 - b1 * b2 - c1 * c2 - d1 * d2,
+            a1 * b2 + b1 * a2 + c1 * d2 - d1 * c2,
+            a1 * c2 - b1 * d2 + c1 * a2 + d1 * b2,
+            a1 * d2 + b1 * c2 - c1 * b2 + d1 * a2);
+    }
+
+    public MutableQuaternion mulLocal(double n) {
+        return set(a * n, b * n, c * n, d * n);
+    }
+
+    public MutableQuaternion conjLocal() {
+        return set(a, -b, -c, -d);
+    }
+
+    public MutableQuaternion invLocal() {
+        double n = normSquared();
+        return set(a / n, -b / n, -c / n, -d / n);
+    }
+
+    public MutableQuaternion unitLocal() {
+        double n = norm();
+        return set(a / n, b / n, c / n, d / n);
+    }
+
+    public double normSquared() {
+        return a * a + b * b + c * c + d * d;
+    }
+
+    public double norm() {
+        return Math.sqrt(normSquared());
+    }
+
+    /**
+     * Rotates <code>v</code> in place by conjugating it with this quaternion.
+     * @param v A 3-vector 𝑣
+     * @return <code>v</code>
+     */
+    public MutableVector3 rotate(@NonNull MutableVector3 v) {
+        return v.rotateLocal(this);
+    }
+
+    public Quaternion toQuaternion() {
+        return Quaternion.of(a, b, c, d);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(!MutableQuaternion.class.isInstance(obj)) return false;
+        MutableQuaternion q = (MutableQuaternion) obj;
+        return Components.equal(a, q.a) && Components.equal(b, q.b)
+            && Components.equal(c, q.c) && Components.equal(d, q.d);
+    }
+
+    /**
+     * Changes whenever the components do, so a mutable quaternion must not be changed while it is
+     * a key in a hash-based collection.
+     */
+    @Override
+    public int hashCode() {
+        int h = 1;
+        h = 31 * h + Components.hash(a);
+        h = 31 * h + Components.hash(b);
+        h = 31 * h + Components.hash(c);
+        return 31 * h + Components.hash(d);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s + %si + %sj + %sk", a, b, c, d);
+    }
+}
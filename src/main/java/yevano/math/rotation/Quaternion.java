@@ -1,8 +1,18 @@
 package yevano.math.rotation;
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
 import lombok.NonNull;
 import lombok.val;
+import yevano.math.Components;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+import yevano.math.Trig;
 import yevano.math.matrix.Matrix3;
+import yevano.math.matrix.Matrix4;
+import yevano.math.vector.MutableVector3;
 import yevano.math.vector.Vector3;
 
 /**
@@ -21,6 +31,12 @@ public class Quaternion {
     /** The basic quaternion 𝒌. */
     public static final Quaternion K    = Quaternion.of(0, 0, 0, 1);
 
+    /**
+     * Above this |𝒑·𝒒|, i.e. below about 0.5° between the rotations, slerp is replaced by nlerp,
+     * since sin θ loses precision and the two agree anyway.
+     */
+    static final double SLERP_NLERP_DOT = 0.99999;
+
     /**
      * This static constructor creates a {@link Quaternion} by applying each component explicitly.
      * @param a The real part 𝑎
@@ -60,9 +76,94 @@ public class Quaternion {
      * @return The quaternion which encodes rotation with angle θ about the axis 𝑣.
      */
     public static Quaternion fromAxisAngle(double t, @NonNull Vector3 axis) {
+        return fromAxisAngle(t, axis, Trig.EXACT);
+    }
+
+    public static Quaternion fromAxisAngle(double t, @NonNull Vector3 axis, @NonNull Trig trig) {
         axis = axis.normalized();
         double ht = t / 2;
-        return Quaternion.of(Math.cos(ht), axis.mul(Math.sin(ht)));
+        return Quaternion.of(trig.cos(ht), axis.mul(trig.sin(ht)));
+    }
+
+    /**
+     * Converts a rotation matrix into the unit quaternion which performs the same rotation, using
+     * Shepperd's method: the component with the largest magnitude is recovered from the diagonal
+     * with a single square root, and the other three are derived from it, so the result stays
+     * accurate for every rotation angle.
+     * @param m An orthonormal 3×3 matrix with determinant 1
+     * @return The unit quaternion 𝒒 with {@code q.toRotationMatrix()} equal to 𝑚.
+     */
+    public static Quaternion fromRotationMatrix(@NonNull Matrix3 m) {
+        double m11 = m.getComponent(0), m12 = m.getComponent(1), m13 = m.getComponent(2);
+        double m21 = m.getComponent(3), m22 = m.getComponent(4), m23 = m.getComponent(5);
+        double m31 = m.getComponent(6), m32 = m.getComponent(7), m33 = m.getComponent(8);
+        double trace = m11 + m22 + m33;
+
+        if(trace >= m11 && trace >= m22 && trace >= m33) {
+            double r = Math.sqrt(1 + trace);
+            double s = 0.5 / r;
+            return Quaternion.of(0.5 * r, (m32 - m23) * s, (m13 - m31) * s, (m21 - m12) * s);
+        } else if(m11 >= m22 && m11 >= m33) {
+            double r = Math.sqrt(1 + m11 - m22 - m33);
+            double s = 0.5 / r;
+            return Quaternion.of((m32 - m23) * s, 0.5 * r, (m12 + m21) * s, (m13 + m31) * s);
+        } else if(m22 >= m33) {
+            double r = Math.sqrt(1 - m11 + m22 - m33);
+            double s = 0.5 / r;
+            return Quaternion.of((m13 - m31) * s, (m12 + m21) * s, 0.5 * r, (m23 + m32) * s);
+        } else {
+            double r = Math.sqrt(1 - m11 - m22 + m33);
+            double s = 0.5 / r;
+            return Quaternion.of((m21 - m12) * s, (m13 + m31) * s, (m23 + m32) * s, 0.5 * r);
+        }
+    }
+
+    /**
+     * Reads the components 𝑎, 𝑏, 𝑐, 𝑑 starting at absolute index <code>index</code>, without
+     * changing the buffer's position.
+     */
+    public static Quaternion readFrom(@NonNull DoubleBuffer src, int index) {
+        return Quaternion.of(src.get(index), src.get(index + 1), src.get(index + 2), src.get(index + 3));
+    }
+
+    public static Quaternion readFrom(@NonNull FloatBuffer src, int index) {
+        return Quaternion.of(src.get(index), src.get(index + 1), src.get(index + 2), src.get(index + 3));
+    }
+
+    /**
+     * Reads the components 𝑎, 𝑏, 𝑐, 𝑑 as doubles starting at the absolute byte offset
+     * <code>offset</code>, in the buffer's byte order.
+     */
+    public static Quaternion readFrom(@NonNull ByteBuffer src, int offset) {
+        return Quaternion.of(
+            src.getDouble(offset),
+            src.getDouble(offset + Double.BYTES),
+            src.getDouble(offset + 2 * Double.BYTES),
+            src.getDouble(offset + 3 * Double.BYTES));
+    }
+
+    /**
+     * Writes <code>quaternions</code> back to back, i.e. 4·<code>quaternions.length</code>
+     * components, starting at absolute index <code>index</code>.
+     */
+    public static void writeTo(@NonNull Quaternion[] quaternions, @NonNull DoubleBuffer dst, int index) {
+        for(int i = 0; i < quaternions.length; i++) quaternions[i].writeTo(dst, index + 4 * i);
+    }
+
+    public static void writeTo(@NonNull Quaternion[] quaternions, @NonNull FloatBuffer dst, int index) {
+        for(int i = 0; i < quaternions.length; i++) quaternions[i].writeTo(dst, index + 4 * i);
+    }
+
+    /**
+     * Fills <code>dst</code> with quaternions read back to back, starting at absolute index
+     * <code>index</code>.
+     */
+    public static void readFrom(@NonNull DoubleBuffer src, int index, @NonNull Quaternion[] dst) {
+        for(int i = 0; i < dst.length; i++) dst[i] = readFrom(src, index + 4 * i);
+    }
+
+    public static void readFrom(@NonNull FloatBuffer src, int index, @NonNull Quaternion[] dst) {
+        for(int i = 0; i < dst.length; i++) dst[i] = readFrom(src, index + 4 * i);
     }
 
     private final double a;
@@ -135,6 +236,7 @@ public class Quaternion {
      * @return The Hamilton product 𝒑𝒒, where 𝒑 = {@code this}.
      */
     public Quaternion mul(@NonNull Quaternion rhs) {
+        Metrics.count(Counter.QUATERNION_MUL);
         double a1 = this.a;
         double b1 = this.b;
         double c1 = this.c;
@@ -176,9 +278,79 @@ public class Quaternion {
      * @return The conjugation of 𝒑 by 𝑣, where 𝒑 = {@code this}.
      */
     public Vector3 conjugate(@NonNull Vector3 v) {
-        val p = Quaternion.of(v);
-        val q = this;
-        return q.conjugate(p).vector();
+        return rotate(v.x(), v.y(), v.z(), b, c, d, scale());
+    }
+
+    /**
+     * Conjugates a {@link Vector3} by the inverse of this quaternion, i.e. undoes the rotation
+     * applied by {@link #conjugate(Vector3)}, without computing {@link #inv()}.
+     * @param v A 3-vector 𝑣
+     * @return The conjugation of 𝑣 by 𝒑⁻¹, where 𝒑 = {@code this}.
+     */
+    public Vector3 conjugateInverse(@NonNull Vector3 v) {
+        return rotate(v.x(), v.y(), v.z(), -b, -c, -d, scale());
+    }
+
+    /**
+     * The factor 2/|𝒑|² used by the sandwich product. Unit quaternions skip the division, and for
+     * any other non-zero quaternion the scale cancels out, so 𝒑𝑣𝒑⁻¹ is still a pure rotation.
+     */
+    private double scale() {
+        double n = normSquared();
+        return n == 1.0 ? 2.0 : 2.0 / n;
+    }
+
+    /**
+     * Computes 𝒑𝑣𝒑⁻¹ = 𝑣 + 𝑠(𝑎(𝑢×𝑣) + 𝑢×(𝑢×𝑣)) with 𝑢 the vector part and 𝑠 = 2/|𝒑|², which takes two
+     * cross products instead of two Hamilton products and an inverse.
+     */
+    private Vector3 rotate(double x, double y, double z, double qb, double qc, double qd, double s) {
+        Metrics.count(Counter.QUATERNION_CONJUGATE);
+        double tx = qc * z - qd * y;
+        double ty = qd * x - qb * z;
+        double tz = qb * y - qc * x;
+        double ux = qc * tz - qd * ty;
+        double uy = qd * tx - qb * tz;
+        double uz = qb * ty - qc * tx;
+
+        return Vector3.of(
+            x + s * (a * tx + ux),
+            y + s * (a * ty + uy),
+            z + s * (a * tz + uz));
+    }
+
+    /**
+     * Multiplies this quaternion with another, writing the product to <code>dest</code> instead of
+     * allocating a new quaternion.
+     * @param rhs A quaternion 𝒒
+     * @param dest The quaternion to overwrite with 𝒑𝒒, where 𝒑 = {@code this}.
+     * @return <code>dest</code>
+     */
+    public MutableQuaternion mulInto(@NonNull Quaternion rhs, @NonNull MutableQuaternion dest) {
+        return dest.set(this).mulLocal(rhs);
+    }
+
+    /**
+     * Conjugates a {@link Vector3} by this quaternion, writing the result to <code>dest</code>
+     * instead of allocating a new vector.
+     * @param v A 3-vector 𝑣
+     * @param dest The vector to overwrite with the conjugation of 𝑣 by 𝒑, where 𝒑 = {@code this}.
+     * @return <code>dest</code>
+     */
+    public MutableVector3 conjugateInto(@NonNull Vector3 v, @NonNull MutableVector3 dest) {
+        return dest.set(v).rotateLocal(this);
+    }
+
+    public MutableQuaternion conjInto(@NonNull MutableQuaternion dest) {
+        return dest.set(a, -b, -c, -d);
+    }
+
+    public MutableQuaternion invInto(@NonNull MutableQuaternion dest) {
+        return dest.set(this).invLocal();
+    }
+
+    public MutableQuaternion unitInto(@NonNull MutableQuaternion dest) {
+        return dest.set(this).unitLocal();
     }
 
     public double normSquared() {
@@ -193,6 +365,78 @@ public class Quaternion {
         return this.div(norm());
     }
 
+    /**
+     * Spherical linear interpolation along the shorter arc between two unit quaternions, i.e.
+     * rotation at constant angular velocity. Nearly parallel inputs fall back to {@link #nlerp}.
+     * @param q A unit quaternion 𝒒
+     * @param t The interpolation parameter, 0 for 𝒑 = {@code this} and 1 for 𝒒 (or −𝒒).
+     * @return The unit quaternion at <code>t</code> of the way from 𝒑 to 𝒒.
+     */
+    public Quaternion slerp(@NonNull Quaternion q, double t) {
+        Metrics.count(Counter.QUATERNION_INTERPOLATE);
+        double dot = a * q.a + b * q.b + c * q.c + d * q.d;
+        double sign = dot < 0 ? -1 : 1;
+        dot *= sign;
+        if(dot > SLERP_NLERP_DOT) return nlerp(q, t);
+
+        double theta = Math.acos(dot);
+        double inv = 1 / Math.sin(theta);
+        double wp = Math.sin((1 - t) * theta) * inv;
+        double wq = Math.sin(t * theta) * inv * sign;
+        return Quaternion.of(wp * a + wq * q.a, wp * b + wq * q.b, wp * c + wq * q.c, wp * d + wq * q.d);
+    }
+
+    /**
+     * Normalised linear interpolation along the shorter arc. Much cheaper than {@link #slerp}
+     * and on the same path, but the angular velocity is not constant: it is highest halfway,
+     * where the rotation is exact.
+     * @param q A unit quaternion 𝒒
+     * @param t The interpolation parameter
+     * @return The unit quaternion (1 − t)𝒑 ± t𝒒, normalised.
+     */
+    public Quaternion nlerp(@NonNull Quaternion q, double t) {
+        Metrics.count(Counter.QUATERNION_INTERPOLATE);
+        double sign = a * q.a + b * q.b + c * q.c + d * q.d < 0 ? -1 : 1;
+        double wp = 1 - t;
+        double wq = t * sign;
+        return normalized(wp * a + wq * q.a, wp * b + wq * q.b, wp * c + wq * q.c, wp * d + wq * q.d);
+    }
+
+    /**
+     * Approximates {@link #slerp} without trigonometry: the parameter is corrected by a
+     * polynomial in t and |𝒑·𝒒| before an {@link #nlerp}, which evens out its angular velocity.
+     * The result is within 4·10⁻⁴ radians of the exact slerp on the unit sphere (so the rotation
+     * angle is within 8·10⁻⁴ radians), with the largest error for rotations nearly 180° apart.
+     * @param q A unit quaternion 𝒒
+     * @param t The interpolation parameter, in [0, 1]
+     */
+    public Quaternion fastSlerp(@NonNull Quaternion q, double t) {
+        Metrics.count(Counter.QUATERNION_INTERPOLATE);
+        double dot = a * q.a + b * q.b + c * q.c + d * q.d;
+        double sign = dot < 0 ? -1 : 1;
+        double u = fastSlerpParameter(dot * sign, t);
+        double wp = 1 - u;
+        double wq = u * sign;
+        return normalized(wp * a + wq * q.a, wp * b + wq * q.b, wp * c + wq * q.c, wp * d + wq * q.d);
+    }
+
+    /**
+     * The corrected parameter of {@link #fastSlerp}, a fit of the nlerp parameter which moves
+     * at the slerp's angular velocity for |𝒑·𝒒| = <code>dot</code>.
+     */
+    static double fastSlerpParameter(double dot, double t) {
+        double ka = 1.0904 + dot * (-3.2452 + dot * (3.55645 - dot * 1.43519));
+        double kb = 0.848013 + dot * (-1.06021 + dot * 0.215638);
+        double h = t - 0.5;
+        double k = ka * h * h + kb;
+        return t + t * h * (t - 1) * k;
+    }
+
+    private static Quaternion normalized(double a, double b, double c, double d) {
+        double inv = 1 / Math.sqrt(a * a + b * b + c * c + d * d);
+        return Quaternion.of(a * inv, b * inv, c * inv, d * inv);
+    }
+
     /**
      * Get the inverse of this quaternion 𝒑.
      * @return The inverse of 𝒑 with respect to the Hamilton product, 𝒑⁻¹.
@@ -242,31 +486,118 @@ public class Quaternion {
         return Vector3.of(b, c, d);
     }
 
+    /**
+     * Equivalent to conjugating {@link Vector3#X_AXIS} by this quaternion.
+     * @return The rotated 𝑥-axis.
+     */
     public Vector3 left() {
-        return this.conjugate(Vector3.X_AXIS);
+        double s = scale();
+        return Vector3.of(1 - s * (c * c + d * d), s * (b * c + a * d), s * (b * d - a * c));
     }
 
+    /**
+     * Equivalent to conjugating {@link Vector3#Y_AXIS} by this quaternion.
+     * @return The rotated 𝑦-axis.
+     */
     public Vector3 up() {
-        return this.conjugate(Vector3.Y_AXIS);
+        double s = scale();
+        return Vector3.of(s * (b * c - a * d), 1 - s * (b * b + d * d), s * (c * d + a * b));
     }
-    
+
+    /**
+     * Equivalent to conjugating {@link Vector3#Z_AXIS} by this quaternion.
+     * @return The rotated 𝑧-axis.
+     */
     public Vector3 forward() {
-        return this.conjugate(Vector3.Z_AXIS);
+        double s = scale();
+        return Vector3.of(s * (b * d + a * c), s * (c * d - a * b), 1 - s * (b * b + c * c));
     }
 
     public EulerAngles toEulerAngles() {
         return forward().toAzimuthElevation();
     }
 
+    /**
+     * Get the matrix 𝑅 with 𝑅𝑣 equal to {@code conjugate(v)} for every 3-vector 𝑣. Non-unit
+     * quaternions are handled by scaling with 2/|𝒑|², like {@link #conjugate(Vector3)}.
+     * @return The rotation matrix encoded by this quaternion.
+     */
     public Matrix3 toRotationMatrix() {
-        return toEulerAngles().toRotationMatrix();
+        double s = scale();
+        double bb = b * b, cc = c * c, dd = d * d;
+        double bc = b * c, bd = b * d, cd = c * d;
+        double ab = a * b, ac = a * c, ad = a * d;
+
+        return Matrix3.of(
+            1 - s * (cc + dd), s * (bc - ad), s * (bd + ac),
+            s * (bc + ad), 1 - s * (bb + dd), s * (cd - ab),
+            s * (bd - ac), s * (cd + ab), 1 - s * (bb + cc)
+        );
+    }
+
+    /**
+     * Get the homogeneous form of {@link #toRotationMatrix()}, with the rotation in the upper-left
+     * 3×3 block and no translation.
+     * @return The 4×4 rotation matrix encoded by this quaternion.
+     */
+    public Matrix4 toRotationMatrix4() {
+        double s = scale();
+        double bb = b * b, cc = c * c, dd = d * d;
+        double bc = b * c, bd = b * d, cd = c * d;
+        double ab = a * b, ac = a * c, ad = a * d;
+
+        return Matrix4.of(
+            1 - s * (cc + dd), s * (bc - ad), s * (bd + ac), 0,
+            s * (bc + ad), 1 - s * (bb + dd), s * (cd - ab), 0,
+            s * (bd - ac), s * (cd + ab), 1 - s * (bb + cc), 0,
+            0, 0, 0, 1
+        );
+    }
+
+    /**
+     * Writes the components 𝑎, 𝑏, 𝑐, 𝑑 starting at absolute index <code>index</code>, without
+     * changing the buffer's position.
+     */
+    public void writeTo(@NonNull DoubleBuffer dst, int index) {
+        dst.put(index, a);
+        dst.put(index + 1, b);
+        dst.put(index + 2, c);
+        dst.put(index + 3, d);
+    }
+
+    public void writeTo(@NonNull FloatBuffer dst, int index) {
+        dst.put(index, (float) a);
+        dst.put(index + 1, (float) b);
+        dst.put(index + 2, (float) c);
+        dst.put(index + 3, (float) d);
+    }
+
+    /**
+     * Writes the components 𝑎, 𝑏, 𝑐, 𝑑 as doubles starting at the absolute byte offset
+     * <code>offset</code>, in the buffer's byte order.
+     */
+    public void writeTo(@NonNull ByteBuffer dst, int offset) {
+        dst.putDouble(offset, a);
+        dst.putDouble(offset + Double.BYTES, b);
+        dst.putDouble(offset + 2 * Double.BYTES, c);
+        dst.putDouble(offset + 3 * Double.BYTES, d);
     }
 
     @Override
     public boolean equals(Object obj) {
         if(!Quaternion.class.isInstance(obj)) return false;
         val q = (Quaternion) obj;
-        return a == q.a && b == q.b && c == q.c && d == q.d;
+        return Components.equal(a, q.a) && Components.equal(b, q.b)
+            && Components.equal(c, q.c) && Components.equal(d, q.d);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        h = 31 * h + Components.hash(a);
+        h = 31 * h + Components.hash(b);
+        h = 31 * h + Components.hash(c);
+        return 31 * h + Components.hash(d);
     }
 
     @Override
@@ -0,0 +1,259 @@
+package yevano.math.rotation;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import lombok.NonNull;
+import lombok.val;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+
+/**
+ * A fixed-size batch of quaternions, stored as four primitive columns (structure of arrays) like
+ * {@link yevano.math.vector.Vector3Array}, for interpolating many rotations per frame without
+ * allocating.
+ * <p>
+ * The bulk operations take a range [<code>from</code>, <code>to</code>) and a destination, which
+ * may be <code>this</code> or one of the operands, and compute exactly what the corresponding
+ * {@link Quaternion} method computes for every element. The <code>*Parallel</code> variants split
+ * the whole batch into ranges of at least {@link #PARALLEL_THRESHOLD} elements.
+ */
+public class QuaternionArray {
+    /**
+     * Below this many elements, the <code>*Parallel</code> methods run on the calling thread.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    public static QuaternionArray of(@NonNull Quaternion... quaternions) {
+        val result = new QuaternionArray(quaternions.length);
+        for(int i = 0; i < quaternions.length; i++) result.set(i, quaternions[i]);
+        return result;
+    }
+
+    private final int size;
+    private final double[] a;
+    private final double[] b;
+    private final double[] c;
+    private final double[] d;
+
+    /**
+     * Create a batch of <code>size</code> identity rotations.
+     * @param size
+     */
+    public QuaternionArray(int size) {
+        if(size < 0) throw new IllegalArgumentException("Size must not be negative.");
+        this.size = size;
+        this.a = new double[size];
+        this.b = new double[size];
+        this.c = new double[size];
+        this.d = new double[size];
+        Arrays.fill(a, 1.0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double a(int i) {
+        return a[i];
+    }
+
+    public double b(int i) {
+        return b[i];
+    }
+
+    public double c(int i) {
+        return c[i];
+    }
+
+    public double d(int i) {
+        return d[i];
+    }
+
+    public Quaternion get(int i) {
+        return Quaternion.of(a[i], b[i], c[i], d[i]);
+    }
+
+    public MutableQuaternion getInto(int i, @NonNull MutableQuaternion dest) {
+        return dest.set(a[i], b[i], c[i], d[i]);
+    }
+
+    public void set(int i, double a, double b, double c, double d) {
+        this.a[i] = a;
+        this.b[i] = b;
+        this.c[i] = c;
+        this.d[i] = d;
+    }
+
+    public void set(int i, @NonNull Quaternion q) {
+        set(i, q.a(), q.b(), q.c(), q.d());
+    }
+
+    public void set(int i, @NonNull MutableQuaternion q) {
+        set(i, q.a(), q.b(), q.c(), q.d());
+    }
+
+    /**
+     * dest[i] = this[i].slerp(rhs[i], t) for every i in the range.
+     * @see Quaternion#slerp(Quaternion, double)
+     */
+    public void slerp(@NonNull QuaternionArray rhs, double t, @NonNull QuaternionArray dest, int from, int to) {
+        checkRange(from, to, rhs, dest);
+        Metrics.add(Counter.QUATERNION_INTERPOLATE, to - from);
+        double[] pa = a, pb = b, pc = c, pd = d, qa = rhs.a, qb = rhs.b, qc = rhs.c, qd = rhs.d;
+        double[] ra = dest.a, rb = dest.b, rc = dest.c, rd = dest.d;
+
+        for(int i = from; i < to; i++) {
+            double dot = pa[i] * qa[i] + pb[i] * qb[i] + pc[i] * qc[i] + pd[i] * qd[i];
+            double sign = dot < 0 ? -1 : 1;
+            dot *= sign;
+
+            if(dot > Quaternion.SLERP_NLERP_DOT) {
+                double wp = 1 - t;
+                double wq = t * sign;
+                normalize(ra, rb, rc, rd, i,
+                    wp * pa[i] + wq * qa[i], wp * pb[i] + wq * qb[i], wp * pc[i] + wq * qc[i], wp * pd[i] + wq * qd[i]);
+                continue;
+            }
+
+            double theta = Math.acos(dot);
+            double inv = 1 / Math.sin(theta);
+            double wp = Math.sin((1 - t) * theta) * inv;
+            double wq = Math.sin(t * theta) * inv * sign;
+            ra[i] = wp * pa[i] + wq * qa[i];
+            rb[i] = wp * pb[i] + wq * qb[i];
+            rc[i] = wp * pc[i] + wq * qc[i];
+            rd[i] = wp * pd[i] + wq * qd[i];
+        }
+    }
+
+    public void slerp(@NonNull QuaternionArray rhs, double t, @NonNull QuaternionArray dest) {
+        slerp(rhs, t, dest, 0, size);
+    }
+
+    /**
+     * dest[i] = this[i].nlerp(rhs[i], t) for every i in the range. The loop has no calls besides
+     * the square root, so HotSpot can vectorise it.
+     * @see Quaternion#nlerp(Quaternion, double)
+     */
+    public void nlerp(@NonNull QuaternionArray rhs, double t, @NonNull QuaternionArray dest, int from, int to) {
+        checkRange(from, to, rhs, dest);
+        Metrics.add(Counter.QUATERNION_INTERPOLATE, to - from);
+        double[] pa = a, pb = b, pc = c, pd = d, qa = rhs.a, qb = rhs.b, qc = rhs.c, qd = rhs.d;
+        double[] ra = dest.a, rb = dest.b, rc = dest.c, rd = dest.d;
+        double wp = 1 - t;
+
+        for(int i = from; i < to; i++) {
+            double sign = pa[i] * qa[i] + pb[i] * qb[i] + pc[i] * qc[i] + pd[i] * qd[i] < 0 ? -1 : 1;
+            double wq = t * sign;
+            normalize(ra, rb, rc, rd, i,
+                wp * pa[i] + wq * qa[i], wp * pb[i] + wq * qb[i], wp * pc[i] + wq * qc[i], wp * pd[i] + wq * qd[i]);
+        }
+    }
+
+    public void nlerp(@NonNull QuaternionArray rhs, double t, @NonNull QuaternionArray dest) {
+        nlerp(rhs, t, dest, 0, size);
+    }
+
+    /**
+     * dest[i] = this[i].fastSlerp(rhs[i], t) for every i in the range.
+     * @see Quaternion#fastSlerp(Quaternion, double)
+     */
+    public void fastSlerp(@NonNull QuaternionArray rhs, double t, @NonNull QuaternionArray dest, int from, int to) {
+        checkRange(from, to, rhs, dest);
+        Metrics.add(Counter.QUATERNION_INTERPOLATE, to - from);
+        double[] pa = a, pb = b, pc = c, pd = d, qa = rhs.a, qb = rhs.b, qc = rhs.c, qd = rhs.d;
+        double[] ra = dest.a, rb = dest.b, rc = dest.c, rd = dest.d;
+
+        for(int i = from; i < to; i++) {
+            double dot = pa[i] * qa[i] + pb[i] * qb[i] + pc[i] * qc[i] + pd[i] * qd[i];
+            double sign = dot < 0 ? -1 : 1;
+            double u = Quaternion.fastSlerpParameter(dot * sign, t);
+            double wp = 1 - u;
+            double wq = u * sign;
+            normalize(ra, rb, rc, rd, i,
+                wp * pa[i] + wq * qa[i], wp * pb[i] + wq * qb[i], wp * pc[i] + wq * qc[i], wp * pd[i] + wq * qd[i]);
+        }
+    }
+
+    public void fastSlerp(@NonNull QuaternionArray rhs, double t, @NonNull QuaternionArray dest) {
+        fastSlerp(rhs, t, dest, 0, size);
+    }
+
+    /**
+     * Runs {@link #slerp(QuaternionArray, double, QuaternionArray)} over ranges of the batch in
+     * <code>pool</code>.
+     */
+    public void slerpParallel(@NonNull QuaternionArray rhs, double t, @NonNull QuaternionArray dest, @NonNull ForkJoinPool pool) {
+        checkRange(0, size, rhs, dest);
+        parallel(pool, (from, to) -> slerp(rhs, t, dest, from, to));
+    }
+
+    public void nlerpParallel(@NonNull QuaternionArray rhs, double t, @NonNull QuaternionArray dest, @NonNull ForkJoinPool pool) {
+        checkRange(0, size, rhs, dest);
+        parallel(pool, (from, to) -> nlerp(rhs, t, dest, from, to));
+    }
+
+    public void fastSlerpParallel(@NonNull QuaternionArray rhs, double t, @NonNull QuaternionArray dest, @NonNull ForkJoinPool pool) {
+        checkRange(0, size, rhs, dest);
+        parallel(pool, (from, to) -> fastSlerp(rhs, t, dest, from, to));
+    }
+
+    private void parallel(ForkJoinPool pool, RangeAction action) {
+        if(size < 2 * PARALLEL_THRESHOLD) {
+            action.run(0, size);
+        } else {
+            pool.invoke(new RangeTask(action, 0, size));
+        }
+    }
+
+    private static void normalize(double[] ra, double[] rb, double[] rc, double[] rd, int i, double a, double b, double c, double d) {
+        double inv = 1 / Math.sqrt(a * a + b * b + c * c + d * d);
+        ra[i] = a * inv;
+        rb[i] = b * inv;
+        rc[i] = c * inv;
+        rd[i] = d * inv;
+    }
+
+    private void checkRange(int from, int to) {
+        if(from < 0 || from > to || to > size) throw new IndexOutOfBoundsException("Invalid range.");
+    }
+
+    private void checkRange(int from, int to, QuaternionArray a, QuaternionArray b) {
+        checkRange(from, to);
+        if(to > a.size || to > b.size) throw new IndexOutOfBoundsException("Invalid range.");
+    }
+
+    private interface RangeAction {
+        void run(int from, int to);
+    }
+
+    /**
+     * Splits [from, to) in halves until a range is shorter than twice {@link #PARALLEL_THRESHOLD}.
+     */
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeAction action;
+        private final int from;
+        private final int to;
+
+        RangeTask(RangeAction action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from < 2 * PARALLEL_THRESHOLD) {
+                action.run(from, to);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(action, from, mid), new RangeTask(action, mid, to));
+        }
+    }
+}
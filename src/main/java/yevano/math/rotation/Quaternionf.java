@@ -0,0 +1,322 @@
+package yevano.math.rotation;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
+import lombok.NonNull;
+import lombok.val;
+import yevano.math.Components;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+import yevano.math.matrix.Matrix3f;
+import yevano.math.matrix.Matrix4f;
+import yevano.math.vector.Vector3f;
+
+/**
+ * A quaternion with single-precision components, for rotations which end up as floats anyway,
+ * e.g. in instance buffers or replicated state. Arithmetic between two {@link Quaternionf} runs
+ * in float; conversions to and from {@link Quaternion} round each component once.
+ */
+public class Quaternionf {
+    public static final Quaternionf ZERO = Quaternionf.of(0, 0, 0, 0);
+
+    /** The real number 1. */
+    public static final Quaternionf ONE  = Quaternionf.of(1, 0, 0, 0);
+    /** The basic quaternion 𝒊. */
+    public static final Quaternionf I    = Quaternionf.of(0, 1, 0, 0);
+    /** The basic quaternion 𝒋. */
+    public static final Quaternionf J    = Quaternionf.of(0, 0, 1, 0);
+    /** The basic quaternion 𝒌. */
+    public static final Quaternionf K    = Quaternionf.of(0, 0, 0, 1);
+
+    /**
+     * @return The quaternion 𝑎 + 𝑏𝒊 + 𝑐𝒋 + 𝑑𝒌.
+     */
+    public static Quaternionf of(float a, float b, float c, float d) {
+        return new Quaternionf(a, b, c, d);
+    }
+
+    /**
+     * Rounds every component of <code>q</code> to the nearest float.
+     */
+    public static Quaternionf of(@NonNull Quaternion q) {
+        return new Quaternionf((float) q.a(), (float) q.b(), (float) q.c(), (float) q.d());
+    }
+
+    /**
+     * @param t Angle θ
+     * @param axis Vector 𝑣
+     * @return The quaternion which encodes rotation with angle θ about the axis 𝑣.
+     */
+    public static Quaternionf fromAxisAngle(double t, @NonNull Vector3f axis) {
+        return of(Quaternion.fromAxisAngle(t, axis.toVector3()));
+    }
+
+    /**
+     * Like {@link Quaternion#fromRotationMatrix(yevano.math.matrix.Matrix3)}, computed in double
+     * precision and rounded.
+     */
+    public static Quaternionf fromRotationMatrix(@NonNull Matrix3f m) {
+        return of(Quaternion.fromRotationMatrix(m.toMatrix3()));
+    }
+
+    /**
+     * Reads the components 𝑎, 𝑏, 𝑐, 𝑑 starting at absolute index <code>index</code>, without
+     * changing the buffer's position.
+     */
+    public static Quaternionf readFrom(@NonNull DoubleBuffer src, int index) {
+        return Quaternionf.of(
+            (float) src.get(index),
+            (float) src.get(index + 1),
+            (float) src.get(index + 2),
+            (float) src.get(index + 3));
+    }
+
+    public static Quaternionf readFrom(@NonNull FloatBuffer src, int index) {
+        return Quaternionf.of(src.get(index), src.get(index + 1), src.get(index + 2), src.get(index + 3));
+    }
+
+    /**
+     * Reads the components 𝑎, 𝑏, 𝑐, 𝑑 as floats starting at the absolute byte offset
+     * <code>offset</code>, in the buffer's byte order.
+     */
+    public static Quaternionf readFrom(@NonNull ByteBuffer src, int offset) {
+        return Quaternionf.of(
+            src.getFloat(offset),
+            src.getFloat(offset + Float.BYTES),
+            src.getFloat(offset + 2 * Float.BYTES),
+            src.getFloat(offset + 3 * Float.BYTES));
+    }
+
+    private final float a;
+    private final float b;
+    private final float c;
+    private final float d;
+
+    /**
+     * Constructs the quaternion 𝑎 + 𝑏𝒊 + 𝑐𝒋 + 𝑑𝒌.
+     */
+    public Quaternionf(float a, float b, float c, float d) {
+        this.a = a;
+        this.b = b;
+        this.c = c;
+        this.d = d;
+    }
+
+    public float a() {
+        return a;
+    }
+
+    public float b() {
+        return b;
+    }
+
+    public float c() {
+        return c;
+    }
+
+    public float d() {
+        return d;
+    }
+
+    public Quaternionf add(@NonNull Quaternionf rhs) {
+        return Quaternionf.of(a + rhs.a, b + rhs.b, c + rhs.c, d + rhs.d);
+    }
+
+    public Quaternionf add(float rhs) {
+        return Quaternionf.of(a + rhs, b, c, d);
+    }
+
+    public Quaternionf mul(float rhs) {
+        return Quaternionf.of(a * rhs, b * rhs, c * rhs, d * rhs);
+    }
+
+    public Quaternionf div(float rhs) {
+        return Quaternionf.of(a / rhs, b / rhs, c / rhs, d / rhs);
+    }
+
+    /**
+     * @return The Hamilton product 𝒑𝒒, where 𝒑 = {@code this}.
+     */
+    public Quaternionf mul(@NonNull Quaternionf rhs) {
+        Metrics.count(Counter.QUATERNION_MUL);
+        float a1 = a, b1 = b, c1 = c, d1 = d;
+        float a2 = rhs.a, b2 = rhs.b, c2 = rhs.c, d2 = rhs.d;
+
+        return Quaternionf.of(
+            a1 * a2 - b1 * b2 - c1 * c2 - d1 * d2,
+            a1 * b2 + b1 * a2 + c1 * d2 - d1 * c2,
+            a1 * c2 - b1 * d2 + c1 * a2 + d1 * b2,
+            a1 * d2 + b1 * c2 - c1 * b2 + d1 * a2);
+    }
+
+    public Quaternionf conj() {
+        return Quaternionf.of(a, -b, -c, -d);
+    }
+
+    /**
+     * @return The conjugation of 𝒒 by 𝒑, where 𝒑 = {@code this}.
+     */
+    public Quaternionf conjugate(@NonNull Quaternionf q) {
+        val p = this;
+        return p.mul(q).mul(p.inv());
+    }
+
+    /**
+     * @return The conjugation of 𝑣 by 𝒑, where 𝒑 = {@code this}, i.e. 𝑣 rotated by 𝒑.
+     */
+    public Vector3f conjugate(@NonNull Vector3f v) {
+        return rotate(v.x(), v.y(), v.z(), b, c, d, scale());
+    }
+
+    /**
+     * @return The conjugation of 𝑣 by 𝒑⁻¹, where 𝒑 = {@code this}.
+     */
+    public Vector3f conjugateInverse(@NonNull Vector3f v) {
+        return rotate(v.x(), v.y(), v.z(), -b, -c, -d, scale());
+    }
+
+    /**
+     * See {@link Quaternion#conjugate(yevano.math.vector.Vector3)}.
+     */
+    private float scale() {
+        float n = normSquared();
+        return n == 1.0f ? 2.0f : 2.0f / n;
+    }
+
+    private Vector3f rotate(float x, float y, float z, float qb, float qc, float qd, float s) {
+        Metrics.count(Counter.QUATERNION_CONJUGATE);
+        float tx = qc * z - qd * y;
+        float ty = qd * x - qb * z;
+        float tz = qb * y - qc * x;
+        float ux = qc * tz - qd * ty;
+        float uy = qd * tx - qb * tz;
+        float uz = qb * ty - qc * tx;
+
+        return Vector3f.of(
+            x + s * (a * tx + ux),
+            y + s * (a * ty + uy),
+            z + s * (a * tz + uz));
+    }
+
+    public float normSquared() {
+        return a * a + b * b + c * c + d * d;
+    }
+
+    public float norm() {
+        return (float) Math.sqrt(normSquared());
+    }
+
+    public Quaternionf unit() {
+        return div(norm());
+    }
+
+    public Quaternionf inv() {
+        return conj().div(normSquared());
+    }
+
+    public Vector3f vector() {
+        return Vector3f.of(b, c, d);
+    }
+
+    public Vector3f left() {
+        float s = scale();
+        return Vector3f.of(1 - s * (c * c + d * d), s * (b * c + a * d), s * (b * d - a * c));
+    }
+
+    public Vector3f up() {
+        float s = scale();
+        return Vector3f.of(s * (b * c - a * d), 1 - s * (b * b + d * d), s * (c * d + a * b));
+    }
+
+    public Vector3f forward() {
+        float s = scale();
+        return Vector3f.of(s * (b * d + a * c), s * (c * d - a * b), 1 - s * (b * b + c * c));
+    }
+
+    public Matrix3f toRotationMatrix() {
+        float s = scale();
+        float bb = b * b, cc = c * c, dd = d * d;
+        float bc = b * c, bd = b * d, cd = c * d;
+        float ab = a * b, ac = a * c, ad = a * d;
+
+        return Matrix3f.of(
+            1 - s * (cc + dd), s * (bc - ad), s * (bd + ac),
+            s * (bc + ad), 1 - s * (bb + dd), s * (cd - ab),
+            s * (bd - ac), s * (cd + ab), 1 - s * (bb + cc)
+        );
+    }
+
+    public Matrix4f toRotationMatrix4() {
+        float s = scale();
+        float bb = b * b, cc = c * c, dd = d * d;
+        float bc = b * c, bd = b * d, cd = c * d;
+        float ab = a * b, ac = a * c, ad = a * d;
+
+        return Matrix4f.of(
+            1 - s * (cc + dd), s * (bc - ad), s * (bd + ac), 0,
+            s * (bc + ad), 1 - s * (bb + dd), s * (cd - ab), 0,
+            s * (bd - ac), s * (cd + ab), 1 - s * (bb + cc), 0,
+            0, 0, 0, 1
+        );
+    }
+
+    /**
+     * Widens every component to a double, which is exact.
+     */
+    public Quaternion toQuaternion() {
+        return Quaternion.of(a, b, c, d);
+    }
+
+    /**
+     * Writes the components 𝑎, 𝑏, 𝑐, 𝑑 starting at absolute index <code>index</code>, without
+     * changing the buffer's position.
+     */
+    public void writeTo(@NonNull DoubleBuffer dst, int index) {
+        dst.put(index, a);
+        dst.put(index + 1, b);
+        dst.put(index + 2, c);
+        dst.put(index + 3, d);
+    }
+
+    public void writeTo(@NonNull FloatBuffer dst, int index) {
+        dst.put(index, a);
+        dst.put(index + 1, b);
+        dst.put(index + 2, c);
+        dst.put(index + 3, d);
+    }
+
+    /**
+     * Writes the components 𝑎, 𝑏, 𝑐, 𝑑 as floats starting at the absolute byte offset
+     * <code>offset</code>, in the buffer's byte order.
+     */
+    public void writeTo(@NonNull ByteBuffer dst, int offset) {
+        dst.putFloat(offset, a);
+        dst.putFloat(offset + Float.BYTES, b);
+        dst.putFloat(offset + 2 * Float.BYTES, c);
+        dst.putFloat(offset + 3 * Float.BYTES, d);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(!Quaternionf.class.isInstance(obj)) return false;
+        val q = (Quaternionf) obj;
+        return Components.equal(a, q.a) && Components.equal(b, q.b)
+            && Components.equal(c, q.c) && Components.equal(d, q.d);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        h = 31 * h + Components.hash(a);
+        h = 31 * h + Components.hash(b);
+        h = 31 * h + Components.hash(c);
+        return 31 * h + Components.hash(d);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s + %si + %sj + %sk", a, b, c, d);
+    }
+}
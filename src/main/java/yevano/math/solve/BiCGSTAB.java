@@ -0,0 +1,151 @@
+package yevano.math.solve;
+
+import java.util.Arrays;
+
+import lombok.NonNull;
+import yevano.math.matrix.Matrix;
+
+/**
+ * Solves Ax = b for general square A with the stabilised biconjugate gradient method (van der
+ * Vorst), optionally right-preconditioned with the inverse of the diagonal of A (Jacobi). Each
+ * iteration takes two products with A.
+ * <p>
+ * All work vectors are allocated once, by the constructor, and every call to
+ * {@link #solve(double[], double[])} reuses them; for the same reason an instance must not be
+ * used by several threads at once. A solve only allocates its {@link SolverResult}, which keeps
+ * its own copy of the residual history.
+ */
+public class BiCGSTAB {
+    public static BiCGSTAB of(@NonNull LinearOperator a, int maxIterations, double tolerance) {
+        return new BiCGSTAB(a, null, maxIterations, tolerance);
+    }
+
+    public static BiCGSTAB of(@NonNull Matrix a, int maxIterations, double tolerance) {
+        return of(LinearOperator.of(a), maxIterations, tolerance);
+    }
+
+    /**
+     * @param diagonal The diagonal of A
+     * @throws ArithmeticException if the diagonal has a zero.
+     */
+    public static BiCGSTAB jacobi(@NonNull LinearOperator a, @NonNull double[] diagonal, int maxIterations, double tolerance) {
+        Blas.checkLength(diagonal, a.size());
+        return new BiCGSTAB(a, Blas.inverseDiagonal(diagonal), maxIterations, tolerance);
+    }
+
+    public static BiCGSTAB jacobi(@NonNull Matrix a, int maxIterations, double tolerance) {
+        return jacobi(LinearOperator.of(a), ConjugateGradient.diagonal(a), maxIterations, tolerance);
+    }
+
+    private final LinearOperator a;
+    private final double[] inverseDiagonal;
+    private final int maxIterations;
+    private final double tolerance;
+    private final double[] r;
+    private final double[] rHat;
+    private final double[] p;
+    private final double[] v;
+    private final double[] s;
+    private final double[] t;
+    private final double[] pHat;
+    private final double[] sHat;
+    private final double[] history;
+
+    private BiCGSTAB(LinearOperator a, double[] inverseDiagonal, int maxIterations, double tolerance) {
+        if(maxIterations < 0) throw new IllegalArgumentException("Iteration count must not be negative.");
+        if(!(tolerance >= 0)) throw new IllegalArgumentException("Tolerance must not be negative.");
+        int n = a.size();
+        this.a = a;
+        this.inverseDiagonal = inverseDiagonal;
+        this.maxIterations = maxIterations;
+        this.tolerance = tolerance;
+        this.r = new double[n];
+        this.rHat = new double[n];
+        this.p = new double[n];
+        this.v = new double[n];
+        this.s = new double[n];
+        this.t = new double[n];
+        this.pHat = inverseDiagonal == null ? p : new double[n];
+        this.sHat = inverseDiagonal == null ? s : new double[n];
+        this.history = new double[maxIterations + 1];
+    }
+
+    /**
+     * Iterates until |b − Ax|/|b| ≤ tolerance, the iteration limit is reached, or the method
+     * breaks down, in which case the result is not converged and x holds the last iterate.
+     * @param b An array of n components
+     * @param x An array of n components holding the initial guess, overwritten with the solution
+     */
+    public SolverResult solve(@NonNull double[] b, @NonNull double[] x) {
+        int n = a.size();
+        Blas.checkLength(b, n);
+        Blas.checkLength(x, n);
+
+        double bNorm = Blas.norm(b);
+
+        if(bNorm == 0.0) {
+            Arrays.fill(x, 0.0);
+            history[0] = 0.0;
+            return SolverResult.of(0, true, history);
+        }
+
+        a.apply(x, r);
+        for(int i = 0; i < n; i++) r[i] = b[i] - r[i];
+
+        double residual = Blas.norm(r) / bNorm;
+        history[0] = residual;
+        if(residual <= tolerance) return SolverResult.of(0, true, history);
+
+        System.arraycopy(r, 0, rHat, 0, n);
+        Arrays.fill(p, 0.0);
+        Arrays.fill(v, 0.0);
+        double rho = 1, alpha = 1, omega = 1;
+
+        for(int k = 1; k <= maxIterations; k++) {
+            // Breakdowns: each denominator below is checked for 0 before it is divided by, so the
+            // iterate is never polluted with NaN.
+            double rhoNext = Blas.dot(rHat, r);
+            if(rhoNext == 0.0) return SolverResult.of(k - 1, false, history);
+
+            double beta = (rhoNext / rho) * (alpha / omega);
+            rho = rhoNext;
+            for(int i = 0; i < n; i++) p[i] = r[i] + beta * (p[i] - omega * v[i]);
+
+            precondition(p, pHat);
+            a.apply(pHat, v);
+            double rHatV = Blas.dot(rHat, v);
+            if(rHatV == 0.0) return SolverResult.of(k - 1, false, history);
+            alpha = rho / rHatV;
+            for(int i = 0; i < n; i++) s[i] = r[i] - alpha * v[i];
+
+            residual = Blas.norm(s) / bNorm;
+
+            if(residual <= tolerance) {
+                Blas.axpy(alpha, pHat, x);
+                history[k] = residual;
+                return SolverResult.of(k, true, history);
+            }
+
+            precondition(s, sHat);
+            a.apply(sHat, t);
+            double tt = Blas.dot(t, t);
+            omega = tt == 0.0 ? 0.0 : Blas.dot(t, s) / tt;
+
+            for(int i = 0; i < n; i++) {
+                x[i] += alpha * pHat[i] + omega * sHat[i];
+                r[i] = s[i] - omega * t[i];
+            }
+
+            residual = Blas.norm(r) / bNorm;
+            history[k] = residual;
+            if(residual <= tolerance) return SolverResult.of(k, true, history);
+            if(omega == 0.0) return SolverResult.of(k, false, history);
+        }
+
+        return SolverResult.of(maxIterations, false, history);
+    }
+
+    private void precondition(double[] src, double[] dst) {
+        if(inverseDiagonal != null) Blas.scale(inverseDiagonal, src, dst);
+    }
+}
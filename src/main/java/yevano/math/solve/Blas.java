@@ -0,0 +1,51 @@
+package yevano.math.solve;
+
+/**
+ * The handful of vector kernels the solvers are built from, as plain counted loops.
+ */
+final class Blas {
+    private Blas() {
+    }
+
+    static double dot(double[] x, double[] y) {
+        double sum = 0;
+        for(int i = 0; i < x.length; i++) sum += x[i] * y[i];
+        return sum;
+    }
+
+    static double norm(double[] x) {
+        return Math.sqrt(dot(x, x));
+    }
+
+    /**
+     * y = y + a·x
+     */
+    static void axpy(double a, double[] x, double[] y) {
+        for(int i = 0; i < x.length; i++) y[i] += a * x[i];
+    }
+
+    /**
+     * z = x·y, component-wise.
+     */
+    static void scale(double[] x, double[] y, double[] z) {
+        for(int i = 0; i < x.length; i++) z[i] = x[i] * y[i];
+    }
+
+    /**
+     * Inverts the diagonal of a matrix for Jacobi preconditioning.
+     */
+    static double[] inverseDiagonal(double[] diagonal) {
+        double[] result = new double[diagonal.length];
+
+        for(int i = 0; i < diagonal.length; i++) {
+            if(diagonal[i] == 0.0) throw new ArithmeticException("Matrix has a zero on its diagonal.");
+            result[i] = 1.0 / diagonal[i];
+        }
+
+        return result;
+    }
+
+    static void checkLength(double[] x, int n) {
+        if(x.length != n) throw new IllegalArgumentException("Vector dimensions not compatible.");
+    }
+}
@@ -0,0 +1,132 @@
+package yevano.math.solve;
+
+import java.util.Arrays;
+
+import lombok.NonNull;
+import yevano.math.matrix.Matrix;
+
+/**
+ * Solves Ax = b for symmetric positive definite A with the conjugate gradient method, optionally
+ * preconditioned with the inverse of the diagonal of A (Jacobi). Only products with A are needed,
+ * so A can be sparse or given as a {@link LinearOperator}.
+ * <p>
+ * All work vectors are allocated once, by the constructor, and every call to
+ * {@link #solve(double[], double[])} reuses them; for the same reason an instance must not be
+ * used by several threads at once. A solve only allocates its {@link SolverResult}, which keeps
+ * its own copy of the residual history.
+ */
+public class ConjugateGradient {
+    public static ConjugateGradient of(@NonNull LinearOperator a, int maxIterations, double tolerance) {
+        return new ConjugateGradient(a, null, maxIterations, tolerance);
+    }
+
+    public static ConjugateGradient of(@NonNull Matrix a, int maxIterations, double tolerance) {
+        return of(LinearOperator.of(a), maxIterations, tolerance);
+    }
+
+    /**
+     * @param diagonal The diagonal of A
+     * @throws ArithmeticException if the diagonal has a zero.
+     */
+    public static ConjugateGradient jacobi(@NonNull LinearOperator a, @NonNull double[] diagonal, int maxIterations, double tolerance) {
+        Blas.checkLength(diagonal, a.size());
+        return new ConjugateGradient(a, Blas.inverseDiagonal(diagonal), maxIterations, tolerance);
+    }
+
+    public static ConjugateGradient jacobi(@NonNull Matrix a, int maxIterations, double tolerance) {
+        return jacobi(LinearOperator.of(a), diagonal(a), maxIterations, tolerance);
+    }
+
+    private final LinearOperator a;
+    private final double[] inverseDiagonal;
+    private final int maxIterations;
+    private final double tolerance;
+    private final double[] r;
+    private final double[] z;
+    private final double[] p;
+    private final double[] q;
+    private final double[] history;
+
+    private ConjugateGradient(LinearOperator a, double[] inverseDiagonal, int maxIterations, double tolerance) {
+        if(maxIterations < 0) throw new IllegalArgumentException("Iteration count must not be negative.");
+        if(!(tolerance >= 0)) throw new IllegalArgumentException("Tolerance must not be negative.");
+        int n = a.size();
+        this.a = a;
+        this.inverseDiagonal = inverseDiagonal;
+        this.maxIterations = maxIterations;
+        this.tolerance = tolerance;
+        this.r = new double[n];
+        this.z = inverseDiagonal == null ? r : new double[n];
+        this.p = new double[n];
+        this.q = new double[n];
+        this.history = new double[maxIterations + 1];
+    }
+
+    /**
+     * Iterates until |b − Ax|/|b| ≤ tolerance, the iteration limit is reached, or the method
+     * breaks down because A is not positive definite, in which case the result is not converged
+     * and x holds the last iterate.
+     * @param b An array of n components
+     * @param x An array of n components holding the initial guess, overwritten with the solution
+     */
+    public SolverResult solve(@NonNull double[] b, @NonNull double[] x) {
+        int n = a.size();
+        Blas.checkLength(b, n);
+        Blas.checkLength(x, n);
+
+        double bNorm = Blas.norm(b);
+
+        if(bNorm == 0.0) {
+            Arrays.fill(x, 0.0);
+            history[0] = 0.0;
+            return SolverResult.of(0, true, history);
+        }
+
+        a.apply(x, r);
+        for(int i = 0; i < n; i++) r[i] = b[i] - r[i];
+
+        double residual = Blas.norm(r) / bNorm;
+        history[0] = residual;
+        if(residual <= tolerance) return SolverResult.of(0, true, history);
+
+        precondition();
+        System.arraycopy(z, 0, p, 0, n);
+        double rz = Blas.dot(r, z);
+        if(rz == 0.0) return SolverResult.of(0, false, history);
+
+        for(int k = 1; k <= maxIterations; k++) {
+            // Breakdown: 𝒑·A𝒑 ≤ 0 means A (or the preconditioner) is not positive definite, and
+            // dividing by it would fill the iterate with NaN.
+            a.apply(p, q);
+            double pq = Blas.dot(p, q);
+            if(!(pq > 0)) return SolverResult.of(k - 1, false, history);
+            double alpha = rz / pq;
+            Blas.axpy(alpha, p, x);
+            Blas.axpy(-alpha, q, r);
+
+            residual = Blas.norm(r) / bNorm;
+            history[k] = residual;
+            if(residual <= tolerance) return SolverResult.of(k, true, history);
+
+            precondition();
+            double rzNext = Blas.dot(r, z);
+            if(rzNext == 0.0) return SolverResult.of(k, false, history);
+            double beta = rzNext / rz;
+            rz = rzNext;
+            for(int i = 0; i < n; i++) p[i] = z[i] + beta * p[i];
+        }
+
+        return SolverResult.of(maxIterations, false, history);
+    }
+
+    private void precondition() {
+        if(inverseDiagonal != null) Blas.scale(inverseDiagonal, r, z);
+    }
+
+    static double[] diagonal(Matrix a) {
+        if(a.rowCount() != a.columnCount()) throw new IllegalArgumentException("Matrix must be square.");
+        double[] result = new double[a.rowCount()];
+        for(int i = 0; i < result.length; i++) result[i] = a.getComponent(i, i);
+        return result;
+    }
+}
@@ -0,0 +1,43 @@
+package yevano.math.solve;
+
+import lombok.NonNull;
+import yevano.math.matrix.Matrix;
+
+/**
+ * A square linear map y = Ax given only by its action on vectors, so that iterative solvers can run
+ * against operators which are never stored as a matrix.
+ */
+public interface LinearOperator {
+    /**
+     * Adapts a square matrix, using {@link Matrix#mulInto(double[], double[])}.
+     * @throws IllegalArgumentException if the matrix is not square.
+     */
+    public static LinearOperator of(@NonNull Matrix matrix) {
+        if(matrix.rowCount() != matrix.columnCount()) throw new IllegalArgumentException("Matrix must be square.");
+        int n = matrix.rowCount();
+
+        return new LinearOperator() {
+            @Override
+            public int size() {
+                return n;
+            }
+
+            @Override
+            public void apply(double[] x, double[] y) {
+                matrix.mulInto(x, y);
+            }
+        };
+    }
+
+    /**
+     * @return The number n of rows and columns of A.
+     */
+    public int size();
+
+    /**
+     * Computes y = Ax. Implementations must not keep references to either array.
+     * @param x An array of n components
+     * @param y An array of n components, overwritten with the product
+     */
+    public void apply(@NonNull double[] x, @NonNull double[] y);
+}
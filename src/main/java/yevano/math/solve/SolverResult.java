@@ -0,0 +1,53 @@
+package yevano.math.solve;
+
+import java.util.Arrays;
+
+/**
+ * The outcome of a call to an iterative solver.
+ */
+public class SolverResult {
+    static SolverResult of(int iterations, boolean converged, double[] history) {
+        return new SolverResult(iterations, converged, Arrays.copyOf(history, iterations + 1));
+    }
+
+    private final int iterations;
+    private final boolean converged;
+    private final double[] residualHistory;
+
+    private SolverResult(int iterations, boolean converged, double[] residualHistory) {
+        this.iterations = iterations;
+        this.converged = converged;
+        this.residualHistory = residualHistory;
+    }
+
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * @return Whether the relative residual |b − Ax|/|b| reached the tolerance.
+     */
+    public boolean converged() {
+        return converged;
+    }
+
+    /**
+     * @return The relative residual of the final iterate.
+     */
+    public double residualNorm() {
+        return residualHistory[iterations];
+    }
+
+    /**
+     * @return The relative residual before the first iteration and after each one, i.e.
+     * <code>iterations() + 1</code> values.
+     */
+    public double[] residualHistory() {
+        return residualHistory.clone();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SolverResult(iterations=%d, converged=%s, residual=%s)", iterations, converged, residualNorm());
+    }
+}
@@ -0,0 +1,91 @@
+package yevano.math.transform;
+
+import lombok.val;
+import yevano.math.matrix.Matrix3;
+import yevano.math.rotation.Quaternion;
+import yevano.math.vector.Vector3;
+import yevano.math.vector.Vector3Array;
+
+/**
+ * Loops shared by the bulk methods of {@link Transform}. Buffers hold packed (x, y, z) triples, and
+ * <code>src</code> may be the same array as <code>dst</code>.
+ */
+final class BatchTransforms {
+    private BatchTransforms() { }
+
+    static void checkBuffers(double[] src, double[] dst, int count) {
+        if(count < 0) throw new IllegalArgumentException("Count must not be negative.");
+        if(src.length / 3 < count || dst.length / 3 < count) throw new IllegalArgumentException("Buffer too small.");
+    }
+
+    static void checkBuffers(Vector3Array src, Vector3Array dst) {
+        if(dst.size() < src.size()) throw new IllegalArgumentException("Buffer too small.");
+    }
+
+    /** Maps each point through {@link Transform#toWorld(Vector3)} one at a time. */
+    static void toWorldPointwise(Transform transform, double[] src, double[] dst, int count) {
+        for(int i = 0; i < count * 3; i += 3) {
+            val p = transform.toWorld(Vector3.of(src[i], src[i + 1], src[i + 2]));
+            dst[i] = p.x();
+            dst[i + 1] = p.y();
+            dst[i + 2] = p.z();
+        }
+    }
+
+    /** Maps each point through {@link Transform#toLocal(Vector3)} one at a time. */
+    static void toLocalPointwise(Transform transform, double[] src, double[] dst, int count) {
+        for(int i = 0; i < count * 3; i += 3) {
+            val p = transform.toLocal(Vector3.of(src[i], src[i + 1], src[i + 2]));
+            dst[i] = p.x();
+            dst[i + 1] = p.y();
+            dst[i + 2] = p.z();
+        }
+    }
+
+    static void toWorldPointwise(Transform transform, Vector3Array src, Vector3Array dst) {
+        for(int i = 0; i < src.size(); i++) dst.set(i, transform.toWorld(src.get(i)));
+    }
+
+    static void toLocalPointwise(Transform transform, Vector3Array src, Vector3Array dst) {
+        for(int i = 0; i < src.size(); i++) dst.set(i, transform.toLocal(src.get(i)));
+    }
+
+    /**
+     * Applies p ↦ 𝑅p + t to every point, with 𝑅 the rotation matrix of <code>rotation</code>.
+     */
+    static void toWorld(Quaternion rotation, Vector3 position, double[] src, double[] dst, int count) {
+        affine(rotation.toRotationMatrix(), position, src, dst, count);
+    }
+
+    /**
+     * Applies p ↦ 𝑅ᵀ(p - t) = 𝑅ᵀp - 𝑅ᵀt to every point, the inverse of
+     * {@link #toWorld(Quaternion, Vector3, double[], double[], int)}.
+     */
+    static void toLocal(Quaternion rotation, Vector3 position, double[] src, double[] dst, int count) {
+        affine(rotation.conj().toRotationMatrix(), rotation.conjugateInverse(position).neg(), src, dst, count);
+    }
+
+    static void toWorld(Quaternion rotation, Vector3 position, Vector3Array src, Vector3Array dst) {
+        src.mulAdd(rotation.toRotationMatrix(), position, dst, 0, src.size());
+    }
+
+    static void toLocal(Quaternion rotation, Vector3 position, Vector3Array src, Vector3Array dst) {
+        src.mulAdd(rotation.conj().toRotationMatrix(), rotation.conjugateInverse(position).neg(), dst, 0, src.size());
+    }
+
+    private static void affine(Matrix3 r, Vector3 t, double[] src, double[] dst, int count) {
+        double m11 = r.getComponent(0), m12 = r.getComponent(1), m13 = r.getComponent(2);
+        double m21 = r.getComponent(3), m22 = r.getComponent(4), m23 = r.getComponent(5);
+        double m31 = r.getComponent(6), m32 = r.getComponent(7), m33 = r.getComponent(8);
+        double tx = t.x(), ty = t.y(), tz = t.z();
+
+        for(int i = 0; i < count * 3; i += 3) {
+            double x = src[i];
+            double y = src[i + 1];
+            double z = src[i + 2];
+            dst[i]     = m11 * x + m12 * y + m13 * z + tx;
+            dst[i + 1] = m21 * x + m22 * y + m23 * z + ty;
+            dst[i + 2] = m31 * x + m32 * y + m33 * z + tz;
+        }
+    }
+}
@@ -2,7 +2,7 @@ package yevano.math.transform;
 
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.Setter;
+import lombok.val;
 import yevano.math.rotation.EulerAngles;
 import yevano.math.rotation.Quaternion;
 import yevano.math.vector.Vector3;
@@ -25,13 +25,10 @@ public class LocalTransform extends WorldTransform {
     }
 
     public static LocalTransform of(@NonNull Transform parent, @NonNull EulerAngles angles, @NonNull Vector3 position) {
-        Quaternion q = Quaternion.fromAxisAngle(angles.pitch(), Vector3.X_AXIS);
-        q = Quaternion.fromAxisAngle(angles.yaw(), Vector3.Y_AXIS).mul(q);
-        q = Quaternion.fromAxisAngle(angles.roll(), Vector3.Z_AXIS).mul(q);
-        return LocalTransform.of(parent, q, position);
+        return LocalTransform.of(parent, angles.toRotationQuaternion(), position);
     }
 
-    @Getter @Setter @NonNull private Transform parent; 
+    @Getter @NonNull private volatile Transform parent;
 
     /**
      * Create a transform whose local coordinate system is itself embedded in the parent's
@@ -43,15 +40,39 @@ public class LocalTransform extends WorldTransform {
     public LocalTransform(@NonNull Transform parent, @NonNull Quaternion rotation, @NonNull Vector3 position) {
         super(rotation, position);
         this.parent = parent;
+        if(parent instanceof WorldTransform) ((WorldTransform) parent).addChild(this);
+    }
+
+    public void setParent(@NonNull Transform parent) {
+        for(Transform t = parent; t instanceof LocalTransform; t = ((LocalTransform) t).parent) {
+            if(t == this) throw new IllegalArgumentException("A transform cannot be its own ancestor.");
+        }
+
+        if(this.parent instanceof WorldTransform) ((WorldTransform) this.parent).removeChild(this);
+        this.parent = parent;
+        if(parent instanceof WorldTransform) ((WorldTransform) parent).addChild(this);
+        invalidate();
     }
 
     @Override
     public Vector3 toWorld(@NonNull Vector3 localPosition) {
-        return parent.toWorld(super.toWorld(localPosition));
+        val frame = frame();
+        if(frame.rotation == null) return parent.toWorld(super.toWorld(localPosition));
+        return frame.position.add(frame.rotation.conjugate(localPosition));
     }
 
     @Override
     public Vector3 toLocal(@NonNull Vector3 worldPosition) {
-        return super.toLocal(parent.toLocal(worldPosition));
+        val frame = frame();
+        if(frame.rotation == null) return super.toLocal(parent.toLocal(worldPosition));
+        return frame.rotation.conjugateInverse(worldPosition.sub(frame.position));
+    }
+
+    @Override
+    Frame resolveFrame() {
+        if(!(parent instanceof WorldTransform)) return Frame.UNCOLLAPSIBLE;
+        val p = ((WorldTransform) parent).frame();
+        if(p.rotation == null) return Frame.UNCOLLAPSIBLE;
+        return new Frame(p.rotation.mul(getRotation()), p.position.add(p.rotation.conjugate(getPosition())));
     }
 }
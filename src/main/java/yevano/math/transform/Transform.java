@@ -2,6 +2,7 @@ package yevano.math.transform;
 
 import lombok.NonNull;
 import yevano.math.vector.Vector3;
+import yevano.math.vector.Vector3Array;
 
 public interface Transform {
     /**
@@ -17,4 +18,54 @@ public interface Transform {
      * @return
      */
     public Vector3 toLocal(@NonNull Vector3 worldPosition);
+
+    /**
+     * Converts <code>count</code> points packed as (x, y, z) triples in <code>src</code> to world
+     * coordinates, writing them to <code>dst</code>, which may be the same array.
+     * <p>
+     * The default implementation calls {@link #toWorld(Vector3)} for every point; rigid transforms
+     * override it to resolve their world rotation and position once per batch instead.
+     * @param src
+     * @param dst
+     * @param count
+     */
+    public default void toWorld(@NonNull double[] src, @NonNull double[] dst, int count) {
+        BatchTransforms.checkBuffers(src, dst, count);
+        BatchTransforms.toWorldPointwise(this, src, dst, count);
+    }
+
+    /**
+     * Converts <code>count</code> points packed as (x, y, z) triples in <code>src</code> to this
+     * transform's local coordinate system, writing them to <code>dst</code>, which may be the same
+     * array.
+     * @param src
+     * @param dst
+     * @param count
+     */
+    public default void toLocal(@NonNull double[] src, @NonNull double[] dst, int count) {
+        BatchTransforms.checkBuffers(src, dst, count);
+        BatchTransforms.toLocalPointwise(this, src, dst, count);
+    }
+
+    /**
+     * Converts every point in <code>src</code> to world coordinates, writing them to
+     * <code>dst</code>, which may be the same batch.
+     * @param src
+     * @param dst
+     */
+    public default void toWorld(@NonNull Vector3Array src, @NonNull Vector3Array dst) {
+        BatchTransforms.checkBuffers(src, dst);
+        BatchTransforms.toWorldPointwise(this, src, dst);
+    }
+
+    /**
+     * Converts every point in <code>src</code> to this transform's local coordinate system,
+     * writing them to <code>dst</code>, which may be the same batch.
+     * @param src
+     * @param dst
+     */
+    public default void toLocal(@NonNull Vector3Array src, @NonNull Vector3Array dst) {
+        BatchTransforms.checkBuffers(src, dst);
+        BatchTransforms.toLocalPointwise(this, src, dst);
+    }
 }
@@ -3,6 +3,7 @@ package yevano.math.transform;
 import lombok.NonNull;
 import yevano.math.rotation.Quaternion;
 import yevano.math.vector.Vector3;
+import yevano.math.vector.Vector3Array;
 
 public interface TransformAdapter extends Transform {
     public Vector3 getPosition();
@@ -15,6 +16,30 @@ public interface TransformAdapter extends Transform {
 
     @Override
     public default Vector3 toLocal(@NonNull Vector3 worldPosition) {
-        return this.getRotation().inv().conjugate(getPosition().neg().add(worldPosition));
+        return this.getRotation().conjugateInverse(worldPosition.sub(getPosition()));
+    }
+
+    @Override
+    public default void toWorld(@NonNull double[] src, @NonNull double[] dst, int count) {
+        BatchTransforms.checkBuffers(src, dst, count);
+        BatchTransforms.toWorld(getRotation(), getPosition(), src, dst, count);
+    }
+
+    @Override
+    public default void toLocal(@NonNull double[] src, @NonNull double[] dst, int count) {
+        BatchTransforms.checkBuffers(src, dst, count);
+        BatchTransforms.toLocal(getRotation(), getPosition(), src, dst, count);
+    }
+
+    @Override
+    public default void toWorld(@NonNull Vector3Array src, @NonNull Vector3Array dst) {
+        BatchTransforms.checkBuffers(src, dst);
+        BatchTransforms.toWorld(getRotation(), getPosition(), src, dst);
+    }
+
+    @Override
+    public default void toLocal(@NonNull Vector3Array src, @NonNull Vector3Array dst) {
+        BatchTransforms.checkBuffers(src, dst);
+        BatchTransforms.toLocal(getRotation(), getPosition(), src, dst);
     }
 }
@@ -0,0 +1,437 @@
+package yevano.math.transform;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import lombok.NonNull;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+import yevano.math.rotation.Quaternion;
+import yevano.math.vector.Vector3;
+
+/**
+ * A forest of rigid transforms stored as flat primitive arrays instead of linked
+ * {@link LocalTransform} objects. Node i has a parent index smaller than i (or
+ * {@link #NO_PARENT}), and its local and world rotations and positions are kept as one array per
+ * component, so {@link #update()} resolves every world frame in a single forward pass without
+ * chasing references.
+ * <p>
+ * Changing a local frame marks the node dirty; an update only recomputes dirty nodes and their
+ * descendants, starting at the lowest dirty index. {@link #updateParallel(ForkJoinPool)} runs the
+ * same pass over independent subtrees in parallel.
+ * <p>
+ * {@link #node(int)} hands out {@link Node} handles which implement {@link Transform}, and bring
+ * the hierarchy up to date before they are read. The world frames are computed exactly as a chain
+ * of {@link LocalTransform}s would compute them. A hierarchy is not safe for concurrent
+ * modification.
+ */
+public class TransformHierarchy {
+    public static final int NO_PARENT = -1;
+
+    /**
+     * Below this many nodes to update, {@link #updateParallel(ForkJoinPool)} runs on the calling
+     * thread, and no parallel task is given fewer nodes than this.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private int size;
+    private int[] parent;
+    private int[] depth;
+    private double[] la, lb, lc, ld, lx, ly, lz;
+    private double[] wa, wb, wc, wd, wx, wy, wz;
+
+    /*
+     * Nodes from dirtyFrom on may be out of date, and exactly those with dirty[i] set need to be
+     * recomputed along with their descendants. During a pass dirty[i] is also set on every node
+     * which was recomputed, so that its children see it; the flags are cleared afterwards.
+     */
+    private boolean[] dirty;
+    private int dirtyFrom;
+
+    private Schedule schedule;
+
+    public TransformHierarchy() {
+        this(16);
+    }
+
+    public TransformHierarchy(int capacity) {
+        if(capacity < 0) throw new IllegalArgumentException("Capacity must not be negative.");
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a root node.
+     * @return The index of the new node.
+     */
+    public int add(@NonNull Quaternion rotation, @NonNull Vector3 position) {
+        return add(NO_PARENT, rotation, position);
+    }
+
+    /**
+     * Adds a node whose local frame is embedded in the frame of node <code>parent</code>.
+     * @param parent The index of an existing node, or {@link #NO_PARENT}.
+     * @return The index of the new node.
+     */
+    public int add(int parent, @NonNull Quaternion rotation, @NonNull Vector3 position) {
+        if(parent != NO_PARENT) checkIndex(parent);
+        if(size == this.parent.length) allocate(Math.max(16, size * 2));
+
+        int i = size++;
+        this.parent[i] = parent;
+        depth[i] = parent == NO_PARENT ? 0 : depth[parent] + 1;
+        schedule = null;
+        setLocal(i, rotation.a(), rotation.b(), rotation.c(), rotation.d(), position.x(), position.y(), position.z());
+        return i;
+    }
+
+    /**
+     * @return The index of the parent of node i, or {@link #NO_PARENT}.
+     */
+    public int parent(int i) {
+        checkIndex(i);
+        return parent[i];
+    }
+
+    public Node node(int i) {
+        checkIndex(i);
+        return new Node(i);
+    }
+
+    public Quaternion localRotation(int i) {
+        checkIndex(i);
+        return Quaternion.of(la[i], lb[i], lc[i], ld[i]);
+    }
+
+    public Vector3 localPosition(int i) {
+        checkIndex(i);
+        return Vector3.of(lx[i], ly[i], lz[i]);
+    }
+
+    public void setLocalRotation(int i, @NonNull Quaternion rotation) {
+        checkIndex(i);
+        setLocal(i, rotation.a(), rotation.b(), rotation.c(), rotation.d(), lx[i], ly[i], lz[i]);
+    }
+
+    public void setLocalPosition(int i, @NonNull Vector3 position) {
+        checkIndex(i);
+        setLocal(i, la[i], lb[i], lc[i], ld[i], position.x(), position.y(), position.z());
+    }
+
+    /**
+     * Sets the local rotation 𝑎 + 𝑏𝒊 + 𝑐𝒋 + 𝑑𝒌 and the local position (x, y, z) of node i without
+     * allocating, e.g. when copying animation data in.
+     */
+    public void setLocal(int i, double a, double b, double c, double d, double x, double y, double z) {
+        checkIndex(i);
+        la[i] = a;
+        lb[i] = b;
+        lc[i] = c;
+        ld[i] = d;
+        lx[i] = x;
+        ly[i] = y;
+        lz[i] = z;
+        dirty[i] = true;
+        dirtyFrom = Math.min(dirtyFrom, i);
+    }
+
+    /**
+     * The rotation from node i's local coordinates to world coordinates. Updates the hierarchy
+     * first if it is dirty.
+     */
+    public Quaternion worldRotation(int i) {
+        checkIndex(i);
+        update();
+        return Quaternion.of(wa[i], wb[i], wc[i], wd[i]);
+    }
+
+    /**
+     * The origin of node i's local coordinates in world coordinates. Updates the hierarchy first
+     * if it is dirty.
+     */
+    public Vector3 worldPosition(int i) {
+        checkIndex(i);
+        update();
+        return Vector3.of(wx[i], wy[i], wz[i]);
+    }
+
+    public boolean isDirty() {
+        return dirtyFrom < size;
+    }
+
+    /**
+     * Recomputes the world frames of all dirty nodes and their descendants, in index order.
+     */
+    public void update() {
+        if(dirtyFrom >= size) return;
+        Metrics.count(Counter.HIERARCHY_UPDATE);
+        Metrics.add(Counter.HIERARCHY_NODES, size - dirtyFrom);
+        for(int i = dirtyFrom; i < size; i++) resolve(i);
+        clean();
+    }
+
+    /**
+     * Runs {@link #updateParallel(ForkJoinPool)} in the common pool.
+     */
+    public void updateParallel() {
+        updateParallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like {@link #update()}, but splits the forest at the shallowest depth with enough nodes to
+     * keep the pool busy: the nodes above that depth are resolved first, then the subtrees below
+     * it are resolved in parallel, each in index order. The result is identical to
+     * {@link #update()}. Updates of fewer than {@link #PARALLEL_THRESHOLD} nodes run on the
+     * calling thread.
+     */
+    public void updateParallel(@NonNull ForkJoinPool pool) {
+        if(dirtyFrom >= size) return;
+
+        if(size - dirtyFrom < PARALLEL_THRESHOLD) {
+            update();
+            return;
+        }
+
+        int target = 4 * pool.getParallelism();
+        if(schedule == null || schedule.target != target) schedule = new Schedule(target);
+        Schedule s = schedule;
+        Metrics.count(Counter.HIERARCHY_UPDATE);
+        Metrics.add(Counter.HIERARCHY_NODES, size);
+
+        for(int k = 0; k < s.groupStart[0]; k++) resolve(s.order[k]);
+        pool.invoke(new UpdateTask(s, 0, s.groupStart.length - 1));
+        clean();
+    }
+
+    /**
+     * Recomputes node i if it or its parent is dirty.
+     */
+    private void resolve(int i) {
+        int p = parent[i];
+
+        if(p == NO_PARENT) {
+            if(!dirty[i]) return;
+            wa[i] = la[i];
+            wb[i] = lb[i];
+            wc[i] = lc[i];
+            wd[i] = ld[i];
+            wx[i] = lx[i];
+            wy[i] = ly[i];
+            wz[i] = lz[i];
+            return;
+        }
+
+        if(!dirty[i] && !dirty[p]) return;
+        dirty[i] = true;
+
+        // World rotation 𝒑𝒒, with 𝒑 the parent's world rotation and 𝒒 the local one.
+        double a1 = wa[p], b1 = wb[p], c1 = wc[p], d1 = wd[p];
+        double a2 = la[i], b2 = lb[i], c2 = lc[i], d2 = ld[i];
+        wa[i] = a1 * a2 - b1 * b2 - c1 * c2 - d1 * d2;
+        wb[i] = a1 * b2 + b1 * a2 + c1 * d2 - d1 * c2;
+        wc[i] = a1 * c2 - b1 * d2 + c1 * a2 + d1 * b2;
+        wd[i] = a1 * d2 + b1 * c2 - c1 * b2 + d1 * a2;
+
+        // World position t + 𝒑𝑣𝒑⁻¹, the same sandwich product as Quaternion.conjugate(Vector3).
+        double x = lx[i], y = ly[i], z = lz[i];
+        double n = a1 * a1 + b1 * b1 + c1 * c1 + d1 * d1;
+        double s = n == 1.0 ? 2.0 : 2.0 / n;
+        double tx = c1 * z - d1 * y;
+        double ty = d1 * x - b1 * z;
+        double tz = b1 * y - c1 * x;
+        double ux = c1 * tz - d1 * ty;
+        double uy = d1 * tx - b1 * tz;
+        double uz = b1 * ty - c1 * tx;
+        wx[i] = wx[p] + (x + s * (a1 * tx + ux));
+        wy[i] = wy[p] + (y + s * (a1 * ty + uy));
+        wz[i] = wz[p] + (z + s * (a1 * tz + uz));
+    }
+
+    private void clean() {
+        Arrays.fill(dirty, dirtyFrom, size, false);
+        dirtyFrom = size;
+    }
+
+    private void allocate(int capacity) {
+        parent = parent == null ? new int[capacity] : Arrays.copyOf(parent, capacity);
+        depth = depth == null ? new int[capacity] : Arrays.copyOf(depth, capacity);
+        dirty = dirty == null ? new boolean[capacity] : Arrays.copyOf(dirty, capacity);
+        la = grow(la, capacity);
+        lb = grow(lb, capacity);
+        lc = grow(lc, capacity);
+        ld = grow(ld, capacity);
+        lx = grow(lx, capacity);
+        ly = grow(ly, capacity);
+        lz = grow(lz, capacity);
+        wa = grow(wa, capacity);
+        wb = grow(wb, capacity);
+        wc = grow(wc, capacity);
+        wd = grow(wd, capacity);
+        wx = grow(wx, capacity);
+        wy = grow(wy, capacity);
+        wz = grow(wz, capacity);
+    }
+
+    private static double[] grow(double[] a, int capacity) {
+        return a == null ? new double[capacity] : Arrays.copyOf(a, capacity);
+    }
+
+    private void checkIndex(int i) {
+        if(i < 0 || i >= size) throw new IndexOutOfBoundsException("No node " + i + ".");
+    }
+
+    /**
+     * A partition of the nodes for {@link #updateParallel(ForkJoinPool)}: the nodes above the
+     * split depth come first in <code>order</code>, followed by one group per subtree rooted at
+     * the split depth. Every group lists its nodes in index order, so parents precede children.
+     * Rebuilt whenever a node is added.
+     */
+    private final class Schedule {
+        final int target;
+        final int[] order;
+        /** Group g is order[groupStart[g]] to order[groupStart[g + 1]]. */
+        final int[] groupStart;
+
+        Schedule(int target) {
+            this.target = target;
+            int maxDepth = 0;
+            for(int i = 0; i < size; i++) maxDepth = Math.max(maxDepth, depth[i]);
+            int[] count = new int[maxDepth + 1];
+            for(int i = 0; i < size; i++) count[depth[i]]++;
+
+            int split = 0;
+            for(int k = 1; k <= maxDepth; k++) if(count[k] > count[split]) split = k;
+            for(int k = 0; k <= maxDepth; k++) if(count[k] >= target) { split = k; break; }
+
+            // Group of every node, or -1 above the split depth; then a counting sort by group.
+            int[] group = new int[size];
+            int groups = 0;
+
+            for(int i = 0; i < size; i++) {
+                int d = depth[i];
+                group[i] = d < split ? -1 : d == split ? groups++ : group[parent[i]];
+            }
+
+            int[] start = new int[groups + 2];
+            for(int i = 0; i < size; i++) start[group[i] + 2]++;
+            for(int g = 1; g < start.length; g++) start[g] += start[g - 1];
+
+            order = new int[size];
+            for(int i = 0; i < size; i++) order[start[group[i] + 1]++] = i;
+            groupStart = Arrays.copyOf(start, groups + 1);
+        }
+    }
+
+    /**
+     * Splits a range of groups in halves until it holds a single group or fewer than
+     * {@link #PARALLEL_THRESHOLD} nodes, and resolves each range in order.
+     */
+    private final class UpdateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Schedule schedule;
+        private final int groupFrom;
+        private final int groupTo;
+
+        UpdateTask(Schedule schedule, int groupFrom, int groupTo) {
+            this.schedule = schedule;
+            this.groupFrom = groupFrom;
+            this.groupTo = groupTo;
+        }
+
+        @Override
+        protected void compute() {
+            int[] start = schedule.groupStart;
+            int from = start[groupFrom];
+            int to = start[groupTo];
+
+            if(groupTo - groupFrom <= 1 || to - from < 2 * PARALLEL_THRESHOLD) {
+                int[] order = schedule.order;
+                for(int k = from; k < to; k++) resolve(order[k]);
+                return;
+            }
+
+            int mid = (groupFrom + groupTo) >>> 1;
+            invokeAll(
+                new UpdateTask(schedule, groupFrom, mid),
+                new UpdateTask(schedule, mid, groupTo)
+            );
+        }
+    }
+
+    /**
+     * A handle to one node. Its {@link #getRotation()} and {@link #getPosition()} are the node's
+     * world frame, so the {@link Transform} methods map between its local coordinates and world
+     * coordinates like those of the equivalent {@link LocalTransform}.
+     */
+    public final class Node implements TransformAdapter {
+        private final int index;
+
+        private Node(int index) {
+            this.index = index;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        public TransformHierarchy hierarchy() {
+            return TransformHierarchy.this;
+        }
+
+        /**
+         * @return The parent node, or <code>null</code> for a root.
+         */
+        public Node parent() {
+            int p = parent[index];
+            return p == NO_PARENT ? null : new Node(p);
+        }
+
+        @Override
+        public Quaternion getRotation() {
+            return worldRotation(index);
+        }
+
+        @Override
+        public Vector3 getPosition() {
+            return worldPosition(index);
+        }
+
+        public Quaternion getLocalRotation() {
+            return localRotation(index);
+        }
+
+        public Vector3 getLocalPosition() {
+            return localPosition(index);
+        }
+
+        public void setLocalRotation(@NonNull Quaternion rotation) {
+            TransformHierarchy.this.setLocalRotation(index, rotation);
+        }
+
+        public void setLocalPosition(@NonNull Vector3 position) {
+            TransformHierarchy.this.setLocalPosition(index, position);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if(!(obj instanceof Node)) return false;
+            Node node = (Node) obj;
+            return node.index == index && node.hierarchy() == hierarchy();
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(hierarchy()) + index;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Node(%s)", index);
+        }
+    }
+}
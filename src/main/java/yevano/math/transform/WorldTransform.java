@@ -1,12 +1,28 @@
 package yevano.math.transform;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.Setter;
+import lombok.val;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
 import yevano.math.rotation.EulerAngles;
 import yevano.math.rotation.Quaternion;
 import yevano.math.vector.Vector3;
+import yevano.math.vector.Vector3Array;
 
+/**
+ * A rigid transform whose frame is given directly in world coordinates.
+ * <p>
+ * A transform's composed world frame is cached until it or one of its ancestors changes, and is
+ * published as a single immutable value, so reads may run concurrently from any number of
+ * threads. Changes are not synchronised with reads: a change must happen before the reads which
+ * should see it.
+ */
 public class WorldTransform implements Transform {
     public static final WorldTransform IDENTITY = WorldTransform.of(Quaternion.ONE, Vector3.ZERO);
 
@@ -23,20 +39,40 @@ public class WorldTransform implements Transform {
     }
 
     public static WorldTransform of(@NonNull EulerAngles angles, @NonNull Vector3 position) {
-        Quaternion q = Quaternion.fromAxisAngle(angles.pitch(), Vector3.X_AXIS);
-        q = Quaternion.fromAxisAngle(angles.yaw(), Vector3.Y_AXIS).mul(q);
-        q = Quaternion.fromAxisAngle(angles.roll(), Vector3.Z_AXIS).mul(q);
-        return WorldTransform.of(q, position);
+        return WorldTransform.of(angles.toRotationQuaternion(), position);
     }
 
-    @Getter @Setter private Quaternion rotation;
-    @Getter @Setter private Vector3 position;
+    @Getter private volatile Quaternion rotation;
+    @Getter private volatile Vector3 position;
+
+    /*
+     * The composed world frame, or null if it is out of date. A cached transform always has
+     * cached ancestors, so invalidation can stop at the first descendant which has no frame.
+     */
+    private volatile Frame frame;
+
+    /*
+     * Weak references to the LocalTransforms embedded in this one, guarded by the list itself.
+     * Cleared references are pruned when the list doubles in size.
+     */
+    private final List<WeakReference<LocalTransform>> children = new ArrayList<>();
+    private int pruneAt = 16;
 
     public WorldTransform(@NonNull Quaternion rotation, @NonNull Vector3 position) {
         this.rotation = rotation;
         this.position = position;
     }
 
+    public void setRotation(@NonNull Quaternion rotation) {
+        this.rotation = rotation;
+        invalidate();
+    }
+
+    public void setPosition(@NonNull Vector3 position) {
+        this.position = position;
+        invalidate();
+    }
+
     @Override
     public Vector3 toWorld(@NonNull Vector3 localPosition) {
         return this.position.add(rotation.conjugate(localPosition));
@@ -44,6 +80,128 @@ public class WorldTransform implements Transform {
 
     @Override
     public Vector3 toLocal(@NonNull Vector3 worldPosition) {
-        return this.rotation.inv().conjugate(position.neg().add(worldPosition));
+        return this.rotation.conjugateInverse(worldPosition.sub(position));
+    }
+
+    /**
+     * The composed world frame of this transform, resolved if it is not cached.
+     */
+    Frame frame() {
+        Frame f = frame;
+        if(f != null) return f;
+
+        Metrics.count(Counter.TRANSFORM_RESOLVE);
+        f = resolveFrame();
+        frame = f;
+        return f;
+    }
+
+    Frame resolveFrame() {
+        return new Frame(rotation, position);
+    }
+
+    /**
+     * Drops the cached world frame of this transform and all of its descendants.
+     */
+    void invalidate() {
+        if(frame == null) return;
+        frame = null;
+
+        synchronized(children) {
+            for(Iterator<WeakReference<LocalTransform>> it = children.iterator(); it.hasNext();) {
+                val child = it.next().get();
+
+                if(child == null) {
+                    it.remove();
+                } else {
+                    child.invalidate();
+                }
+            }
+        }
+    }
+
+    void addChild(@NonNull LocalTransform child) {
+        synchronized(children) {
+            if(children.size() >= pruneAt) {
+                children.removeIf(ref -> ref.get() == null);
+                pruneAt = Math.max(16, 2 * children.size());
+            }
+
+            children.add(new WeakReference<>(child));
+        }
+    }
+
+    void removeChild(@NonNull LocalTransform child) {
+        synchronized(children) {
+            children.removeIf(ref -> {
+                val c = ref.get();
+                return c == null || c == child;
+            });
+        }
+    }
+
+    /**
+     * A composed world frame: the rotation from local to world coordinates and the origin of the
+     * local coordinates. The rotation is <code>null</code> if an ancestor is not a
+     * {@link WorldTransform} and the chain cannot be collapsed.
+     */
+    static final class Frame {
+        static final Frame UNCOLLAPSIBLE = new Frame(null, null);
+
+        final Quaternion rotation;
+        final Vector3 position;
+
+        Frame(Quaternion rotation, Vector3 position) {
+            this.rotation = rotation;
+            this.position = position;
+        }
+    }
+
+    @Override
+    public void toWorld(@NonNull double[] src, @NonNull double[] dst, int count) {
+        BatchTransforms.checkBuffers(src, dst, count);
+        val frame = frame();
+
+        if(frame.rotation == null) {
+            BatchTransforms.toWorldPointwise(this, src, dst, count);
+        } else {
+            BatchTransforms.toWorld(frame.rotation, frame.position, src, dst, count);
+        }
+    }
+
+    @Override
+    public void toLocal(@NonNull double[] src, @NonNull double[] dst, int count) {
+        BatchTransforms.checkBuffers(src, dst, count);
+        val frame = frame();
+
+        if(frame.rotation == null) {
+            BatchTransforms.toLocalPointwise(this, src, dst, count);
+        } else {
+            BatchTransforms.toLocal(frame.rotation, frame.position, src, dst, count);
+        }
+    }
+
+    @Override
+    public void toWorld(@NonNull Vector3Array src, @NonNull Vector3Array dst) {
+        BatchTransforms.checkBuffers(src, dst);
+        val frame = frame();
+
+        if(frame.rotation == null) {
+            BatchTransforms.toWorldPointwise(this, src, dst);
+        } else {
+            BatchTransforms.toWorld(frame.rotation, frame.position, src, dst);
+        }
+    }
+
+    @Override
+    public void toLocal(@NonNull Vector3Array src, @NonNull Vector3Array dst) {
+        BatchTransforms.checkBuffers(src, dst);
+        val frame = frame();
+
+        if(frame.rotation == null) {
+            BatchTransforms.toLocalPointwise(this, src, dst);
+        } else {
+            BatchTransforms.toLocal(frame.rotation, frame.position, src, dst);
+        }
     }
 }
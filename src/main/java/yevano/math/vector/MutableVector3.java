@@ -0,0 +1,180 @@
+package yevano.math.vector;
+
+import lombok.NonNull;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+import yevano.math.rotation.MutableQuaternion;
+import yevano.math.rotation.Quaternion;
+
+/**
+ * A 3-vector whose components can be changed in place. The <code>*Local</code> methods overwrite
+ * this vector with their result and return it, so a hot loop can reuse one instance instead of
+ * allocating a {@link Vector3} for every intermediate value.
+ */
+public class MutableVector3 implements Vector {
+    private double x;
+    private double y;
+    private double z;
+
+    public MutableVector3() {
+    }
+
+    public MutableVector3(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public MutableVector3(@NonNull Vector3 v) {
+        this(v.x(), v.y(), v.z());
+    }
+
+    public double x() {
+        return x;
+    }
+
+    public double y() {
+        return y;
+    }
+
+    public double z() {
+        return z;
+    }
+
+    @Override
+    public int dimensions() {
+        return 3;
+    }
+
+    @Override
+    public double getComponent(int i) {
+        switch(i) {
+            case 0: return x;
+            case 1: return y;
+            case 2: return z;
+            default: throw new IndexOutOfBoundsException();
+        }
+    }
+
+    @Override
+    public double[] getComponents() {
+        return new double[] { x, y, z };
+    }
+
+    public MutableVector3 set(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    public MutableVector3 set(@NonNull Vector3 v) {
+        return set(v.x(), v.y(), v.z());
+    }
+
+    public MutableVector3 set(@NonNull MutableVector3 v) {
+        return set(v.x, v.y, v.z);
+    }
+
+    public MutableVector3 addLocal(double x, double y, double z) {
+        return set(this.x + x, this.y + y, this.z + z);
+    }
+
+    public MutableVector3 addLocal(@NonNull Vector3 rhs) {
+        return addLocal(rhs.x(), rhs.y(), rhs.z());
+    }
+
+    public MutableVector3 addLocal(@NonNull MutableVector3 rhs) {
+        return addLocal(rhs.x, rhs.y, rhs.z);
+    }
+
+    public MutableVector3 mulLocal(double n) {
+        return set(x * n, y * n, z * n);
+    }
+
+    public MutableVector3 negLocal() {
+        return set(-x, -y, -z);
+    }
+
+    public MutableVector3 normalizeLocal() {
+        double len = length();
+        if(len == 0.0) throw new RuntimeException("Normalization on vectors with length zero is undefined.");
+        return mulLocal(1.0 / len);
+    }
+
+    public MutableVector3 crossLocal(double x, double y, double z) {
+        return set(
+            this.y * z - this.z * y,
+            this.z * x - this.x * z,
+            this.x * y - this.y * x);
+    }
+
+    public MutableVector3 crossLocal(@NonNull Vector3 rhs) {
+        return crossLocal(rhs.x(), rhs.y(), rhs.z());
+    }
+
+    public MutableVector3 crossLocal(@NonNull MutableVector3 rhs) {
+        return crossLocal(rhs.x, rhs.y, rhs.z);
+    }
+
+    public double dot(@NonNull MutableVector3 rhs) {
+        return x * rhs.x + y * rhs.y + z * rhs.z;
+    }
+
+    @Override
+    public double length2() {
+        return x * x + y * y + z * z;
+    }
+
+    /**
+     * Conjugates this vector by the quaternion 𝑎 + 𝑏𝒊 + 𝑐𝒋 + 𝑑𝒌, treating it as a vector
+     * quaternion, i.e. rotates it in place.
+     */
+    public MutableVector3 rotateLocal(double a, double b, double c, double d) {
+        Metrics.count(Counter.QUATERNION_CONJUGATE);
+        // 𝒒𝑣𝒒⁻¹ = 𝑣 + 2/|𝒒|²·(𝑎(𝑢×𝑣) + 𝑢×(𝑢×𝑣)), where 𝑢 = (𝑏, 𝑐, 𝑑).
+        double n = a * a + b * b + c * c + d * d;
+        double s = n == 1.0 ? 2.0 : 2.0 / n;
+        double tx = c * z - d * y;
+        double ty = d * x - b * z;
+        double tz = b * y - c * x;
+        double ux = c * tz - d * ty;
+        double uy = d * tx - b * tz;
+        double uz = b * ty - c * tx;
+        return set(
+            x + s * (a * tx + ux),
+            y + s * (a * ty + uy),
+            z + s * (a * tz + uz));
+    }
+
+    public MutableVector3 rotateLocal(@NonNull Quaternion q) {
+        return rotateLocal(q.a(), q.b(), q.c(), q.d());
+    }
+
+    public MutableVector3 rotateLocal(@NonNull MutableQuaternion q) {
+        return rotateLocal(q.a(), q.b(), q.c(), q.d());
+    }
+
+    public Vector3 toVector3() {
+        return Vector3.of(x, y, z);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Vector && equals((Vector) obj);
+    }
+
+    /**
+     * Changes whenever the components do, so a mutable vector must not be changed while it is a
+     * key in a hash-based collection.
+     */
+    @Override
+    public int hashCode() {
+        return Vector.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + x + ", " + y + ", " + z + "]";
+    }
+}
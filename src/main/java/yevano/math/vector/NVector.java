@@ -4,6 +4,8 @@ import java.util.Arrays;
 
 import lombok.NonNull;
 import lombok.val;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
 
 public class NVector implements Vector {
     public static NVector variadic(double... components) {
@@ -13,10 +15,12 @@ public class NVector implements Vector {
     private final double[] components;
 
     protected NVector(@NonNull double... components) {
+        Metrics.count(Counter.NVECTOR_ALLOCATION);
         this.components = Arrays.copyOf(components, components.length);
     }
 
     protected NVector(@NonNull Vector vector) {
+        Metrics.count(Counter.NVECTOR_ALLOCATION);
         this.components = vector.getComponents();
     }
 
@@ -40,6 +44,11 @@ public class NVector implements Vector {
         return obj instanceof Vector && equals((Vector) obj);
     }
 
+    @Override
+    public int hashCode() {
+        return Vector.hashCode(this);
+    }
+
     @Override
     public String toString() {
         val sb = new StringBuilder();
@@ -1,7 +1,12 @@
 package yevano.math.vector;
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
 import lombok.NonNull;
 import lombok.val;
+import yevano.math.Components;
 import yevano.math.matrix.MNMatrix;
 import yevano.math.matrix.Matrix;
 
@@ -84,17 +89,59 @@ public interface Vector {
         return Math.sqrt(length2());
     }
 
+    /**
+     * Compares the components of two vectors of any class, as defined by
+     * {@link Components#equal(double, double)}, so e.g. a {@link Vector3} equals an
+     * {@link NVector} with the same three components.
+     */
     public default boolean equals(Vector rhs) {
         if(dimensions() != rhs.dimensions()) return false;
         for(int i = 0; i < dimensions(); i++) {
-            if(getComponent(i) != rhs.getComponent(i)) return false;
+            if(!Components.equal(getComponent(i), rhs.getComponent(i))) return false;
         }
         return true;
     }
 
+    /**
+     * The hash code of every vector class, consistent with {@link #equals(Vector)}: the
+     * polynomial hash of the components, like {@link java.util.Arrays#hashCode(double[])}, but
+     * with {@link Components#hash(double)} for each.
+     */
+    public static int hashCode(@NonNull Vector v) {
+        int h = 1;
+        for(int i = 0; i < v.dimensions(); i++) h = 31 * h + Components.hash(v.getComponent(i));
+        return h;
+    }
+
     public default Vector normalized() {
         double len = length();
         if(len == 0.0) throw new RuntimeException("Normalization on vectors with length zero is undefined.");
         return mul(1.0 / len);
     }
+
+    /**
+     * Writes the components of this vector to <code>dst</code>, starting at absolute index
+     * <code>index</code>, without changing the buffer's position and without copying them into an
+     * intermediate array.
+     * @throws IndexOutOfBoundsException if the buffer's limit is too small.
+     */
+    public default void writeTo(@NonNull DoubleBuffer dst, int index) {
+        for(int i = 0; i < dimensions(); i++) dst.put(index + i, getComponent(i));
+    }
+
+    /**
+     * Like {@link #writeTo(DoubleBuffer, int)}, rounding every component to the nearest float.
+     */
+    public default void writeTo(@NonNull FloatBuffer dst, int index) {
+        for(int i = 0; i < dimensions(); i++) dst.put(index + i, (float) getComponent(i));
+    }
+
+    /**
+     * Like {@link #writeTo(DoubleBuffer, int)}, starting at the absolute byte offset
+     * <code>offset</code> and in the buffer's byte order. Components are written as 8-byte doubles,
+     * or as 4-byte floats by the single-precision types such as {@link Vector3f}.
+     */
+    public default void writeTo(@NonNull ByteBuffer dst, int offset) {
+        for(int i = 0; i < dimensions(); i++) dst.putDouble(offset + i * Double.BYTES, getComponent(i));
+    }
 }
@@ -1,9 +1,15 @@
 package yevano.math.vector;
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
 import lombok.NonNull;
 import lombok.val;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
 
-public class Vector2 extends NVector {
+public class Vector2 implements Vector {
     public static final Vector2 ZERO = new Vector2(0, 0);
     public static final Vector2 X_AXIS = new Vector2(1, 0);
     public static final Vector2 Y_AXIS = new Vector2(0, 1);
@@ -12,41 +18,144 @@ public class Vector2 extends NVector {
         return new Vector2(x, y);
     }
 
+    /**
+     * Reads 2 consecutive components starting at absolute index <code>index</code>, without
+     * changing the buffer's position.
+     */
+    public static Vector2 readFrom(@NonNull DoubleBuffer src, int index) {
+        return Vector2.of(src.get(index), src.get(index + 1));
+    }
+
+    public static Vector2 readFrom(@NonNull FloatBuffer src, int index) {
+        return Vector2.of(src.get(index), src.get(index + 1));
+    }
+
+    /**
+     * Reads 2 consecutive doubles starting at the absolute byte offset <code>offset</code>, in
+     * the buffer's byte order.
+     */
+    public static Vector2 readFrom(@NonNull ByteBuffer src, int offset) {
+        return Vector2.of(src.getDouble(offset), src.getDouble(offset + Double.BYTES));
+    }
+
+    private final double x;
+    private final double y;
+
     public Vector2(double x, double y) {
-        super(x, y);
+        Metrics.count(Counter.VECTOR_ALLOCATION);
+        this.x = x;
+        this.y = y;
     }
 
     public Vector2(@NonNull Vector rhs) {
-        super(rhs);
+        Metrics.count(Counter.VECTOR_ALLOCATION);
         val message = String.format("Expected a 2-vector, but got a %s-vector.", rhs.dimensions());
         if(rhs.dimensions() != 2) throw new IllegalArgumentException(message);
+        this.x = rhs.getComponent(0);
+        this.y = rhs.getComponent(1);
     }
 
     public double x() {
-        return getComponent(0);
+        return x;
     }
 
     public double y() {
-        return getComponent(1);
+        return y;
+    }
+
+    @Override
+    public int dimensions() {
+        return 2;
+    }
+
+    @Override
+    public double getComponent(int i) {
+        switch(i) {
+            case 0: return x;
+            case 1: return y;
+            default: throw new IndexOutOfBoundsException();
+        }
+    }
+
+    @Override
+    public double[] getComponents() {
+        return new double[] { x, y };
+    }
+
+    public Vector2 add(@NonNull Vector2 rhs) {
+        return Vector2.of(x + rhs.x, y + rhs.y);
     }
 
     @Override
     public Vector2 add(@NonNull Vector rhs) {
-        return new Vector2(super.add(rhs));
+        if(rhs instanceof Vector2) return add((Vector2) rhs);
+        if(rhs.dimensions() != 2) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        return Vector2.of(x + rhs.getComponent(0), y + rhs.getComponent(1));
+    }
+
+    public double dot(@NonNull Vector2 rhs) {
+        return x * rhs.x + y * rhs.y;
+    }
+
+    @Override
+    public double dot(@NonNull Vector rhs) {
+        if(rhs instanceof Vector2) return dot((Vector2) rhs);
+        if(rhs.dimensions() != 2) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        return x * rhs.getComponent(0) + y * rhs.getComponent(1);
     }
 
     @Override
     public Vector2 mul(double rhs) {
-        return new Vector2(super.mul(rhs));
+        return Vector2.of(x * rhs, y * rhs);
     }
 
     @Override
     public Vector2 neg() {
-        return new Vector2(super.neg());
+        return Vector2.of(-x, -y);
+    }
+
+    @Override
+    public double length2() {
+        return x * x + y * y;
     }
 
     @Override
     public Vector2 normalized() {
-        return new Vector2(super.normalized());
+        double len = length();
+        if(len == 0.0) throw new RuntimeException("Normalization on vectors with length zero is undefined.");
+        return mul(1.0 / len);
+    }
+
+    @Override
+    public void writeTo(@NonNull DoubleBuffer dst, int index) {
+        dst.put(index, x);
+        dst.put(index + 1, y);
+    }
+
+    @Override
+    public void writeTo(@NonNull FloatBuffer dst, int index) {
+        dst.put(index, (float) x);
+        dst.put(index + 1, (float) y);
+    }
+
+    @Override
+    public void writeTo(@NonNull ByteBuffer dst, int offset) {
+        dst.putDouble(offset, x);
+        dst.putDouble(offset + Double.BYTES, y);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Vector && equals((Vector) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return Vector.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + x + ", " + y + "]";
     }
-}
\ No newline at end of file
+}
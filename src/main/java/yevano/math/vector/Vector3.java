@@ -1,10 +1,17 @@
 package yevano.math.vector;
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
 import lombok.NonNull;
 import lombok.val;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+import yevano.math.Trig;
 import yevano.math.rotation.EulerAngles;
 
-public class Vector3 extends NVector {
+public class Vector3 implements Vector {
     public static final Vector3 ZERO = new Vector3(0, 0, 0);
     public static final Vector3 X_AXIS = new Vector3(1, 0, 0);
     public static final Vector3 Y_AXIS = new Vector3(0, 1, 0);
@@ -14,60 +21,225 @@ public class Vector3 extends NVector {
         return new Vector3(x, y, z);
     }
 
+    /**
+     * Reads 3 consecutive components starting at absolute index <code>index</code>, without
+     * changing the buffer's position.
+     */
+    public static Vector3 readFrom(@NonNull DoubleBuffer src, int index) {
+        return Vector3.of(src.get(index), src.get(index + 1), src.get(index + 2));
+    }
+
+    public static Vector3 readFrom(@NonNull FloatBuffer src, int index) {
+        return Vector3.of(src.get(index), src.get(index + 1), src.get(index + 2));
+    }
+
+    /**
+     * Reads 3 consecutive doubles starting at the absolute byte offset <code>offset</code>, in
+     * the buffer's byte order.
+     */
+    public static Vector3 readFrom(@NonNull ByteBuffer src, int offset) {
+        return Vector3.of(
+            src.getDouble(offset),
+            src.getDouble(offset + Double.BYTES),
+            src.getDouble(offset + 2 * Double.BYTES));
+    }
+
+    /**
+     * Writes <code>vectors</code> back to back, i.e. 3·<code>vectors.length</code> components,
+     * starting at absolute index <code>index</code>.
+     */
+    public static void writeTo(@NonNull Vector3[] vectors, @NonNull DoubleBuffer dst, int index) {
+        for(int i = 0; i < vectors.length; i++) vectors[i].writeTo(dst, index + 3 * i);
+    }
+
+    public static void writeTo(@NonNull Vector3[] vectors, @NonNull FloatBuffer dst, int index) {
+        for(int i = 0; i < vectors.length; i++) vectors[i].writeTo(dst, index + 3 * i);
+    }
+
+    /**
+     * Fills <code>dst</code> with vectors read back to back, starting at absolute index
+     * <code>index</code>.
+     */
+    public static void readFrom(@NonNull DoubleBuffer src, int index, @NonNull Vector3[] dst) {
+        for(int i = 0; i < dst.length; i++) dst[i] = readFrom(src, index + 3 * i);
+    }
+
+    public static void readFrom(@NonNull FloatBuffer src, int index, @NonNull Vector3[] dst) {
+        for(int i = 0; i < dst.length; i++) dst[i] = readFrom(src, index + 3 * i);
+    }
+
+    private final double x;
+    private final double y;
+    private final double z;
+
     public Vector3(@NonNull Vector rhs) {
-        super(rhs);
+        Metrics.count(Counter.VECTOR_ALLOCATION);
         val message = String.format("Expected a 3-vector, but got a %s-vector.", rhs.dimensions());
         if(rhs.dimensions() != 3) throw new IllegalArgumentException(message);
+        this.x = rhs.getComponent(0);
+        this.y = rhs.getComponent(1);
+        this.z = rhs.getComponent(2);
     }
 
     public Vector3(double x, double y, double z) {
-        super(x, y, z);
+        Metrics.count(Counter.VECTOR_ALLOCATION);
+        this.x = x;
+        this.y = y;
+        this.z = z;
     }
 
     public double x() {
-        return getComponent(0);
+        return x;
     }
 
     public double y() {
-        return getComponent(1);
+        return y;
     }
 
     public double z() {
-        return getComponent(2);
+        return z;
+    }
+
+    @Override
+    public int dimensions() {
+        return 3;
+    }
+
+    @Override
+    public double getComponent(int i) {
+        switch(i) {
+            case 0: return x;
+            case 1: return y;
+            case 2: return z;
+            default: throw new IndexOutOfBoundsException();
+        }
+    }
+
+    @Override
+    public double[] getComponents() {
+        return new double[] { x, y, z };
+    }
+
+    public Vector3 add(@NonNull Vector3 rhs) {
+        return Vector3.of(x + rhs.x, y + rhs.y, z + rhs.z);
     }
 
     @Override
     public Vector3 add(@NonNull Vector rhs) {
-        return new Vector3(super.add(rhs));
+        if(rhs instanceof Vector3) return add((Vector3) rhs);
+        if(rhs.dimensions() != 3) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        return Vector3.of(x + rhs.getComponent(0), y + rhs.getComponent(1), z + rhs.getComponent(2));
+    }
+
+    public Vector3 sub(@NonNull Vector3 rhs) {
+        return Vector3.of(x - rhs.x, y - rhs.y, z - rhs.z);
+    }
+
+    public double dot(@NonNull Vector3 rhs) {
+        return x * rhs.x + y * rhs.y + z * rhs.z;
+    }
+
+    @Override
+    public double dot(@NonNull Vector rhs) {
+        if(rhs instanceof Vector3) return dot((Vector3) rhs);
+        if(rhs.dimensions() != 3) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        return x * rhs.getComponent(0) + y * rhs.getComponent(1) + z * rhs.getComponent(2);
     }
 
     @Override
     public Vector3 mul(double rhs) {
-        return new Vector3(super.mul(rhs));
+        return Vector3.of(x * rhs, y * rhs, z * rhs);
     }
 
     @Override
     public Vector3 neg() {
-        return new Vector3(super.neg());
+        return Vector3.of(-x, -y, -z);
+    }
+
+    @Override
+    public double length2() {
+        return x * x + y * y + z * z;
     }
 
     @Override
     public Vector3 normalized() {
-        return new Vector3(super.normalized());
+        double len = length();
+        if(len == 0.0) throw new RuntimeException("Normalization on vectors with length zero is undefined.");
+        return mul(1.0 / len);
     }
 
     public Vector3 cross(@NonNull Vector3 rhs) {
         return Vector3.of(
-            y() * rhs.z() - z() * rhs.y(),
-            z() * rhs.x() - x() * rhs.z(),
-            x() * rhs.y() - y() * rhs.x());
+            y * rhs.z - z * rhs.y,
+            z * rhs.x - x * rhs.z,
+            x * rhs.y - y * rhs.x);
+    }
+
+    public MutableVector3 addInto(@NonNull Vector3 rhs, @NonNull MutableVector3 dest) {
+        return dest.set(x + rhs.x, y + rhs.y, z + rhs.z);
+    }
+
+    public MutableVector3 mulInto(double rhs, @NonNull MutableVector3 dest) {
+        return dest.set(x * rhs, y * rhs, z * rhs);
+    }
+
+    public MutableVector3 negInto(@NonNull MutableVector3 dest) {
+        return dest.set(-x, -y, -z);
+    }
+
+    public MutableVector3 normalizedInto(@NonNull MutableVector3 dest) {
+        return dest.set(this).normalizeLocal();
+    }
+
+    public MutableVector3 crossInto(@NonNull Vector3 rhs, @NonNull MutableVector3 dest) {
+        return dest.set(this).crossLocal(rhs);
     }
 
     public EulerAngles toAzimuthElevation() {
+        return toAzimuthElevation(Trig.EXACT);
+    }
+
+    public EulerAngles toAzimuthElevation(@NonNull Trig trig) {
         double pitch, yaw;
-        pitch = Math.atan2(y(), -z());
-        yaw = Math.atan2(z(), x());
+        pitch = trig.atan2(y, -z);
+        yaw = trig.atan2(z, x);
         if(yaw >= 0) pitch -= Math.PI;
         return EulerAngles.of(pitch, yaw, 0);
     }
+
+    @Override
+    public void writeTo(@NonNull DoubleBuffer dst, int index) {
+        dst.put(index, x);
+        dst.put(index + 1, y);
+        dst.put(index + 2, z);
+    }
+
+    @Override
+    public void writeTo(@NonNull FloatBuffer dst, int index) {
+        dst.put(index, (float) x);
+        dst.put(index + 1, (float) y);
+        dst.put(index + 2, (float) z);
+    }
+
+    @Override
+    public void writeTo(@NonNull ByteBuffer dst, int offset) {
+        dst.putDouble(offset, x);
+        dst.putDouble(offset + Double.BYTES, y);
+        dst.putDouble(offset + 2 * Double.BYTES, z);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Vector && equals((Vector) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return Vector.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + x + ", " + y + ", " + z + "]";
+    }
 }
@@ -0,0 +1,316 @@
+package yevano.math.vector;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
+import lombok.NonNull;
+import lombok.val;
+import yevano.math.matrix.Matrix3;
+
+/**
+ * A fixed-size batch of 3-vectors, stored as three primitive columns (structure of arrays) rather
+ * than as an array of {@link Vector3} objects.
+ * <p>
+ * The bulk operations take a range [<code>from</code>, <code>to</code>) and a destination, which
+ * may be <code>this</code> or one of the operands. Each of them is a plain counted loop per
+ * column, which is the shape HotSpot's superword pass turns into SIMD code.
+ */
+public class Vector3Array {
+    public static Vector3Array of(@NonNull Vector3... vectors) {
+        val result = new Vector3Array(vectors.length);
+        for(int i = 0; i < vectors.length; i++) result.set(i, vectors[i]);
+        return result;
+    }
+
+    private final int size;
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+
+    /**
+     * Create a batch of <code>size</code> zero vectors.
+     * @param size
+     */
+    public Vector3Array(int size) {
+        if(size < 0) throw new IllegalArgumentException("Size must not be negative.");
+        this.size = size;
+        this.x = new double[size];
+        this.y = new double[size];
+        this.z = new double[size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double x(int i) {
+        return x[i];
+    }
+
+    public double y(int i) {
+        return y[i];
+    }
+
+    public double z(int i) {
+        return z[i];
+    }
+
+    public Vector3 get(int i) {
+        return Vector3.of(x[i], y[i], z[i]);
+    }
+
+    public MutableVector3 getInto(int i, @NonNull MutableVector3 dest) {
+        return dest.set(x[i], y[i], z[i]);
+    }
+
+    public void set(int i, double x, double y, double z) {
+        this.x[i] = x;
+        this.y[i] = y;
+        this.z[i] = z;
+    }
+
+    public void set(int i, @NonNull Vector3 v) {
+        set(i, v.x(), v.y(), v.z());
+    }
+
+    public void set(int i, @NonNull MutableVector3 v) {
+        set(i, v.x(), v.y(), v.z());
+    }
+
+    /**
+     * dest[i] = this[i] + rhs[i] for every i in the range.
+     */
+    public void add(@NonNull Vector3Array rhs, @NonNull Vector3Array dest, int from, int to) {
+        checkRange(from, to, rhs, dest);
+        add(x, rhs.x, dest.x, from, to);
+        add(y, rhs.y, dest.y, from, to);
+        add(z, rhs.z, dest.z, from, to);
+    }
+
+    public void add(@NonNull Vector3Array rhs, @NonNull Vector3Array dest) {
+        add(rhs, dest, 0, size);
+    }
+
+    /**
+     * dest[i] = this[i] + offset for every i in the range.
+     */
+    public void add(@NonNull Vector3 offset, @NonNull Vector3Array dest, int from, int to) {
+        checkRange(from, to, dest);
+        add(x, offset.x(), dest.x, from, to);
+        add(y, offset.y(), dest.y, from, to);
+        add(z, offset.z(), dest.z, from, to);
+    }
+
+    /**
+     * dest[i] = this[i]·n for every i in the range.
+     */
+    public void scale(double n, @NonNull Vector3Array dest, int from, int to) {
+        checkRange(from, to, dest);
+        scale(x, n, dest.x, from, to);
+        scale(y, n, dest.y, from, to);
+        scale(z, n, dest.z, from, to);
+    }
+
+    public void scale(double n, @NonNull Vector3Array dest) {
+        scale(n, dest, 0, size);
+    }
+
+    /**
+     * dest[i] = this[i]·rhs[i] for every i in the range.
+     */
+    public void dot(@NonNull Vector3Array rhs, @NonNull double[] dest, int from, int to) {
+        checkRange(from, to, rhs);
+        checkLength(dest, to);
+        double[] ax = x, ay = y, az = z, bx = rhs.x, by = rhs.y, bz = rhs.z;
+
+        for(int i = from; i < to; i++) {
+            dest[i] = ax[i] * bx[i] + ay[i] * by[i] + az[i] * bz[i];
+        }
+    }
+
+    /**
+     * dest[i] = this[i] × rhs[i] for every i in the range.
+     */
+    public void cross(@NonNull Vector3Array rhs, @NonNull Vector3Array dest, int from, int to) {
+        checkRange(from, to, rhs, dest);
+        double[] ax = x, ay = y, az = z, bx = rhs.x, by = rhs.y, bz = rhs.z;
+        double[] cx = dest.x, cy = dest.y, cz = dest.z;
+
+        for(int i = from; i < to; i++) {
+            double tx = ay[i] * bz[i] - az[i] * by[i];
+            double ty = az[i] * bx[i] - ax[i] * bz[i];
+            double tz = ax[i] * by[i] - ay[i] * bx[i];
+            cx[i] = tx;
+            cy[i] = ty;
+            cz[i] = tz;
+        }
+    }
+
+    /**
+     * dest[i] = |this[i]| for every i in the range.
+     */
+    public void lengths(@NonNull double[] dest, int from, int to) {
+        checkRange(from, to);
+        checkLength(dest, to);
+        double[] ax = x, ay = y, az = z;
+
+        for(int i = from; i < to; i++) {
+            dest[i] = Math.sqrt(ax[i] * ax[i] + ay[i] * ay[i] + az[i] * az[i]);
+        }
+    }
+
+    /**
+     * dest[i] = this[i] / |this[i]| for every i in the range. Unlike {@link Vector3#normalized()}
+     * this does not check for zero vectors, which keeps the loop branch-free; they come out as NaN.
+     */
+    public void normalize(@NonNull Vector3Array dest, int from, int to) {
+        checkRange(from, to, dest);
+        double[] ax = x, ay = y, az = z;
+        double[] cx = dest.x, cy = dest.y, cz = dest.z;
+
+        for(int i = from; i < to; i++) {
+            double vx = ax[i], vy = ay[i], vz = az[i];
+            double inv = 1.0 / Math.sqrt(vx * vx + vy * vy + vz * vz);
+            cx[i] = vx * inv;
+            cy[i] = vy * inv;
+            cz[i] = vz * inv;
+        }
+    }
+
+    public void normalize(@NonNull Vector3Array dest) {
+        normalize(dest, 0, size);
+    }
+
+    /**
+     * dest[i] = m·this[i] + offset for every i in the range, e.g. to apply a rigid transform.
+     */
+    public void mulAdd(@NonNull Matrix3 m, @NonNull Vector3 offset, @NonNull Vector3Array dest, int from, int to) {
+        checkRange(from, to, dest);
+        double m11 = m.getComponent(0), m12 = m.getComponent(1), m13 = m.getComponent(2);
+        double m21 = m.getComponent(3), m22 = m.getComponent(4), m23 = m.getComponent(5);
+        double m31 = m.getComponent(6), m32 = m.getComponent(7), m33 = m.getComponent(8);
+        double tx = offset.x(), ty = offset.y(), tz = offset.z();
+        double[] ax = x, ay = y, az = z;
+        double[] cx = dest.x, cy = dest.y, cz = dest.z;
+
+        for(int i = from; i < to; i++) {
+            double vx = ax[i], vy = ay[i], vz = az[i];
+            cx[i] = m11 * vx + m12 * vy + m13 * vz + tx;
+            cy[i] = m21 * vx + m22 * vy + m23 * vz + ty;
+            cz[i] = m31 * vx + m32 * vy + m33 * vz + tz;
+        }
+    }
+
+    /**
+     * @return The component-wise minimum of the vectors in the range, i.e. the lower corner of
+     * their axis-aligned bounding box.
+     */
+    public Vector3 min(int from, int to) {
+        checkNonEmpty(from, to);
+        return Vector3.of(min(x, from, to), min(y, from, to), min(z, from, to));
+    }
+
+    /**
+     * @return The component-wise maximum of the vectors in the range, i.e. the upper corner of
+     * their axis-aligned bounding box.
+     */
+    public Vector3 max(int from, int to) {
+        checkNonEmpty(from, to);
+        return Vector3.of(max(x, from, to), max(y, from, to), max(z, from, to));
+    }
+
+    /**
+     * Writes the vectors in the range interleaved, i.e. as x, y, z triples, starting at absolute
+     * index <code>index</code>, without changing the buffer's position.
+     */
+    public void writeTo(@NonNull DoubleBuffer dst, int index, int from, int to) {
+        checkRange(from, to);
+        for(int i = from, at = index; i < to; i++, at += 3) {
+            dst.put(at, x[i]);
+            dst.put(at + 1, y[i]);
+            dst.put(at + 2, z[i]);
+        }
+    }
+
+    /**
+     * Like {@link #writeTo(DoubleBuffer, int, int, int)}, rounding every component to the nearest
+     * float.
+     */
+    public void writeTo(@NonNull FloatBuffer dst, int index, int from, int to) {
+        checkRange(from, to);
+        for(int i = from, at = index; i < to; i++, at += 3) {
+            dst.put(at, (float) x[i]);
+            dst.put(at + 1, (float) y[i]);
+            dst.put(at + 2, (float) z[i]);
+        }
+    }
+
+    /**
+     * Overwrites the vectors in the range with x, y, z triples read from absolute index
+     * <code>index</code> onwards, without changing the buffer's position.
+     */
+    public void readFrom(@NonNull DoubleBuffer src, int index, int from, int to) {
+        checkRange(from, to);
+        for(int i = from, at = index; i < to; i++, at += 3) {
+            x[i] = src.get(at);
+            y[i] = src.get(at + 1);
+            z[i] = src.get(at + 2);
+        }
+    }
+
+    public void readFrom(@NonNull FloatBuffer src, int index, int from, int to) {
+        checkRange(from, to);
+        for(int i = from, at = index; i < to; i++, at += 3) {
+            x[i] = src.get(at);
+            y[i] = src.get(at + 1);
+            z[i] = src.get(at + 2);
+        }
+    }
+
+    private static void add(double[] a, double[] b, double[] c, int from, int to) {
+        for(int i = from; i < to; i++) c[i] = a[i] + b[i];
+    }
+
+    private static void add(double[] a, double b, double[] c, int from, int to) {
+        for(int i = from; i < to; i++) c[i] = a[i] + b;
+    }
+
+    private static void scale(double[] a, double n, double[] c, int from, int to) {
+        for(int i = from; i < to; i++) c[i] = a[i] * n;
+    }
+
+    private static double min(double[] a, int from, int to) {
+        double result = a[from];
+        for(int i = from + 1; i < to; i++) result = Math.min(result, a[i]);
+        return result;
+    }
+
+    private static double max(double[] a, int from, int to) {
+        double result = a[from];
+        for(int i = from + 1; i < to; i++) result = Math.max(result, a[i]);
+        return result;
+    }
+
+    private void checkRange(int from, int to) {
+        if(from < 0 || from > to || to > size) throw new IndexOutOfBoundsException("Invalid range.");
+    }
+
+    private void checkRange(int from, int to, Vector3Array other) {
+        checkRange(from, to);
+        if(to > other.size) throw new IndexOutOfBoundsException("Invalid range.");
+    }
+
+    private void checkRange(int from, int to, Vector3Array a, Vector3Array b) {
+        checkRange(from, to, a);
+        if(to > b.size) throw new IndexOutOfBoundsException("Invalid range.");
+    }
+
+    private void checkNonEmpty(int from, int to) {
+        checkRange(from, to);
+        if(from == to) throw new IllegalArgumentException("Range must not be empty.");
+    }
+
+    private static void checkLength(double[] dest, int to) {
+        if(to > dest.length) throw new IndexOutOfBoundsException("Invalid range.");
+    }
+}
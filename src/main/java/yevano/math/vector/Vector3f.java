@@ -0,0 +1,225 @@
+package yevano.math.vector;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
+import lombok.NonNull;
+import lombok.val;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+import yevano.math.rotation.EulerAngles;
+
+/**
+ * A 3-vector with single-precision components, for data which ends up as floats anyway, e.g.
+ * vertex or instance buffers. Arithmetic between two Vector3f runs in float; conversions to and
+ * from {@link Vector3} round each component once.
+ */
+public class Vector3f implements Vector {
+    public static final Vector3f ZERO = new Vector3f(0, 0, 0);
+    public static final Vector3f X_AXIS = new Vector3f(1, 0, 0);
+    public static final Vector3f Y_AXIS = new Vector3f(0, 1, 0);
+    public static final Vector3f Z_AXIS = new Vector3f(0, 0, 1);
+
+    public static Vector3f of(float x, float y, float z) {
+        return new Vector3f(x, y, z);
+    }
+
+    /**
+     * Reads 3 consecutive components starting at absolute index <code>index</code>, without
+     * changing the buffer's position.
+     */
+    public static Vector3f readFrom(@NonNull DoubleBuffer src, int index) {
+        return Vector3f.of(
+            (float) src.get(index),
+            (float) src.get(index + 1),
+            (float) src.get(index + 2));
+    }
+
+    public static Vector3f readFrom(@NonNull FloatBuffer src, int index) {
+        return Vector3f.of(src.get(index), src.get(index + 1), src.get(index + 2));
+    }
+
+    /**
+     * Reads 3 consecutive floats starting at the absolute byte offset <code>offset</code>, in the
+     * buffer's byte order.
+     */
+    public static Vector3f readFrom(@NonNull ByteBuffer src, int offset) {
+        return Vector3f.of(
+            src.getFloat(offset),
+            src.getFloat(offset + Float.BYTES),
+            src.getFloat(offset + 2 * Float.BYTES));
+    }
+
+    /**
+     * Rounds every component of <code>v</code> to the nearest float.
+     */
+    public static Vector3f of(@NonNull Vector3 v) {
+        return new Vector3f((float) v.x(), (float) v.y(), (float) v.z());
+    }
+
+    private final float x;
+    private final float y;
+    private final float z;
+
+    public Vector3f(@NonNull Vector rhs) {
+        Metrics.count(Counter.VECTOR_ALLOCATION);
+        val message = String.format("Expected a 3-vector, but got a %s-vector.", rhs.dimensions());
+        if(rhs.dimensions() != 3) throw new IllegalArgumentException(message);
+        this.x = (float) rhs.getComponent(0);
+        this.y = (float) rhs.getComponent(1);
+        this.z = (float) rhs.getComponent(2);
+    }
+
+    public Vector3f(float x, float y, float z) {
+        Metrics.count(Counter.VECTOR_ALLOCATION);
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public float x() {
+        return x;
+    }
+
+    public float y() {
+        return y;
+    }
+
+    public float z() {
+        return z;
+    }
+
+    @Override
+    public int dimensions() {
+        return 3;
+    }
+
+    @Override
+    public double getComponent(int i) {
+        switch(i) {
+            case 0: return x;
+            case 1: return y;
+            case 2: return z;
+            default: throw new IndexOutOfBoundsException();
+        }
+    }
+
+    @Override
+    public double[] getComponents() {
+        return new double[] { x, y, z };
+    }
+
+    public Vector3f add(@NonNull Vector3f rhs) {
+        return Vector3f.of(x + rhs.x, y + rhs.y, z + rhs.z);
+    }
+
+    @Override
+    public Vector3f add(@NonNull Vector rhs) {
+        if(rhs instanceof Vector3f) return add((Vector3f) rhs);
+        if(rhs.dimensions() != 3) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        return Vector3f.of(
+            (float) (x + rhs.getComponent(0)),
+            (float) (y + rhs.getComponent(1)),
+            (float) (z + rhs.getComponent(2)));
+    }
+
+    public Vector3f sub(@NonNull Vector3f rhs) {
+        return Vector3f.of(x - rhs.x, y - rhs.y, z - rhs.z);
+    }
+
+    public float dot(@NonNull Vector3f rhs) {
+        return x * rhs.x + y * rhs.y + z * rhs.z;
+    }
+
+    @Override
+    public double dot(@NonNull Vector rhs) {
+        if(rhs instanceof Vector3f) return dot((Vector3f) rhs);
+        if(rhs.dimensions() != 3) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        return x * rhs.getComponent(0) + y * rhs.getComponent(1) + z * rhs.getComponent(2);
+    }
+
+    @Override
+    public Vector3f mul(double rhs) {
+        return mul((float) rhs);
+    }
+
+    public Vector3f mul(float rhs) {
+        return Vector3f.of(x * rhs, y * rhs, z * rhs);
+    }
+
+    @Override
+    public Vector3f neg() {
+        return Vector3f.of(-x, -y, -z);
+    }
+
+    @Override
+    public double length2() {
+        return x * x + y * y + z * z;
+    }
+
+    @Override
+    public Vector3f normalized() {
+        float len = (float) length();
+        if(len == 0.0f) throw new RuntimeException("Normalization on vectors with length zero is undefined.");
+        return mul(1 / len);
+    }
+
+    public Vector3f cross(@NonNull Vector3f rhs) {
+        return Vector3f.of(
+            y * rhs.z - z * rhs.y,
+            z * rhs.x - x * rhs.z,
+            x * rhs.y - y * rhs.x);
+    }
+
+    public EulerAngles toAzimuthElevation() {
+        double pitch, yaw;
+        pitch = Math.atan2(y, -z);
+        yaw = Math.atan2(z, x);
+        if(yaw >= 0) pitch -= Math.PI;
+        return EulerAngles.of(pitch, yaw, 0);
+    }
+
+    /**
+     * Widens every component to a double, which is exact.
+     */
+    public Vector3 toVector3() {
+        return Vector3.of(x, y, z);
+    }
+
+    @Override
+    public void writeTo(@NonNull DoubleBuffer dst, int index) {
+        dst.put(index, x);
+        dst.put(index + 1, y);
+        dst.put(index + 2, z);
+    }
+
+    @Override
+    public void writeTo(@NonNull FloatBuffer dst, int index) {
+        dst.put(index, x);
+        dst.put(index + 1, y);
+        dst.put(index + 2, z);
+    }
+
+    @Override
+    public void writeTo(@NonNull ByteBuffer dst, int offset) {
+        dst.putFloat(offset, x);
+        dst.putFloat(offset + Float.BYTES, y);
+        dst.putFloat(offset + 2 * Float.BYTES, z);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Vector && equals((Vector) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return Vector.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + x + ", " + y + ", " + z + "]";
+    }
+}
@@ -1,9 +1,15 @@
 package yevano.math.vector;
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
 import lombok.NonNull;
 import lombok.val;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
 
-public class Vector4 extends NVector {
+public class Vector4 implements Vector {
     public static final Vector4 ZERO = new Vector4(0, 0, 0, 0);
     public static final Vector4 X_AXIS = new Vector4(1, 0, 0, 0);
     public static final Vector4 Y_AXIS = new Vector4(0, 1, 0, 0);
@@ -14,49 +20,182 @@ public class Vector4 extends NVector {
         return new Vector4(x, y, z, w);
     }
 
+    /**
+     * Reads 4 consecutive components starting at absolute index <code>index</code>, without
+     * changing the buffer's position.
+     */
+    public static Vector4 readFrom(@NonNull DoubleBuffer src, int index) {
+        return Vector4.of(
+            src.get(index),
+            src.get(index + 1),
+            src.get(index + 2),
+            src.get(index + 3));
+    }
+
+    public static Vector4 readFrom(@NonNull FloatBuffer src, int index) {
+        return Vector4.of(
+            src.get(index),
+            src.get(index + 1),
+            src.get(index + 2),
+            src.get(index + 3));
+    }
+
+    /**
+     * Reads 4 consecutive doubles starting at the absolute byte offset <code>offset</code>, in
+     * the buffer's byte order.
+     */
+    public static Vector4 readFrom(@NonNull ByteBuffer src, int offset) {
+        return Vector4.of(
+            src.getDouble(offset),
+            src.getDouble(offset + Double.BYTES),
+            src.getDouble(offset + 2 * Double.BYTES),
+            src.getDouble(offset + 3 * Double.BYTES));
+    }
+
+    private final double x;
+    private final double y;
+    private final double z;
+    private final double w;
+
     public Vector4(double x, double y, double z, double w) {
-        super(x, y, z, w);
+        Metrics.count(Counter.VECTOR_ALLOCATION);
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
     }
 
     public Vector4(@NonNull Vector rhs) {
-        super(rhs);
+        Metrics.count(Counter.VECTOR_ALLOCATION);
         val message = String.format("Expected a 4-vector, but got a %s-vector.", rhs.dimensions());
         if(rhs.dimensions() != 4) throw new IllegalArgumentException(message);
+        this.x = rhs.getComponent(0);
+        this.y = rhs.getComponent(1);
+        this.z = rhs.getComponent(2);
+        this.w = rhs.getComponent(3);
     }
 
     public double x() {
-        return getComponent(0);
+        return x;
     }
 
     public double y() {
-        return getComponent(1);
+        return y;
     }
 
     public double z() {
-        return getComponent(2);
+        return z;
     }
 
     public double w() {
-        return getComponent(3);
+        return w;
+    }
+
+    @Override
+    public int dimensions() {
+        return 4;
+    }
+
+    @Override
+    public double getComponent(int i) {
+        switch(i) {
+            case 0: return x;
+            case 1: return y;
+            case 2: return z;
+            case 3: return w;
+            default: throw new IndexOutOfBoundsException();
+        }
+    }
+
+    @Override
+    public double[] getComponents() {
+        return new double[] { x, y, z, w };
+    }
+
+    public Vector4 add(@NonNull Vector4 rhs) {
+        return Vector4.of(x + rhs.x, y + rhs.y, z + rhs.z, w + rhs.w);
     }
 
     @Override
     public Vector4 add(@NonNull Vector rhs) {
-        return new Vector4(super.add(rhs));
+        if(rhs instanceof Vector4) return add((Vector4) rhs);
+        if(rhs.dimensions() != 4) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        return Vector4.of(
+            x + rhs.getComponent(0),
+            y + rhs.getComponent(1),
+            z + rhs.getComponent(2),
+            w + rhs.getComponent(3));
+    }
+
+    public double dot(@NonNull Vector4 rhs) {
+        return x * rhs.x + y * rhs.y + z * rhs.z + w * rhs.w;
+    }
+
+    @Override
+    public double dot(@NonNull Vector rhs) {
+        if(rhs instanceof Vector4) return dot((Vector4) rhs);
+        if(rhs.dimensions() != 4) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        return x * rhs.getComponent(0) + y * rhs.getComponent(1) + z * rhs.getComponent(2) + w * rhs.getComponent(3);
     }
 
     @Override
     public Vector4 mul(double rhs) {
-        return new Vector4(super.mul(rhs));
+        return Vector4.of(x * rhs, y * rhs, z * rhs, w * rhs);
     }
 
     @Override
     public Vector4 neg() {
-        return new Vector4(super.neg());
+        return Vector4.of(-x, -y, -z, -w);
+    }
+
+    @Override
+    public double length2() {
+        return x * x + y * y + z * z + w * w;
     }
 
     @Override
     public Vector4 normalized() {
-        return new Vector4(super.normalized());
+        double len = length();
+        if(len == 0.0) throw new RuntimeException("Normalization on vectors with length zero is undefined.");
+        return mul(1.0 / len);
+    }
+
+    @Override
+    public void writeTo(@NonNull DoubleBuffer dst, int index) {
+        dst.put(index, x);
+        dst.put(index + 1, y);
+        dst.put(index + 2, z);
+        dst.put(index + 3, w);
+    }
+
+    @Override
+    public void writeTo(@NonNull FloatBuffer dst, int index) {
+        dst.put(index, (float) x);
+        dst.put(index + 1, (float) y);
+        dst.put(index + 2, (float) z);
+        dst.put(index + 3, (float) w);
+    }
+
+    @Override
+    public void writeTo(@NonNull ByteBuffer dst, int offset) {
+        dst.putDouble(offset, x);
+        dst.putDouble(offset + Double.BYTES, y);
+        dst.putDouble(offset + 2 * Double.BYTES, z);
+        dst.putDouble(offset + 3 * Double.BYTES, w);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Vector && equals((Vector) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return Vector.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + x + ", " + y + ", " + z + ", " + w + "]";
     }
 }
@@ -0,0 +1,224 @@
+package yevano.math.vector;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
+import lombok.NonNull;
+import lombok.val;
+import yevano.math.Metrics;
+import yevano.math.Metrics.Counter;
+
+/**
+ * A 4-vector with single-precision components, for data which ends up as floats anyway, e.g.
+ * vertex or instance buffers. Arithmetic between two Vector4f runs in float; conversions to and
+ * from {@link Vector4} round each component once.
+ */
+public class Vector4f implements Vector {
+    public static final Vector4f ZERO = new Vector4f(0, 0, 0, 0);
+    public static final Vector4f X_AXIS = new Vector4f(1, 0, 0, 0);
+    public static final Vector4f Y_AXIS = new Vector4f(0, 1, 0, 0);
+    public static final Vector4f Z_AXIS = new Vector4f(0, 0, 1, 0);
+    public static final Vector4f W_AXIS = new Vector4f(0, 0, 0, 1);
+
+    public static Vector4f of(float x, float y, float z, float w) {
+        return new Vector4f(x, y, z, w);
+    }
+
+    /**
+     * Reads 4 consecutive components starting at absolute index <code>index</code>, without
+     * changing the buffer's position.
+     */
+    public static Vector4f readFrom(@NonNull DoubleBuffer src, int index) {
+        return Vector4f.of(
+            (float) src.get(index),
+            (float) src.get(index + 1),
+            (float) src.get(index + 2),
+            (float) src.get(index + 3));
+    }
+
+    public static Vector4f readFrom(@NonNull FloatBuffer src, int index) {
+        return Vector4f.of(
+            src.get(index),
+            src.get(index + 1),
+            src.get(index + 2),
+            src.get(index + 3));
+    }
+
+    /**
+     * Reads 4 consecutive floats starting at the absolute byte offset <code>offset</code>, in
+     * the buffer's byte order.
+     */
+    public static Vector4f readFrom(@NonNull ByteBuffer src, int offset) {
+        return Vector4f.of(
+            src.getFloat(offset),
+            src.getFloat(offset + Float.BYTES),
+            src.getFloat(offset + 2 * Float.BYTES),
+            src.getFloat(offset + 3 * Float.BYTES));
+    }
+
+    /**
+     * Rounds every component of <code>v</code> to the nearest float.
+     */
+    public static Vector4f of(@NonNull Vector4 v) {
+        return new Vector4f((float) v.x(), (float) v.y(), (float) v.z(), (float) v.w());
+    }
+
+    private final float x;
+    private final float y;
+    private final float z;
+    private final float w;
+
+    public Vector4f(float x, float y, float z, float w) {
+        Metrics.count(Counter.VECTOR_ALLOCATION);
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+    }
+
+    public Vector4f(@NonNull Vector rhs) {
+        Metrics.count(Counter.VECTOR_ALLOCATION);
+        val message = String.format("Expected a 4-vector, but got a %s-vector.", rhs.dimensions());
+        if(rhs.dimensions() != 4) throw new IllegalArgumentException(message);
+        this.x = (float) rhs.getComponent(0);
+        this.y = (float) rhs.getComponent(1);
+        this.z = (float) rhs.getComponent(2);
+        this.w = (float) rhs.getComponent(3);
+    }
+
+    public float x() {
+        return x;
+    }
+
+    public float y() {
+        return y;
+    }
+
+    public float z() {
+        return z;
+    }
+
+    public float w() {
+        return w;
+    }
+
+    @Override
+    public int dimensions() {
+        return 4;
+    }
+
+    @Override
+    public double getComponent(int i) {
+        switch(i) {
+            case 0: return x;
+            case 1: return y;
+            case 2: return z;
+            case 3: return w;
+            default: throw new IndexOutOfBoundsException();
+        }
+    }
+
+    @Override
+    public double[] getComponents() {
+        return new double[] { x, y, z, w };
+    }
+
+    public Vector4f add(@NonNull Vector4f rhs) {
+        return Vector4f.of(x + rhs.x, y + rhs.y, z + rhs.z, w + rhs.w);
+    }
+
+    @Override
+    public Vector4f add(@NonNull Vector rhs) {
+        if(rhs instanceof Vector4f) return add((Vector4f) rhs);
+        if(rhs.dimensions() != 4) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        return Vector4f.of(
+            (float) (x + rhs.getComponent(0)),
+            (float) (y + rhs.getComponent(1)),
+            (float) (z + rhs.getComponent(2)),
+            (float) (w + rhs.getComponent(3)));
+    }
+
+    public float dot(@NonNull Vector4f rhs) {
+        return x * rhs.x + y * rhs.y + z * rhs.z + w * rhs.w;
+    }
+
+    @Override
+    public double dot(@NonNull Vector rhs) {
+        if(rhs instanceof Vector4f) return dot((Vector4f) rhs);
+        if(rhs.dimensions() != 4) throw new IllegalArgumentException("Vector dimensions not compatible.");
+        return x * rhs.getComponent(0) + y * rhs.getComponent(1) + z * rhs.getComponent(2) + w * rhs.getComponent(3);
+    }
+
+    @Override
+    public Vector4f mul(double rhs) {
+        return mul((float) rhs);
+    }
+
+    public Vector4f mul(float rhs) {
+        return Vector4f.of(x * rhs, y * rhs, z * rhs, w * rhs);
+    }
+
+    @Override
+    public Vector4f neg() {
+        return Vector4f.of(-x, -y, -z, -w);
+    }
+
+    @Override
+    public double length2() {
+        return x * x + y * y + z * z + w * w;
+    }
+
+    @Override
+    public Vector4f normalized() {
+        float len = (float) length();
+        if(len == 0.0f) throw new RuntimeException("Normalization on vectors with length zero is undefined.");
+        return mul(1 / len);
+    }
+
+    /**
+     * Widens every component to a double, which is exact.
+     */
+    public Vector4 toVector4() {
+        return Vector4.of(x, y, z, w);
+    }
+
+    @Override
+    public void writeTo(@NonNull DoubleBuffer dst, int index) {
+        dst.put(index, x);
+        dst.put(index + 1, y);
+        dst.put(index + 2, z);
+        dst.put(index + 3, w);
+    }
+
+    @Override
+    public void writeTo(@NonNull FloatBuffer dst, int index) {
+        dst.put(index, x);
+        dst.put(index + 1, y);
+        dst.put(index + 2, z);
+        dst.put(index + 3, w);
+    }
+
+    @Override
+    public void writeTo(@NonNull ByteBuffer dst, int offset) {
+        dst.putFloat(offset, x);
+        dst.putFloat(offset + Float.BYTES, y);
+        dst.putFloat(offset + 2 * Float.BYTES, z);
+        dst.putFloat(offset + 3 * Float.BYTES, w);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Vector && equals((Vector) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return Vector.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + x + ", " + y + ", " + z + ", " + w + "]";
+    }
+}
@@ -1,20 +1,69 @@
 package yevano.math;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
 
 import org.junit.Test;
 
 import lombok.val;
+import yevano.math.codec.MathReader;
+import yevano.math.codec.MathWriter;
+import yevano.math.codec.Precision;
+import yevano.math.codec.QuaternionEncoding;
+import yevano.math.codec.RecordType;
+import yevano.math.matrix.BufferMatrix;
 import yevano.math.matrix.MNMatrix;
 import yevano.math.matrix.Matrix;
 import yevano.math.matrix.Matrix2;
 import yevano.math.matrix.Matrix3;
+import yevano.math.matrix.Matrix3f;
 import yevano.math.matrix.Matrix4;
+import yevano.math.matrix.Matrix4f;
+import yevano.math.matrix.SparseMatrix;
+import yevano.math.rotation.EulerAngles;
+import yevano.math.rotation.MutableQuaternion;
+import yevano.math.rotation.Quaternion;
+import yevano.math.rotation.QuaternionArray;
+import yevano.math.rotation.Quaternionf;
+import yevano.math.solve.BiCGSTAB;
+import yevano.math.solve.ConjugateGradient;
+import yevano.math.solve.SolverResult;
+import yevano.math.transform.LocalTransform;
+import yevano.math.transform.Transform;
+import yevano.math.transform.TransformHierarchy;
+import yevano.math.transform.WorldTransform;
+import yevano.math.vector.MutableVector3;
+import yevano.math.vector.NVector;
+import yevano.math.vector.Vector;
 import yevano.math.vector.Vector2;
 import yevano.math.vector.Vector3;
+import yevano.math.vector.Vector3Array;
+import yevano.math.vector.Vector3f;
 import yevano.math.vector.Vector4;
+import yevano.math.vector.Vector4f;
 
 public class MathTests {
     ThreadLocalRandom rnd = ThreadLocalRandom.current();
@@ -176,4 +225,897 @@ public class MathTests {
         assertEquals(dot4, a4.x() * b4.x() + a4.y() * b4.y() + a4.z() * b4.z() + a4.w() * b4.w(), 0);
         assertEquals(neg4, Vector4.of(-a4.x(), -a4.y(), -a4.z(), -a4.w()));
     }
+
+    MNMatrix randMN(int m, int n) {
+        val cs = new double[m * n];
+        for(int i = 0; i < cs.length; i++) cs[i] = rand();
+        return MNMatrix.of(m, n, cs);
+    }
+
+    @Test
+    public void matrixMul() {
+        int m = 70;
+        int n = 131;
+        int p = 259;
+        MNMatrix a = randMN(m, n);
+        MNMatrix b = randMN(n, p);
+        Matrix c = a.mul(b);
+
+        assertEquals(m, c.rowCount());
+        assertEquals(p, c.columnCount());
+
+        for(int i = 0; i < m; i++) {
+            for(int j = 0; j < p; j++) {
+                assertEquals(a.getRow(i).dot(b.getColumn(j)), c.getComponent(i, j), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void parallelMatrixMul() {
+        MNMatrix a = randMN(300, 200);
+        MNMatrix b = randMN(200, 150);
+        val pool = new ForkJoinPool(4);
+
+        try {
+            assertEquals(a.mul(b), a.mulParallel(b, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    void assertVectorEquals(Vector expected, Vector actual, double delta) {
+        assertEquals(expected.dimensions(), actual.dimensions());
+        for(int i = 0; i < expected.dimensions(); i++) {
+            assertEquals(expected.getComponent(i), actual.getComponent(i), delta);
+        }
+    }
+
+    void assertQuaternionEquals(Quaternion expected, Quaternion actual, double delta) {
+        assertEquals(expected.a(), actual.a(), delta);
+        assertEquals(expected.b(), actual.b(), delta);
+        assertEquals(expected.c(), actual.c(), delta);
+        assertEquals(expected.d(), actual.d(), delta);
+    }
+
+    Quaternion randRotation() {
+        return Quaternion.fromAxisAngle(rand() * 2 * Math.PI, rand3());
+    }
+
+    @Test
+    public void mutableOps() {
+        Vector3 a = rand3();
+        Vector3 b = rand3();
+        Quaternion q = randRotation();
+        Quaternion r = randRotation();
+        val v = new MutableVector3();
+        val p = new MutableQuaternion();
+
+        assertVectorEquals(a.add(b), a.addInto(b, v), 0.0);
+        assertVectorEquals(a.cross(b), a.crossInto(b, v), 0.0);
+        assertVectorEquals(a.normalized(), a.normalizedInto(v), 1e-15);
+        assertVectorEquals(q.conjugate(a), q.conjugateInto(a, v), 1e-12);
+        assertVectorEquals(q.mul(2).conjugate(a), v.set(a).rotateLocal(q.mul(2)), 1e-12);
+        assertEquals(q.mul(r), q.mulInto(r, p).toQuaternion());
+        assertEquals(r.mul(q), p.set(q).premulLocal(r).toQuaternion());
+    }
+
+    @Test
+    public void fixedSizeMatrixOps() {
+        Matrix2 a2 = rand22();
+        Matrix2 b2 = rand22();
+        Vector2 v2 = rand2();
+        assertEquals(new MNMatrix(a2).mul(new MNMatrix(b2)), a2.mul(b2));
+        assertEquals(new MNMatrix(a2).mul(v2), a2.mul(v2));
+        assertEquals(new MNMatrix(a2).getColumn(1), a2.getColumn(1));
+
+        Matrix3 a3 = rand33();
+        Matrix3 b3 = rand33();
+        Vector3 v3 = rand3();
+        assertEquals(new MNMatrix(a3).mul(new MNMatrix(b3)), a3.mul(b3));
+        assertEquals(new MNMatrix(a3).mul(v3), a3.mul(v3));
+        assertEquals(new MNMatrix(a3).getColumn(2), a3.getColumn(2));
+
+        Matrix4 a4 = rand44();
+        Matrix4 b4 = rand44();
+        Vector4 v4 = rand4();
+        assertEquals(new MNMatrix(a4).mul(new MNMatrix(b4)), a4.mul(b4));
+        assertEquals(new MNMatrix(a4).mul(v4), a4.mul(v4));
+        assertEquals(new MNMatrix(a4).getRow(3), a4.getRow(3));
+        assertEquals(new MNMatrix(a4).add(b4), a4.add(b4));
+    }
+
+    @Test
+    public void quaternionConjugation() {
+        Quaternion q = randRotation().mul(1 + rand());
+        Vector3 v = rand3();
+        Vector3 sandwich = q.mul(Quaternion.of(v)).mul(q.inv()).vector();
+
+        assertVectorEquals(sandwich, q.conjugate(v), 1e-12);
+        assertVectorEquals(v, q.conjugateInverse(q.conjugate(v)), 1e-12);
+        assertVectorEquals(q.mul(Quaternion.I).mul(q.inv()).vector(), q.left(), 1e-12);
+        assertVectorEquals(q.mul(Quaternion.J).mul(q.inv()).vector(), q.up(), 1e-12);
+        assertVectorEquals(q.mul(Quaternion.K).mul(q.inv()).vector(), q.forward(), 1e-12);
+    }
+
+    @Test
+    public void quaternionRotationMatrix() {
+        Quaternion q = randRotation();
+        Vector3 v = rand3();
+        Matrix3 r = q.toRotationMatrix();
+
+        assertVectorEquals(q.conjugate(v), r.mul(v), 1e-12);
+        assertVectorEquals(q.mul(3).conjugate(v), q.mul(3).toRotationMatrix().mul(v), 1e-12);
+        Matrix4 r4 = q.toRotationMatrix4();
+        for(int i = 0; i < 4; i++) {
+            for(int j = 0; j < 4; j++) {
+                double expected = i < 3 && j < 3 ? r.getComponent(i, j) : i == j ? 1 : 0;
+                assertEquals(expected, r4.getComponent(i, j), 0.0);
+            }
+        }
+
+        for(Quaternion p : new Quaternion[] { q, Quaternion.I, Quaternion.J, Quaternion.K, Quaternion.ONE }) {
+            Quaternion back = Quaternion.fromRotationMatrix(p.toRotationMatrix());
+            if(back.a() * p.a() + back.b() * p.b() + back.c() * p.c() + back.d() * p.d() < 0) back = back.mul(-1);
+            assertEquals(p.a(), back.a(), 1e-12);
+            assertEquals(p.b(), back.b(), 1e-12);
+            assertEquals(p.c(), back.c(), 1e-12);
+            assertEquals(p.d(), back.d(), 1e-12);
+        }
+    }
+
+    @Test
+    public void vector3Array() {
+        Vector3[] as = new Vector3[37];
+        Vector3[] bs = new Vector3[as.length];
+        for(int i = 0; i < as.length; i++) as[i] = rand3();
+        for(int i = 0; i < bs.length; i++) bs[i] = rand3();
+        Vector3Array a = Vector3Array.of(as);
+        Vector3Array b = Vector3Array.of(bs);
+        Vector3Array c = new Vector3Array(as.length);
+        double[] ds = new double[as.length];
+
+        a.add(b, c);
+        for(int i = 0; i < as.length; i++) assertEquals(as[i].add(bs[i]), c.get(i));
+        a.cross(b, c, 0, as.length);
+        for(int i = 0; i < as.length; i++) assertEquals(as[i].cross(bs[i]), c.get(i));
+        a.dot(b, ds, 0, as.length);
+        for(int i = 0; i < as.length; i++) assertEquals(as[i].dot(bs[i]), ds[i], 0.0);
+        a.normalize(c);
+        for(int i = 0; i < as.length; i++) assertVectorEquals(as[i].normalized(), c.get(i), 1e-15);
+
+        double minX = Double.POSITIVE_INFINITY;
+        for(int i = 5; i < 20; i++) minX = Math.min(minX, as[i].x());
+        assertEquals(minX, a.min(5, 20).x(), 0.0);
+    }
+
+    @Test
+    public void batchTransforms() {
+        Transform root = WorldTransform.of(randRotation(), rand3());
+        Transform node = LocalTransform.of(LocalTransform.of(root, randRotation(), rand3()), randRotation(), rand3());
+        int count = 10;
+        double[] src = new double[count * 3];
+        double[] dst = new double[count * 3];
+        double[] back = new double[count * 3];
+        for(int i = 0; i < src.length; i++) src[i] = rand();
+
+        node.toWorld(src, dst, count);
+        node.toLocal(dst, back, count);
+
+        for(int i = 0; i < count; i++) {
+            Vector3 p = Vector3.of(src[i * 3], src[i * 3 + 1], src[i * 3 + 2]);
+            assertVectorEquals(node.toWorld(p), Vector3.of(dst[i * 3], dst[i * 3 + 1], dst[i * 3 + 2]), 1e-12);
+            assertVectorEquals(p, Vector3.of(back[i * 3], back[i * 3 + 1], back[i * 3 + 2]), 1e-12);
+        }
+
+        Vector3Array points = new Vector3Array(count);
+        for(int i = 0; i < count; i++) points.set(i, rand3());
+        Vector3Array world = new Vector3Array(count);
+        node.toWorld(points, world);
+        for(int i = 0; i < count; i++) assertVectorEquals(node.toWorld(points.get(i)), world.get(i), 1e-12);
+        node.toLocal(world, world);
+        for(int i = 0; i < count; i++) assertVectorEquals(points.get(i), world.get(i), 1e-12);
+    }
+
+    @Test
+    public void transformCacheInvalidation() {
+        WorldTransform root = WorldTransform.of(randRotation(), rand3());
+        LocalTransform middle = LocalTransform.of(root, randRotation(), rand3());
+        LocalTransform leaf = LocalTransform.of(middle, randRotation(), rand3());
+        Vector3 p = rand3();
+
+        leaf.toWorld(p);
+        root.setPosition(rand3());
+        middle.setRotation(randRotation());
+        Vector3 expected = root.toWorld(middle.getPosition().add(middle.getRotation().conjugate(
+            leaf.getPosition().add(leaf.getRotation().conjugate(p)))));
+        assertVectorEquals(expected, leaf.toWorld(p), 1e-12);
+        assertVectorEquals(p, leaf.toLocal(leaf.toWorld(p)), 1e-12);
+
+        WorldTransform other = WorldTransform.of(randRotation(), rand3());
+        middle.setParent(other);
+        expected = other.toWorld(middle.getPosition().add(middle.getRotation().conjugate(
+            leaf.getPosition().add(leaf.getRotation().conjugate(p)))));
+        assertVectorEquals(expected, leaf.toWorld(p), 1e-12);
+
+        // Concurrent readers of a shared transform all see a complete frame.
+        root.setRotation(randRotation());
+        middle.setParent(root);
+        Vector3 resolved = root.toWorld(middle.getPosition().add(middle.getRotation().conjugate(
+            leaf.getPosition().add(leaf.getRotation().conjugate(p)))));
+        IntStream.range(0, 10000).parallel().forEach(k -> assertVectorEquals(resolved, leaf.toWorld(p), 1e-12));
+
+        // Chains under the shared identity are cached like any other: an unchanged chain is not
+        // resolved again.
+        LocalTransform child = LocalTransform.of(LocalTransform.of(WorldTransform.IDENTITY, randRotation(), rand3()), randRotation(), rand3());
+        Vector3 first = child.toWorld(p);
+        val before = Metrics.snapshot();
+        assertEquals(first, child.toWorld(p));
+        assertEquals(0, Metrics.snapshot().minus(before).get(Metrics.Counter.TRANSFORM_RESOLVE));
+    }
+
+    @Test
+    public void transformHierarchy() {
+        int size = 3 * TransformHierarchy.PARALLEL_THRESHOLD;
+        val serial = new TransformHierarchy();
+        val parallel = new TransformHierarchy(size);
+        Transform[] linked = new Transform[size];
+
+        for(int i = 0; i < size; i++) {
+            int parent = i < 4 ? TransformHierarchy.NO_PARENT : rnd.nextInt(i);
+            val rotation = randRotation();
+            val position = rand3();
+            serial.add(parent, rotation, position);
+            parallel.add(parent, rotation, position);
+            linked[i] = parent == TransformHierarchy.NO_PARENT
+                ? WorldTransform.of(rotation, position)
+                : LocalTransform.of(linked[parent], rotation, position);
+        }
+
+        serial.update();
+        parallel.updateParallel();
+        Vector3 p = rand3();
+
+        // Same arithmetic as a chain of LocalTransforms, in either mode.
+        for(int k = 0; k < 200; k++) {
+            int i = rnd.nextInt(size);
+            assertVectorEquals(linked[i].toWorld(p), serial.node(i).toWorld(p), 0.0);
+            assertEquals(serial.worldRotation(i), parallel.worldRotation(i));
+            assertVectorEquals(p, parallel.node(i).toLocal(parallel.node(i).toWorld(p)), 1e-9);
+        }
+
+        // Only dirty subtrees are recomputed, and handles update lazily.
+        for(int k = 0; k < 50; k++) {
+            int i = rnd.nextInt(size);
+            val rotation = randRotation();
+            serial.setLocalRotation(i, rotation);
+            parallel.node(i).setLocalRotation(rotation);
+            ((WorldTransform) linked[i]).setRotation(rotation);
+        }
+
+        assertTrue(parallel.isDirty());
+        parallel.updateParallel();
+        assertTrue(!parallel.isDirty());
+
+        for(int i = 0; i < size; i++) {
+            assertEquals(serial.worldPosition(i), parallel.worldPosition(i));
+            assertEquals(serial.worldRotation(i), parallel.worldRotation(i));
+        }
+
+        for(int k = 0; k < 200; k++) {
+            int i = rnd.nextInt(size);
+            assertVectorEquals(linked[i].toWorld(p), serial.node(i).toWorld(p), 0.0);
+        }
+
+        val leaf = serial.node(size - 1);
+        assertEquals(serial.parent(size - 1), leaf.parent().index());
+        assertEquals(null, serial.node(0).parent());
+    }
+
+    void assertMatrixEquals(Matrix expected, Matrix actual, double delta) {
+        assertEquals(expected.rowCount(), actual.rowCount());
+        assertEquals(expected.columnCount(), actual.columnCount());
+        for(int i = 0; i < expected.rowCount() * expected.columnCount(); i++) {
+            assertEquals(expected.getComponent(i), actual.getComponent(i), delta);
+        }
+    }
+
+    MNMatrix identity(int n) {
+        val cs = new double[n * n];
+        for(int i = 0; i < n; i++) cs[i * n + i] = 1;
+        return MNMatrix.of(n, n, cs);
+    }
+
+    @Test
+    public void luDecomposition() {
+        int n = 40;
+        MNMatrix a = randMN(n, n);
+        val lu = a.lu();
+        assertMatrixEquals(identity(n), a.mul(lu.inverse()), 1e-9);
+
+        MNMatrix b = randMN(n, 3);
+        assertMatrixEquals(b, a.mul(lu.solve(b)), 1e-9);
+        Vector x = lu.solve(b.getColumn(1));
+        assertVectorEquals(b.getColumn(1), a.mul(x), 1e-9);
+
+        assertEquals(-2.0, MNMatrix.of(2, 2, 0, 1, 2, 0).det(), 0.0);
+        assertEquals(0.0, MNMatrix.of(2, 2, 1, 2, 2, 4).det(), 0.0);
+    }
+
+    @Test
+    public void closedFormInverses() {
+        Matrix2 a2 = rand22();
+        assertEquals(new MNMatrix(a2).det(), a2.det(), 1e-12);
+        assertMatrixEquals(new MNMatrix(a2).inverse(), a2.inverse(), 1e-9);
+
+        Matrix3 a3 = rand33();
+        assertEquals(new MNMatrix(a3).det(), a3.det(), 1e-12);
+        assertMatrixEquals(new MNMatrix(a3).inverse(), a3.inverse(), 1e-9);
+
+        Matrix4 a4 = rand44();
+        assertEquals(new MNMatrix(a4).det(), a4.det(), 1e-12);
+        assertMatrixEquals(new MNMatrix(a4).inverse(), a4.inverse(), 1e-9);
+    }
+
+    @Test
+    public void choleskyDecomposition() {
+        int n = 150;
+        MNMatrix a = randMN(n, n);
+        Matrix spd = a.mul(a.transpose()).add(identity(n));
+        val cholesky = spd.cholesky();
+        Matrix l = cholesky.getL();
+
+        assertMatrixEquals(spd, l.mul(l.transpose()), 1e-9);
+        Vector b = randMN(n, 1).getColumn(0);
+        assertVectorEquals(b, spd.mul(cholesky.solve(b)), 1e-9);
+
+        Matrix3 r = rand33();
+        Matrix3 small = new Matrix3(r.mul(r.transpose()).add(Matrix3.IDENTITY));
+        assertEquals(small.det(), small.cholesky().det(), 1e-12);
+    }
+
+    @Test
+    public void leastSquares() {
+        MNMatrix a = randMN(300, 7);
+        Vector x = randMN(7, 1).getColumn(0);
+        assertVectorEquals(x, a.solveLeastSquares(a.mul(x)), 1e-9);
+
+        // The residual of the least-squares solution is orthogonal to the columns of A.
+        Vector b = randMN(300, 1).getColumn(0);
+        Vector residual = b.add(a.mul(a.solveLeastSquares(b)).neg());
+        for(int j = 0; j < 7; j++) assertEquals(0.0, a.getColumn(j).dot(residual), 1e-9);
+
+        // Column norms survive scaling to the edges of the exponent range.
+        Matrix r = a.qr().getR();
+        for(double scale : new double[] { 1e300, 1e-300 }) {
+            Matrix scaledR = a.mul(scale).qr().getR();
+            for(int j = 0; j < 7; j++) assertEquals(r.getComponent(j, j), scaledR.getComponent(j, j) / scale, 1e-12);
+        }
+    }
+
+    @Test
+    public void matrixViews() {
+        MNMatrix a = randMN(90, 70);
+        MNMatrix b = randMN(90, 50);
+        MNMatrix c = randMN(40, 70);
+        Matrix at = new MNMatrix(a.transpose());
+        Matrix ct = new MNMatrix(c.transpose());
+
+        assertEquals(70, at.rowCount());
+        assertEquals(a.getComponent(3, 5), at.getComponent(5, 3), 0.0);
+        assertEquals(at.mul(b), a.transpose().mul(b));
+        assertEquals(a.mul(ct), a.mul(c.transpose()));
+        assertEquals(c.mul(at), c.transpose().transpose().mul(a.transpose()));
+
+        val sub = a.subMatrix(10, 20, 5, 7);
+        assertEquals(a.getComponent(12, 23), sub.getComponent(2, 3), 0.0);
+        assertEquals(a.getComponent(12, 23), sub.transpose().getComponent(3, 2), 0.0);
+        assertEquals(a.getComponent(14, 20), sub.getColumn(0).getComponent(4), 0.0);
+        assertEquals(new MNMatrix(sub).mul(b.subMatrix(0, 0, 7, 3)), sub.mul(b.subMatrix(0, 0, 7, 3)));
+        assertEquals(a.getRow(4).dot(NVector.variadic(c.getRow(4).getComponents())), a.getRow(4).dot(c.getRow(4)), 0.0);
+        assertEquals(rand33().transpose().transpose().getClass(), Matrix3.class);
+    }
+
+    @Test
+    public void sparseMatrix() {
+        int m = 400;
+        int n = 300;
+        val builder = SparseMatrix.builder(m, n);
+        val dense = new double[m * n];
+
+        for(int e = 0; e < 3000; e++) {
+            int i = rnd.nextInt(m);
+            int j = rnd.nextInt(n);
+            double v = rand();
+            builder.add(i, j, v);
+            dense[i * n + j] += v;
+        }
+
+        SparseMatrix a = builder.build();
+        MNMatrix d = MNMatrix.of(m, n, dense);
+        Vector x = randMN(n, 1).getColumn(0);
+        Vector y = randMN(m, 1).getColumn(0);
+        MNMatrix b = randMN(n, 5);
+
+        assertMatrixEquals(d, a, 1e-12);
+        assertVectorEquals(d.mul(x), a.mul(x), 1e-12);
+        assertVectorEquals(d.transpose().mul(y), a.mulTransposed(y), 1e-12);
+        assertMatrixEquals(d.mul(b), a.mul(b), 1e-12);
+        assertMatrixEquals(d.transpose(), a.transpose(), 0.0);
+        SparseMatrix gram = a.transpose().mul(a);
+        assertMatrixEquals(d.transpose().mul(d), gram, 1e-12);
+        assertEquals(gram, a.transpose().mul((Matrix) a));
+
+        val large = SparseMatrix.builder(5000, 5000);
+        for(int e = 0; e < 4 * SparseMatrix.PARALLEL_THRESHOLD; e++) large.add(rnd.nextInt(5000), rnd.nextInt(5000), rand());
+        SparseMatrix c = large.build();
+        Vector z = randMN(5000, 1).getColumn(0);
+        val pool = new ForkJoinPool(4);
+
+        try {
+            assertEquals(c.mul(z), c.mulParallel(z, pool));
+        } finally {
+            pool.shutdown();
+        }
+
+        // 100k×100k has more entries than an int can index; only the last row differs.
+        int huge = 100000;
+        SparseMatrix p = SparseMatrix.builder(huge, huge).add(0, 0, 1).add(huge - 1, huge - 1, 1).build();
+        SparseMatrix q = SparseMatrix.builder(huge, huge).add(0, 0, 1).add(huge - 1, huge - 1, 2).build();
+        SparseMatrix r = SparseMatrix.builder(huge, huge).add(huge - 1, huge - 1, 1).add(0, 0, 1).add(5, 5, 0).build();
+        assertNotEquals(p, q);
+        assertEquals(p, r);
+        assertEquals(p.hashCode(), r.hashCode());
+        assertThrows(UnsupportedOperationException.class, p::getComponents);
+        assertThrows(UnsupportedOperationException.class, () -> p.getComponent(Integer.MAX_VALUE - 1));
+        SparseMatrix square = p.mul(q);
+        assertEquals(SparseMatrix.builder(huge, huge).add(0, 0, 1).add(huge - 1, huge - 1, 2).build(), square);
+        assertEquals(2, square.nonZeroCount());
+        SparseMatrix column = SparseMatrix.builder(huge, 1).add(7, 0, 1).build();
+        assertThrows(IllegalArgumentException.class, () -> column.mul(MNMatrix.of(1, 30000, new double[30000])));
+    }
+
+    @Test
+    public void iterativeSolvers() {
+        // 1-D Poisson matrix, tridiag(-1, 2, -1), is symmetric positive definite.
+        int n = 500;
+        val poisson = SparseMatrix.builder(n, n);
+
+        for(int i = 0; i < n; i++) {
+            poisson.add(i, i, 2 + i * 1e-3);
+            if(i > 0) poisson.add(i, i - 1, -1);
+            if(i < n - 1) poisson.add(i, i + 1, -1);
+        }
+
+        SparseMatrix a = poisson.build();
+        double[] b = randMN(n, 1).getComponents();
+        double[] x = new double[n];
+
+        SolverResult plain = ConjugateGradient.of(a, 2 * n, 1e-10).solve(b, x);
+        assertTrue(plain.converged());
+        assertEquals(plain.iterations() + 1, plain.residualHistory().length);
+        assertVectorEquals(NVector.variadic(b), a.mul(NVector.variadic(x)), 1e-8);
+
+        double[] y = new double[n];
+        SolverResult jacobi = ConjugateGradient.jacobi(a, 2 * n, 1e-10).solve(b, y);
+        assertTrue(jacobi.converged());
+        assertVectorEquals(NVector.variadic(x), NVector.variadic(y), 1e-6);
+
+        // Diagonally dominant, nonsymmetric.
+        Matrix c = randMN(60, 60).add(identity(60).mul(60.0));
+        double[] d = randMN(60, 1).getComponents();
+        Vector expected = c.solve(NVector.variadic(d));
+
+        for(BiCGSTAB solver : new BiCGSTAB[] { BiCGSTAB.of(c, 200, 1e-12), BiCGSTAB.jacobi(c, 200, 1e-12) }) {
+            double[] z = new double[60];
+            SolverResult result = solver.solve(d, z);
+            assertTrue(result.converged());
+            assertVectorEquals(expected, NVector.variadic(z), 1e-9);
+        }
+
+        // A rotation by 90° makes r̂·Ap vanish in the first iteration.
+        double[] w = new double[2];
+        SolverResult breakdown = BiCGSTAB.of(MNMatrix.of(2, 2, 0, -1, 1, 0), 10, 1e-12).solve(new double[] { 1, 0 }, w);
+        assertTrue(!breakdown.converged());
+        assertEquals(0, breakdown.iterations());
+        assertTrue(!Double.isNaN(w[0]) && !Double.isNaN(w[1]));
+
+        // For the indefinite diag(1, −1), 𝒑·A𝒑 vanishes in the first conjugate gradient iteration.
+        double[] u = new double[2];
+        SolverResult indefinite = ConjugateGradient.of(MNMatrix.of(2, 2, 1, 0, 0, -1), 100000, 1e-10).solve(new double[] { 1, 1 }, u);
+        assertTrue(!indefinite.converged());
+        assertEquals(0, indefinite.iterations());
+        assertTrue(!Double.isNaN(u[0]) && !Double.isNaN(u[1]));
+    }
+
+    @Test
+    public void floatTypes() {
+        Vector3 v = rand3();
+        Vector3 w = rand3();
+        Vector3f vf = Vector3f.of(v);
+        Vector3f wf = Vector3f.of(w);
+        assertEquals((float) v.x(), vf.x(), 0.0f);
+        assertEquals(vf, Vector3f.of(vf.toVector3()));
+        assertVectorEquals(v.cross(w), vf.cross(wf), 1e-6);
+        assertEquals(v.dot(w), vf.dot(wf), 1e-6);
+
+        Matrix4 m = rand44().add(Matrix4.IDENTITY.mul(4.0));
+        Matrix4f mf = Matrix4f.of(m);
+        Vector4 u = rand4();
+        assertMatrixEquals(m.mul(m), mf.mul(mf), 1e-5);
+        assertMatrixEquals(m.inverse(), mf.inverse(), 1e-5);
+        assertVectorEquals(m.mul(u), mf.mul(Vector4f.of(u)), 1e-5);
+        assertEquals(mf, Matrix4f.of(mf.toMatrix4()));
+
+        Quaternion q = randRotation();
+        Quaternionf qf = Quaternionf.of(q);
+        assertVectorEquals(q.conjugate(v), qf.conjugate(vf), 1e-5);
+        assertMatrixEquals(q.toRotationMatrix(), qf.toRotationMatrix(), 1e-6);
+        assertMatrixEquals(Matrix3f.of(q.toRotationMatrix()).mul(Matrix3f.rotateX(0.5)),
+            qf.mul(Quaternionf.fromAxisAngle(0.5, Vector3f.X_AXIS)).toRotationMatrix(), 1e-5);
+    }
+
+    @Test
+    public void bufferIO() {
+        Vector3 v = rand3();
+        Matrix4 m = rand44();
+        Quaternion q = randRotation();
+
+        val doubles = DoubleBuffer.allocate(64);
+        v.writeTo(doubles, 1);
+        m.writeTo(doubles, 4, Matrix.Order.COLUMN_MAJOR);
+        q.writeTo(doubles, 20);
+        assertEquals(0, doubles.position());
+        assertEquals(m.getComponent(1, 0), doubles.get(5), 0.0);
+        assertEquals(v, Vector3.readFrom(doubles, 1));
+        assertEquals(m, Matrix4.readFrom(doubles, 4, Matrix.Order.COLUMN_MAJOR));
+        assertEquals(m.transpose(), Matrix4.readFrom(doubles, 4));
+        assertEquals(q, Quaternion.readFrom(doubles, 20));
+
+        MNMatrix a = randMN(3, 5);
+        a.writeTo(doubles, 30);
+        assertEquals(a, MNMatrix.readFrom(doubles, 30, 3, 5));
+        ((Matrix) a).writeTo(doubles, 30, Matrix.Order.COLUMN_MAJOR);
+        assertEquals(a.transpose(), MNMatrix.readFrom(doubles, 30, 5, 3));
+
+        val bytes = ByteBuffer.allocateDirect(256).order(ByteOrder.LITTLE_ENDIAN);
+        m.writeTo(bytes, 8);
+        assertEquals(m, Matrix4.readFrom(bytes, 8));
+        Matrix4f mf = Matrix4f.of(m);
+        mf.writeTo(bytes, 0, Matrix.Order.COLUMN_MAJOR);
+        assertEquals(mf, Matrix4f.readFrom(bytes.asFloatBuffer(), 0, Matrix.Order.COLUMN_MAJOR));
+
+        Vector3[] vs = { rand3(), rand3(), rand3() };
+        val floats = FloatBuffer.allocate(9);
+        Vector3.writeTo(vs, floats, 0);
+        Vector3[] back = new Vector3[3];
+        Vector3.readFrom(floats, 0, back);
+        val array = new Vector3Array(3);
+        array.readFrom(floats, 0, 0, 3);
+        for(int i = 0; i < 3; i++) {
+            assertVectorEquals(vs[i], back[i], 1e-6);
+            assertEquals(back[i], array.get(i));
+        }
+    }
+
+    @Test
+    public void bufferMatrix() throws IOException {
+        MNMatrix a = randMN(150, 70);
+        MNMatrix b = randMN(70, 40);
+        BufferMatrix da = BufferMatrix.copyOf(a);
+
+        assertMatrixEquals(a, da, 0.0);
+        assertMatrixEquals(a.mul(b), da.mul(b), 0.0);
+        assertMatrixEquals(a.add(a), da.add(a), 0.0);
+        assertVectorEquals(a.mul(b.getColumn(0)), da.mul(b.getColumn(0)), 1e-12);
+
+        BufferMatrix product = BufferMatrix.allocateDirect(150, 40);
+        da.mulInto(b, product);
+        assertMatrixEquals(a.mul(b), product, 0.0);
+
+        // Off-heap B is streamed in panels of rows, with the same result bits.
+        MNMatrix wide = randMN(150, 300);
+        MNMatrix tall = randMN(300, 40);
+        BufferMatrix dTall = BufferMatrix.copyOf(tall);
+        assertMatrixEquals(wide.mul(tall), BufferMatrix.copyOf(wide).mul(dTall), 0.0);
+        assertMatrixEquals(wide.mul(tall), BufferMatrix.copyOf(wide).mulInto(dTall, BufferMatrix.allocateDirect(150, 40)), 0.0);
+        BufferMatrix column = BufferMatrix.allocateDirect(100000, 1);
+        assertThrows(IllegalArgumentException.class, () -> column.mul(MNMatrix.of(1, 30000, new double[30000])));
+
+        MNMatrix c = randMN(30, 30);
+        Vector v = randMN(30, 1).getColumn(0);
+        File file = File.createTempFile("matrix", ".bin");
+        file.deleteOnExit();
+
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            BufferMatrix mapped = BufferMatrix.map(channel, MapMode.READ_WRITE, 16, 30, 30);
+            mapped.copyFrom(c);
+            mapped.force();
+            assertVectorEquals(c.solve(v), mapped.solve(v), 1e-9);
+            assertEquals(c.det(), mapped.det(), 1e-9 * Math.abs(c.det()));
+            mapped.set(2, 3, 42);
+            assertEquals(42, mapped.getComponent(2, 3), 0.0);
+        }
+    }
+
+    @Test
+    public void binaryCodec() throws IOException {
+        Vector2 v2 = rand2();
+        Vector3 v3 = rand3();
+        Vector n = randMN(7, 1).getColumn(0);
+        Matrix3 m3 = rand33();
+        MNMatrix mn = randMN(3, 5);
+        Quaternion q = randRotation();
+        EulerAngles e = EulerAngles.of(rand(), rand(), rand());
+
+        val bytes = new ByteArrayOutputStream();
+        val writer = new MathWriter(new DataOutputStream(bytes));
+        writer.write(v2);
+        writer.write(v3);
+        writer.write(n);
+        writer.write(m3);
+        writer.write(mn);
+        writer.write(q);
+        writer.write(e);
+        writer.write(v3);
+        writer.flush();
+
+        val reader = new MathReader(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(v2, reader.readVector());
+        assertEquals(v3, reader.readVector3());
+        assertEquals(RecordType.NVECTOR, reader.next());
+        assertEquals(7, reader.componentCount());
+        assertEquals(n, reader.readVector());
+        assertEquals(m3, reader.readMatrix3());
+        assertEquals(mn, reader.readMatrix());
+        assertEquals(q, reader.readQuaternion());
+        assertEquals(e, reader.readEulerAngles());
+        assertEquals(v3, reader.readVector3(new MutableVector3()));
+        assertEquals(null, reader.next());
+
+        // Floats and smallest-three quaternions over channels.
+        val compact = new ByteArrayOutputStream();
+        val channelWriter = new MathWriter(Channels.newChannel(compact), Precision.FLOAT, QuaternionEncoding.SMALLEST_THREE);
+        Quaternion[] qs = new Quaternion[1000];
+
+        for(int i = 0; i < qs.length; i++) {
+            qs[i] = randRotation();
+            channelWriter.write(qs[i]);
+            channelWriter.write(v3);
+        }
+
+        channelWriter.flush();
+        assertEquals(4 + qs.length * (1 + 4 + 1 + 12), compact.size());
+
+        val channelReader = new MathReader(Channels.newChannel(new ByteArrayInputStream(compact.toByteArray())));
+        assertEquals(Precision.FLOAT, channelReader.precision());
+        val p = new MutableQuaternion();
+        val u = new MutableVector3();
+
+        for(Quaternion expected : qs) {
+            channelReader.readQuaternion(p);
+            // 𝒒 and −𝒒 are the same rotation.
+            double sign = Math.signum(expected.a() * p.a() + expected.b() * p.b() + expected.c() * p.c() + expected.d() * p.d());
+            assertEquals(expected.a(), sign * p.a(), 3e-3);
+            assertEquals(expected.b(), sign * p.b(), 3e-3);
+            assertEquals(expected.c(), sign * p.c(), 3e-3);
+            assertEquals(expected.d(), sign * p.d(), 3e-3);
+            assertVectorEquals(v3, channelReader.readVector3(u), 1e-6);
+        }
+
+        assertEquals(null, channelReader.next());
+
+        // Corrupt dimensions fail with an IOException instead of a huge allocation.
+        byte[] header = Arrays.copyOf(bytes.toByteArray(), 4);
+        assertThrows(IOException.class, () -> corruptMatrix(header, 100000, 100000).next());
+        assertThrows(IOException.class, () -> corruptMatrix(header, 40000, 40000).readMatrix());
+    }
+
+    MathReader corruptMatrix(byte[] header, int rows, int columns) throws IOException {
+        val data = ByteBuffer.allocate(header.length + 9 + 8).put(header).put((byte) 8).putInt(rows).putInt(columns).putDouble(1);
+        return new MathReader(new DataInputStream(new ByteArrayInputStream(data.array())));
+    }
+
+    @Test
+    public void valueSemantics() {
+        // Equal values are equal and hash alike, whichever class holds them.
+        val v = rand3();
+        val nv = NVector.variadic(v.getComponents());
+        assertTrue(v.equals(nv) && nv.equals(v));
+        assertEquals(v.hashCode(), nv.hashCode());
+        assertEquals(Vector3.of(0, -0.0, 1).hashCode(), Vector3.of(0, 0, 1).hashCode());
+        assertEquals(Vector3.of(Double.NaN, 0, 0), Vector3.of(Double.NaN, 0, 0));
+        val m = rand33();
+        assertEquals(m.hashCode(), MNMatrix.of(3, 3, m.getComponents()).hashCode());
+        assertEquals(Quaternion.of(1, 0, -0.0, 0).hashCode(), Quaternion.of(1, 0, 0, 0).hashCode());
+
+        val cache = new HashMap<Object, String>();
+        val mn = randMN(4, 6);
+        val q = randRotation();
+        val e = EulerAngles.of(rand(), rand(), rand());
+        cache.put(mn, "mn");
+        cache.put(q, "q");
+        cache.put(e, "e");
+        assertEquals("mn", cache.get(MNMatrix.of(4, 6, mn.getComponents())));
+        assertEquals("q", cache.get(Quaternion.of(q.a(), q.b(), q.c(), q.d())));
+        assertEquals("e", cache.get(EulerAngles.of(e.pitch(), e.yaw(), e.roll())));
+
+        // The sparse hash skips runs of zeros but agrees with the dense one.
+        int rows = 50;
+        int cols = 70;
+        val builder = SparseMatrix.builder(rows, cols);
+        val dense = new double[rows * cols];
+
+        for(int i = 0; i < rows; i += 3) {
+            for(int j = i % 7; j < cols; j += 11) {
+                double x = rand();
+                builder.add(i, j, x);
+                dense[i * cols + j] = x;
+            }
+        }
+
+        val sparse = builder.build();
+        assertEquals(MNMatrix.of(rows, cols, dense), sparse);
+        assertEquals(MNMatrix.of(rows, cols, dense).hashCode(), sparse.hashCode());
+        assertEquals(MNMatrix.of(2, 3, new double[6]).hashCode(), SparseMatrix.builder(2, 3).build().hashCode());
+
+        // Quantised keys absorb rounding noise, and identify 𝒒 with −𝒒.
+        double step = 1e-6;
+        val keys = new HashMap<QuantizedKey, String>();
+        keys.put(QuantizedKey.of(q, step), "q");
+        keys.put(QuantizedKey.of(v, step), "v");
+        assertEquals("q", keys.get(QuantizedKey.of(Quaternion.of(q.a() + 1e-12, q.b(), q.c() - 1e-12, q.d()), step)));
+        assertEquals("q", keys.get(QuantizedKey.of(Quaternion.of(-q.a(), -q.b(), -q.c(), -q.d()), step)));
+        assertEquals("v", keys.get(QuantizedKey.of(v.add(Vector3.of(1e-12, -1e-12, 0)), step)));
+        assertEquals(null, keys.get(QuantizedKey.of(v.add(Vector3.of(1e-3, 0, 0)), step)));
+        assertNotEquals(QuantizedKey.of(Vector4.of(q.a(), q.b(), q.c(), q.d()), step), QuantizedKey.of(q, step));
+    }
+
+    @Test
+    public void quaternionInterpolation() {
+        val p = randRotation();
+        val axis = rand3().normalized();
+        double angle = 2.5;
+        val q = Quaternion.fromAxisAngle(angle, axis).mul(p);
+
+        for(double t = 0; t <= 1; t += 0.125) {
+            // Constant angular velocity along the shorter arc, whichever sign 𝒒 has.
+            val expected = Quaternion.fromAxisAngle(t * angle, axis).mul(p);
+            assertQuaternionEquals(expected, p.slerp(q, t), 1e-12);
+            assertQuaternionEquals(expected, p.slerp(q.mul(-1.0), t), 1e-12);
+            assertQuaternionEquals(expected, p.fastSlerp(q, t), 4e-4);
+            assertEquals(1, p.nlerp(q, t).norm(), 1e-15);
+        }
+
+        assertQuaternionEquals(Quaternion.fromAxisAngle(1.25, axis).mul(p), p.nlerp(q, 0.5), 1e-12);
+        assertQuaternionEquals(p, p.slerp(p, 0.3), 1e-15);
+
+        int size = 3 * QuaternionArray.PARALLEL_THRESHOLD;
+        val from = new QuaternionArray(size);
+        val to = new QuaternionArray(size);
+
+        for(int i = 0; i < size; i++) {
+            from.set(i, randRotation());
+            // Include nearly parallel pairs, which take the nlerp path of slerp.
+            to.set(i, i % 10 == 0 ? Quaternion.fromAxisAngle(1e-4, rand3().normalized()).mul(from.get(i)) : randRotation());
+        }
+
+        double t = 0.3;
+        val serial = new QuaternionArray(size);
+        val parallel = new QuaternionArray(size);
+        from.slerp(to, t, serial);
+        from.slerpParallel(to, t, parallel, ForkJoinPool.commonPool());
+        for(int i = 0; i < size; i++) assertEquals(from.get(i).slerp(to.get(i), t), serial.get(i));
+        for(int i = 0; i < size; i++) assertEquals(serial.get(i), parallel.get(i));
+
+        from.nlerpParallel(to, t, parallel, ForkJoinPool.commonPool());
+        for(int i = 0; i < size; i++) assertEquals(from.get(i).nlerp(to.get(i), t), parallel.get(i));
+        from.fastSlerp(to, t, serial);
+        for(int i = 0; i < size; i++) assertEquals(from.get(i).fastSlerp(to.get(i), t), serial.get(i));
+        from.fastSlerp(to, t, from, 0, 10);
+        assertEquals(serial.get(9), from.get(9));
+    }
+
+    @Test
+    public void eulerConversions() {
+        for(int k = 0; k < 100; k++) {
+            val e = EulerAngles.of((rand() - 0.5) * 4 * Math.PI, (rand() - 0.5) * 4 * Math.PI, (rand() - 0.5) * 4 * Math.PI);
+            val qx = Quaternion.fromAxisAngle(e.pitch(), Vector3.X_AXIS);
+            val qy = Quaternion.fromAxisAngle(e.yaw(), Vector3.Y_AXIS);
+            val qz = Quaternion.fromAxisAngle(e.roll(), Vector3.Z_AXIS);
+            val rx = Matrix3.rotateX(e.pitch());
+            val ry = Matrix3.rotateY(e.yaw());
+            val rz = Matrix3.rotateZ(e.roll());
+
+            // The closed forms agree with the composed elementary rotations.
+            assertQuaternionEquals(qz.mul(qy).mul(qx), e.toRotationQuaternion(), 1e-15);
+            assertMatrixEquals(rz.mul(ry).mul(rx), e.toRotationMatrix(), 1e-15);
+            assertMatrixEquals(rx.mul(ry).mul(rz), e.transform(), 1e-15);
+            assertMatrixEquals(e.toRotationQuaternion().toRotationMatrix(), e.toRotationMatrix(), 1e-15);
+            assertVectorEquals(e.toRotationQuaternion().conjugate(Vector3.Z_AXIS), e.toDirectionVector(), 1e-15);
+        }
+
+        int n = 50;
+        double[] pitch = new double[n], yaw = new double[n], roll = new double[n];
+        for(int i = 0; i < n; i++) {
+            pitch[i] = rand();
+            yaw[i] = rand();
+            roll[i] = rand();
+        }
+
+        val dest = new QuaternionArray(n);
+        EulerAngles.toRotationQuaternions(pitch, yaw, roll, dest, 0, n);
+        for(int i = 0; i < n; i++) assertEquals(EulerAngles.of(pitch[i], yaw[i], roll[i]).toRotationQuaternion(), dest.get(i));
+    }
+
+    @Test
+    public void fastTrig() {
+        Trig fast = Trig.FAST;
+
+        for(int k = -3600; k <= 3600; k++) {
+            double t = Math.toRadians(k * 0.1);
+            assertEquals(Math.sin(t), fast.sin(t), 1e-15);
+            assertEquals(Math.cos(t), fast.cos(t), 1e-15);
+        }
+
+        for(int k = 0; k < 10000; k++) {
+            double t = (rand() - 0.5) * 2000;
+            assertEquals(Math.sin(t), fast.sin(t), 1e-15 + 2e-16 * Math.abs(t));
+            double x = rnd.nextGaussian();
+            double y = rnd.nextGaussian();
+            assertEquals(Math.atan2(y, x), fast.atan2(y, x), 1e-15);
+        }
+
+        // Special cases are passed through.
+        assertEquals(Math.atan2(-0.0, -1), fast.atan2(-0.0, -1), 0.0);
+        assertEquals(Math.atan2(1, Double.NEGATIVE_INFINITY), fast.atan2(1, Double.NEGATIVE_INFINITY), 0.0);
+        assertTrue(Double.isNaN(fast.sin(Double.POSITIVE_INFINITY)));
+        assertEquals(Math.sin(1e9), fast.sin(1e9), 0.0);
+
+        double t = rand() * 2 * Math.PI;
+        val axis = rand3();
+        assertMatrixEquals(Matrix3.rotateX(t), Matrix3.rotateX(t, fast), 1e-15);
+        assertMatrixEquals(Matrix3.rotation(t, axis), Matrix3.rotation(t, axis, fast), 1e-15);
+        assertMatrixEquals(Matrix2.rotation(t), Matrix2.rotation(t, fast), 1e-15);
+        assertQuaternionEquals(Quaternion.fromAxisAngle(t, axis), Quaternion.fromAxisAngle(t, axis, fast), 1e-15);
+        val e = EulerAngles.of(rand(), rand(), rand());
+        assertQuaternionEquals(e.toRotationQuaternion(), e.toRotationQuaternion(fast), 1e-15);
+        val direction = rand3().sub(Vector3.of(0.5, 0.5, 0.5));
+        assertEquals(direction.toAzimuthElevation().yaw(), direction.toAzimuthElevation(fast).yaw(), 1e-15);
+        assertEquals(direction.toAzimuthElevation().pitch(), direction.toAzimuthElevation(fast).pitch(), 1e-15);
+    }
+
+    @Test
+    public void metrics() throws Exception {
+        val before = Metrics.snapshot();
+        rand33().mul(rand33());
+        randRotation().conjugate(rand3());
+        randMN(40, 40).mul(randMN(40, 40));
+        val delta = Metrics.snapshot().minus(before);
+
+        // Counting is off unless the JVM runs with -Dyevano.math.metrics=true.
+        long expected = Metrics.ENABLED ? 1 : 0;
+        assertTrue(delta.get(Metrics.Counter.MATRIX_MUL_3) >= expected);
+        assertTrue(delta.get(Metrics.Counter.QUATERNION_CONJUGATE) >= expected);
+        assertTrue(delta.get(Metrics.Counter.MATRIX_MUL_MEDIUM) >= expected);
+        if(!Metrics.ENABLED) assertEquals(0, delta.get(Metrics.Counter.VECTOR_ALLOCATION));
+        assertEquals(Metrics.Counter.values().length, delta.toMap().size());
+
+        // A general matrix times a vector is a matrix-vector product, not a matrix product.
+        val mn = randMN(40, 40);
+        val x = randMN(40, 1).getColumn(0);
+        val beforeVector = Metrics.snapshot();
+        assertVectorEquals(mn.mul(x.toColumnVector()).getColumn(0), mn.mul(x), 1e-12);
+        val vectorDelta = Metrics.snapshot().minus(beforeVector);
+        assertEquals(expected, vectorDelta.get(Metrics.Counter.MATRIX_VECTOR_MUL));
+        assertEquals(expected, vectorDelta.get(Metrics.Counter.MATRIX_MUL_SMALL));
+
+        val name = Metrics.registerMBean();
+        assertEquals(name, Metrics.registerMBean());
+        val server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(Metrics.ENABLED, server.getAttribute(name, "Enabled"));
+        assertTrue(server.getAttribute(name, "MATRIX_MUL_3") instanceof Long);
+        server.invoke(name, "reset", null, null);
+        assertEquals(0L, server.getAttribute(name, "HIERARCHY_NODES"));
+    }
 }